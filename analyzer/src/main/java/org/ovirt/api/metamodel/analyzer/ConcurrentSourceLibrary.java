@@ -0,0 +1,175 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.analyzer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.thoughtworks.qdox.library.ClassLoaderLibrary;
+import com.thoughtworks.qdox.library.ClassNameLibrary;
+import com.thoughtworks.qdox.library.SourceFolderLibrary;
+import com.thoughtworks.qdox.library.SourceLibrary;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * This QDox class library parses the model source files concurrently. Parsing a source file only creates new objects,
+ * it doesn't modify the library, so the files are parsed in a pool of threads, and then the results are registered
+ * in the calling thread, in the same order that the files were given. The result is therefore the same that would
+ * be obtained adding the files one by one, like the {@code JavaProjectBuilder} class does.
+ */
+class ConcurrentSourceLibrary extends SourceLibrary {
+    // The name of the files that contain package documentation:
+    private static final String PACKAGE_INFO = "package-info.java";
+
+    /**
+     * Creates a library that resolves classes that aren't in the source files using the class loader of the calling
+     * thread, like the default {@code JavaProjectBuilder} does.
+     */
+    static ConcurrentSourceLibrary create() {
+        ClassLoaderLibrary loaders = new ClassLoaderLibrary(new ClassNameLibrary());
+        loaders.addDefaultLoader();
+        return new ConcurrentSourceLibrary(new SourceFolderLibrary(loaders));
+    }
+
+    private ConcurrentSourceLibrary(SourceFolderLibrary parent) {
+        super(parent);
+    }
+
+    /**
+     * Parses and adds the given source files.
+     *
+     * @param files the source files to add
+     * @param threads the number of threads to use, if it is 1 the files will be parsed in the calling thread
+     * @throws IOException if any of the files can't be read
+     */
+    void addFiles(List<File> files, int threads) throws IOException {
+        // Package documentation files are skipped, like QDox does, they are only parsed when the first class of the
+        // package is registered:
+        List<File> sourceFiles = new ArrayList<>(files.size());
+        for (File file : files) {
+            if (!PACKAGE_INFO.equals(file.getName())) {
+                sourceFiles.add(file);
+            }
+        }
+        List<JavaSource> sources = parseAll(sourceFiles, this::parseFile, threads);
+        for (int i = 0; i < sources.size(); i++) {
+            JavaSource source = sources.get(i);
+            if (source == null) {
+                continue;
+            }
+            File file = sourceFiles.get(i);
+            File packageInfo = new File(file.getParentFile(), PACKAGE_INFO);
+            if (getJavaPackage(source.getPackageName()) == null && packageInfo.exists()) {
+                // Let QDox parse the file again, so that it also loads the package documentation:
+                addSource(file);
+            }
+            else {
+                registerJavaSource(source);
+            }
+        }
+    }
+
+    /**
+     * Parses and adds the given source texts.
+     *
+     * @param texts the source texts to add
+     * @param threads the number of threads to use, if it is 1 the texts will be parsed in the calling thread
+     * @throws IOException if parsing is interrupted
+     */
+    void addTexts(List<String> texts, int threads) throws IOException {
+        List<JavaSource> sources = parseAll(texts, text -> parse(new StringReader(text), null), threads);
+        for (JavaSource source : sources) {
+            if (source != null) {
+                registerJavaSource(source);
+            }
+        }
+    }
+
+    private JavaSource parseFile(File file) throws IOException {
+        return parse(new FileInputStream(file), file.toURI().toURL());
+    }
+
+    private <T> List<JavaSource> parseAll(List<T> inputs, Parser<T> parser, int threads) throws IOException {
+        List<JavaSource> sources = new ArrayList<>(inputs.size());
+
+        // Run in the calling thread if parallelism is disabled, or if there is nothing to parse in parallel:
+        if (threads == 1 || inputs.size() < 2) {
+            for (T input : inputs) {
+                sources.add(parser.parse(input));
+            }
+            return sources;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // Submit all the inputs:
+            List<ForkJoinTask<JavaSource>> futures = new ArrayList<>(inputs.size());
+            for (T input : inputs) {
+                futures.add(pool.submit(() -> parser.parse(input)));
+            }
+
+            // Wait for all the results, preserving the order, and remember the first failure:
+            Throwable failure = null;
+            for (ForkJoinTask<JavaSource> future : futures) {
+                try {
+                    sources.add(future.get());
+                }
+                catch (ExecutionException exception) {
+                    if (failure == null) {
+                        failure = exception.getCause();
+                    }
+                }
+                catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while parsing the model source files", exception);
+                }
+            }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new IOException(failure);
+            }
+            return sources;
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parses one input, it is used instead of {@link java.util.function.Function} because parsing may throw
+     * {@link IOException}.
+     */
+    @FunctionalInterface
+    private interface Parser<T> {
+        JavaSource parse(T input) throws IOException;
+    }
+}
@@ -23,9 +23,6 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -39,7 +36,9 @@ import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
-import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.directorywalker.DirectoryScanner;
+import com.thoughtworks.qdox.directorywalker.SuffixFilter;
+import com.thoughtworks.qdox.library.SourceLibrary;
 import com.thoughtworks.qdox.model.DocletTag;
 import com.thoughtworks.qdox.model.JavaAnnotatedElement;
 import com.thoughtworks.qdox.model.JavaAnnotation;
@@ -118,6 +117,11 @@ public class ModelAnalyzer {
      */
     private List<Constraint> undefinedConstraints = new ArrayList<>();
 
+    /**
+     * The number of threads used to parse the model source files.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
     /**
      * Sets the model that will be populated by this analyzer.
      */
@@ -132,6 +136,21 @@ public class ModelAnalyzer {
         return model;
     }
 
+    /**
+     * Sets the number of threads that will be used to parse the model source files. The default is the number of
+     * available processors. If it is 1 the files will be parsed in the calling thread. Note that only parsing is
+     * done in parallel, the analysis of the parsed classes is always done in the calling thread, as it resolves
+     * references between concepts as it goes and its order determines the order of the concepts in the model.
+     */
+    public void setThreads(int newThreads) {
+        if (newThreads < 1) {
+            throw new IllegalArgumentException(
+                "The number of threads should be at least 1, but it is " + newThreads + "."
+            );
+        }
+        threads = newThreads;
+    }
+
     /**
      * Analyzes all the model source files contained in the given directory or {@code .jar file}, extracts the concepts
      * and populates the model that has been previously set with the {@link #setModel(Model)} method.
@@ -140,13 +159,16 @@ public class ModelAnalyzer {
      * @throws IOException if something fails while scanning the model source files
      */
     public void analyzeSource(File sourceFile) throws IOException {
-        // Create the QDox project:
-        JavaProjectBuilder project = new JavaProjectBuilder();
+        // Create the QDox library:
+        ConcurrentSourceLibrary library = ConcurrentSourceLibrary.create();
 
         // If the given source file is actually a directory, then we can directly analyze it, but if it is a .jar file
-        // we need to iterate the contents file by file, as QDox doesn't directly support loading .jar files:
+        // we need to iterate the contents file by file, as QDox doesn't directly support loading .jar files. In both
+        // cases the Java source files are collected first, so that they can be parsed in parallel:
         if (sourceFile.isDirectory()) {
-            project.addSourceTree(sourceFile);
+            DirectoryScanner scanner = new DirectoryScanner(sourceFile);
+            scanner.addFilter(new SuffixFilter(".java"));
+            library.addFiles(scanner.scan(), threads);
             Collection<File> documentFiles = FileUtils.listFiles(sourceFile, new String[] { "adoc" }, true);
             for (File documentFile : documentFiles) {
                 try (InputStream documentIn = new FileInputStream(documentFile)) {
@@ -155,6 +177,7 @@ public class ModelAnalyzer {
             }
         }
         else if (sourceFile.isFile() && sourceFile.getName().endsWith(".jar")) {
+            List<String> sourceTexts = new ArrayList<>();
             try (ZipFile zipFile = new ZipFile(sourceFile)) {
                 Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
                 while (zipEntries.hasMoreElements()) {
@@ -162,9 +185,7 @@ public class ModelAnalyzer {
                     String zipEntryName = zipEntry.getName();
                     if (zipEntryName.endsWith(".java")) {
                         try (InputStream sourceIn = zipFile.getInputStream(zipEntry)) {
-                            try (Reader sourceReader = new InputStreamReader(sourceIn, Charset.forName("UTF-8"))) {
-                                project.addSource(sourceReader);
-                            }
+                            sourceTexts.add(IOUtils.toString(sourceIn, StandardCharsets.UTF_8));
                         }
                     }
                     else if (zipEntryName.endsWith(".adoc")) {
@@ -174,6 +195,7 @@ public class ModelAnalyzer {
                     }
                 }
             }
+            library.addTexts(sourceTexts, threads);
         }
         else {
             throw new IOException(
@@ -186,7 +208,7 @@ public class ModelAnalyzer {
         //Types are processed before services, because they are referenced during the processing of services.
         List<JavaClass> types = new ArrayList<>();
         List<JavaClass> services = new ArrayList<>();
-        separateClasses(project, types, services);
+        separateClasses(library, types, services);
 
         //Process the types.
         analyzeTypes(types);
@@ -218,8 +240,8 @@ public class ModelAnalyzer {
         redefineUndefinedTypes();
     }
 
-    private void separateClasses(JavaProjectBuilder project, List<JavaClass> types, List<JavaClass> services) {
-        for (JavaClass javaClass : project.getClasses()) {
+    private void separateClasses(SourceLibrary library, List<JavaClass> types, List<JavaClass> services) {
+        for (JavaClass javaClass : library.getJavaClasses()) {
             //Inner classes are discarded as they will be processed as part of
             //the processing of the class containing them).
             if (!javaClass.isInner()) {
@@ -598,7 +620,7 @@ public class ModelAnalyzer {
 
     private void analyzeModule(JavaClass javaClass, Consumer<Module> moduleSetter) {
         String javaName = javaClass.getPackageName();
-        Name name = NameParser.parseUsingSeparator(javaName, '.');
+        Name name = NameParser.internUsingSeparator(javaName, '.');
         Module module = model.getModule(name);
         if (module == null) {
             module = new Module();
@@ -629,7 +651,7 @@ public class ModelAnalyzer {
             String key = entry.getKey();
             Object value = entry.getValue();
             AnnotationParameter parameter = new AnnotationParameter();
-            parameter.setName(NameParser.parseUsingCase(key));
+            parameter.setName(NameParser.internUsingCase(key));
 
             // Get the values of the parameter:
             List<String> values = new ArrayList<>();
@@ -685,7 +707,7 @@ public class ModelAnalyzer {
         String javaName = javaField.getName();
         Name name;
         if (javaField.isEnumConstant()) {
-            name = NameParser.parseUsingSeparator(javaName, '_');
+            name = NameParser.internUsingSeparator(javaName, '_');
         }
         else {
             name = parseJavaName(javaName);
@@ -730,7 +752,7 @@ public class ModelAnalyzer {
 
     private void analyzeDocletTag(DocletTag docTag, Concept concept) {
         // Calculate the name:
-        Name name = NameParser.parseUsingCase(docTag.getName());
+        Name name = NameParser.internUsingCase(docTag.getName());
 
         // Create the annotation if it doesn't exist in the concept yet:
         Annotation annotation = concept.getAnnotation(name);
@@ -920,7 +942,7 @@ public class ModelAnalyzer {
                 document.setAppendix(true);
             }
         }
-        document.setName(name);
+        document.setName(NameParser.intern(name));
 
         // Read the source of the document:
         String source = IOUtils.toString(in, StandardCharsets.UTF_8);
@@ -0,0 +1,240 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.analyzer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.ovirt.api.metamodel.concepts.Model;
+
+/**
+ * This class stores the result of the analysis of the model source files in a file, so that it can be reused when
+ * the tool runs again and the sources haven't changed. The cached model is identified by a key calculated from the
+ * content of the model source directory or {@code .jar} file, the version of the analyzer and the version of the
+ * format of the file, so any change in any of them invalidates the cache. For example:
+ *
+ * <pre>
+ * ModelCache cache = new ModelCache(cacheFile, sourceFile);
+ * Model model = cache.load();
+ * if (model == null) {
+ *     model = new Model();
+ *     ModelAnalyzer analyzer = new ModelAnalyzer();
+ *     analyzer.setModel(model);
+ *     analyzer.analyzeSource(sourceFile);
+ *     cache.save(model);
+ * }
+ * </pre>
+ *
+ * The model is stored using a compact binary format, see the {@link ModelEncoder} and {@link ModelDecoder} classes,
+ * that is smaller and faster to read than the result of Java serialization, as it doesn't contain class descriptors
+ * and it uses only one copy of each string.
+ */
+public class ModelCache {
+    // The bytes that identify cache files:
+    static final int MAGIC = 0x4f564d43;
+
+    // The version of the format of the file. It must be incremented whenever the format changes, or when the concepts
+    // change in a way that affects it:
+    static final int FORMAT_VERSION = 1;
+
+    // The location of the file that contains the version of the analyzer, generated by Maven when packaging:
+    private static final String POM_PROPERTIES =
+        "/META-INF/maven/org.ovirt.engine.api/metamodel-analyzer/pom.properties";
+
+    // The file where the model is stored:
+    private final File cacheFile;
+
+    // The directory or .jar file containing the model source files:
+    private final File sourceFile;
+
+    // The key of the model, calculated lazily:
+    private String key;
+
+    /**
+     * Creates a cache that stores the model in the given file.
+     *
+     * @param cacheFile the file where the analyzed model will be stored
+     * @param sourceFile the directory or {@code .jar} file containing the model source files
+     */
+    public ModelCache(File cacheFile, File sourceFile) {
+        this.cacheFile = cacheFile;
+        this.sourceFile = sourceFile;
+    }
+
+    /**
+     * Loads the model from the cache file.
+     *
+     * @return the model, or {@code null} if the cache file doesn't exist, or if it was created from a different
+     *     version of the source files or by a different version of the analyzer
+     * @throws IOException if something fails while reading the model source files
+     */
+    public Model load() throws IOException {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        String expectedKey = getKey();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !expectedKey.equals(in.readUTF())) {
+                return null;
+            }
+            return new ModelDecoder(in).decode();
+        }
+        catch (IOException | RuntimeException exception) {
+            // A damaged cache isn't fatal, the model will be analyzed again and the cache replaced:
+            System.err.println(
+                "Can't load model cache file \"" + cacheFile.getAbsolutePath() + "\": " + exception
+            );
+            return null;
+        }
+    }
+
+    /**
+     * Saves the model to the cache file. The data is first written to a temporary file that then replaces the cache
+     * file, so that other processes never see an incomplete file.
+     *
+     * @param model the model to save, as returned by the analyzer
+     * @throws IOException if something fails while writing the file
+     */
+    public void save(Model model) throws IOException {
+        File parentDir = cacheFile.getAbsoluteFile().getParentFile();
+        FileUtils.forceMkdir(parentDir);
+        File tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", parentDir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(getKey());
+                new ModelEncoder(out).encode(model);
+            }
+            Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /**
+     * Returns the key that identifies the current version of the model source files and of the analyzer.
+     */
+    private String getKey() throws IOException {
+        if (key == null) {
+            key = calculateKey();
+        }
+        return key;
+    }
+
+    private String calculateKey() throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("Can't create message digest", exception);
+        }
+        digest.update(getAnalyzerVersion().getBytes(UTF_8));
+        digest.update((byte) 0);
+        if (sourceFile.isDirectory()) {
+            // The order of the files returned by the file system isn't defined, so they need to be sorted. The names
+            // are included in the digest so that renaming a file also changes the key.
+            String sourcePath = sourceFile.getAbsolutePath();
+            List<File> files = new ArrayList<>(listSourceFiles(sourceFile));
+            Collections.sort(files);
+            for (File file : files) {
+                digest.update(file.getAbsolutePath().substring(sourcePath.length()).getBytes(UTF_8));
+                digest.update((byte) 0);
+                updateDigest(digest, file);
+            }
+        }
+        else {
+            updateDigest(digest, sourceFile);
+        }
+        StringBuilder buffer = new StringBuilder();
+        for (byte b : digest.digest()) {
+            buffer.append(String.format("%02x", b));
+        }
+        return buffer.toString();
+    }
+
+    private static Collection<File> listSourceFiles(File dir) {
+        return FileUtils.listFiles(dir, new String[] { "java", "adoc" }, true);
+    }
+
+    private static void updateDigest(MessageDigest digest, File file) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(file)) {
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+            }
+        }
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Returns the version of the analyzer, extracted from the properties file that Maven adds to the {@code .jar}
+     * file. Snapshot versions are rebuilt frequently without changing the version number, so the time of last
+     * modification of the code is also included.
+     */
+    private static String getAnalyzerVersion() throws IOException {
+        String version = null;
+        try (InputStream in = ModelCache.class.getResourceAsStream(POM_PROPERTIES)) {
+            if (in != null) {
+                Properties properties = new Properties();
+                properties.load(in);
+                version = properties.getProperty("version");
+            }
+        }
+        return version + "@" + getCodeTime();
+    }
+
+    /**
+     * Returns the time of last modification of the {@code .jar} file containing the analyzer, or of the class file if
+     * it is running from the output directory of the compiler.
+     */
+    private static long getCodeTime() {
+        try {
+            File location = new File(ModelCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (location.isDirectory()) {
+                location = new File(location, ModelCache.class.getName().replace('.', '/') + ".class");
+            }
+            return location.lastModified();
+        }
+        catch (URISyntaxException | RuntimeException exception) {
+            return 0;
+        }
+    }
+}
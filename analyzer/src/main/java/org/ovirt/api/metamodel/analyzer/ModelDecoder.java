@@ -0,0 +1,457 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.analyzer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.ovirt.api.metamodel.analyzer.ModelEncoder.*;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ovirt.api.metamodel.concepts.Annotation;
+import org.ovirt.api.metamodel.concepts.AnnotationParameter;
+import org.ovirt.api.metamodel.concepts.ArrayExpression;
+import org.ovirt.api.metamodel.concepts.Attribute;
+import org.ovirt.api.metamodel.concepts.AttributeExpression;
+import org.ovirt.api.metamodel.concepts.BinaryExpression;
+import org.ovirt.api.metamodel.concepts.Concept;
+import org.ovirt.api.metamodel.concepts.Constraint;
+import org.ovirt.api.metamodel.concepts.ConstraintKind;
+import org.ovirt.api.metamodel.concepts.Document;
+import org.ovirt.api.metamodel.concepts.EnumType;
+import org.ovirt.api.metamodel.concepts.EnumValue;
+import org.ovirt.api.metamodel.concepts.Expression;
+import org.ovirt.api.metamodel.concepts.Link;
+import org.ovirt.api.metamodel.concepts.LinkExpression;
+import org.ovirt.api.metamodel.concepts.ListType;
+import org.ovirt.api.metamodel.concepts.LiteralExpression;
+import org.ovirt.api.metamodel.concepts.Locator;
+import org.ovirt.api.metamodel.concepts.MemberInvolvementTree;
+import org.ovirt.api.metamodel.concepts.Method;
+import org.ovirt.api.metamodel.concepts.Model;
+import org.ovirt.api.metamodel.concepts.Module;
+import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.NameParser;
+import org.ovirt.api.metamodel.concepts.Operator;
+import org.ovirt.api.metamodel.concepts.Parameter;
+import org.ovirt.api.metamodel.concepts.ParameterExpression;
+import org.ovirt.api.metamodel.concepts.PrimitiveType;
+import org.ovirt.api.metamodel.concepts.Service;
+import org.ovirt.api.metamodel.concepts.ServiceMember;
+import org.ovirt.api.metamodel.concepts.StructMember;
+import org.ovirt.api.metamodel.concepts.StructType;
+import org.ovirt.api.metamodel.concepts.Type;
+import org.ovirt.api.metamodel.concepts.UnaryExpression;
+
+/**
+ * This class reads a model written by the {@link ModelEncoder} class. See the documentation of that class for a
+ * description of the format.
+ */
+class ModelDecoder {
+    // The values of the enumerated types, indexed by ordinal:
+    private static final ConstraintKind[] KINDS = ConstraintKind.values();
+    private static final Operator[] OPERATORS = Operator.values();
+
+    // The input where the data is read from:
+    private final DataInput in;
+
+    // The objects and strings that have already been read, in the order they were read:
+    private final List<Object> objects = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+
+    ModelDecoder(DataInput in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the model.
+     */
+    Model decode() throws IOException {
+        // The objects created by the constructor of the model are implicitly the first ones:
+        Model model = new Model();
+        objects.addAll(builtinObjects(model));
+
+        // Read the declarations of the modules, types, services and documents, and then their contents:
+        List<Module> modules = declare(Module.class);
+        List<Type> types = declare(Type.class);
+        List<Service> services = declare(Service.class);
+        List<Document> documents = declare(Document.class);
+        for (Module module : modules) {
+            readConcept(module);
+            module.setModel(readReference(Model.class));
+            model.addModule(module);
+        }
+        for (Type type : types) {
+            readType(type);
+            model.addType(type);
+        }
+        for (Service service : services) {
+            readService(service);
+            model.addService(service);
+        }
+        for (Document document : documents) {
+            readConcept(document);
+            document.setAppendix(in.readBoolean());
+            model.addDocument(document);
+        }
+        model.setRoot(readReference(Service.class));
+        return model;
+    }
+
+    private <T> List<T> declare(Class<T> type) throws IOException {
+        int size = readInt();
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Object object = create(readInt());
+            objects.add(object);
+            list.add(type.cast(object));
+        }
+        return list;
+    }
+
+    private Object create(int tag) throws IOException {
+        switch (tag) {
+        case NAME:
+            return new Name();
+        case ANNOTATION:
+            return new Annotation();
+        case ANNOTATION_PARAMETER:
+            return new AnnotationParameter();
+        case MODULE:
+            return new Module();
+        case DOCUMENT:
+            return new Document();
+        case PRIMITIVE_TYPE:
+            return new PrimitiveType();
+        case STRUCT_TYPE:
+            return new StructType();
+        case ENUM_TYPE:
+            return new EnumType();
+        case LIST_TYPE:
+            return new ListType();
+        case ENUM_VALUE:
+            return new EnumValue();
+        case STRUCT_MEMBER:
+            return new StructMember();
+        case ATTRIBUTE:
+            return new Attribute();
+        case LINK:
+            return new Link();
+        case SERVICE:
+            return new Service();
+        case SERVICE_MEMBER:
+            return new ServiceMember();
+        case METHOD:
+            return new Method();
+        case LOCATOR:
+            return new Locator();
+        case PARAMETER:
+            return new Parameter();
+        case CONSTRAINT:
+            return new Constraint();
+        case MEMBER_INVOLVEMENT_TREE:
+            return new MemberInvolvementTree((Name) null);
+        case ARRAY_EXPRESSION:
+            return new ArrayExpression();
+        case ATTRIBUTE_EXPRESSION:
+            return new AttributeExpression();
+        case BINARY_EXPRESSION:
+            return new BinaryExpression();
+        case LINK_EXPRESSION:
+            return new LinkExpression();
+        case LITERAL_EXPRESSION:
+            return new LiteralExpression();
+        case PARAMETER_EXPRESSION:
+            return new ParameterExpression();
+        case UNARY_EXPRESSION:
+            return new UnaryExpression();
+        default:
+            throw new IOException("Unknown tag " + tag);
+        }
+    }
+
+    /**
+     * Reads a reference to an object. If the object is new then it is created, registered and read.
+     */
+    private <T> T readReference(Class<T> type) throws IOException {
+        int code = readInt();
+        if (code == NULL) {
+            return null;
+        }
+        if (code != NEW) {
+            return type.cast(objects.get(code - FIRST_REFERENCE));
+        }
+        int tag = readInt();
+        if (tag == NAME) {
+            // Names are read before registering them, so that they are created with all their words:
+            Name name = readName();
+            objects.add(name);
+            return type.cast(name);
+        }
+        Object object = create(tag);
+        objects.add(object);
+        readObject(object);
+        return type.cast(object);
+    }
+
+    private <T> List<T> readReferences(Class<T> type) throws IOException {
+        int size = readInt();
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readReference(type));
+        }
+        return list;
+    }
+
+    private void readObject(Object object) throws IOException {
+        if (object instanceof Annotation) {
+            readAnnotation((Annotation) object);
+        }
+        else if (object instanceof AnnotationParameter) {
+            readAnnotationParameter((AnnotationParameter) object);
+        }
+        else if (object instanceof Type) {
+            readType((Type) object);
+        }
+        else if (object instanceof EnumValue) {
+            readEnumValue((EnumValue) object);
+        }
+        else if (object instanceof StructMember) {
+            readStructMember((StructMember) object);
+        }
+        else if (object instanceof ServiceMember) {
+            readServiceMember((ServiceMember) object);
+        }
+        else if (object instanceof Parameter) {
+            readParameter((Parameter) object);
+        }
+        else if (object instanceof Constraint) {
+            readConstraint((Constraint) object);
+        }
+        else if (object instanceof MemberInvolvementTree) {
+            readMemberInvolvementTree((MemberInvolvementTree) object);
+        }
+        else if (object instanceof Expression) {
+            readExpression((Expression) object);
+        }
+        else {
+            throw new IOException("Object of class \"" + object.getClass().getName() + "\" should have been " +
+                "declared in advance");
+        }
+    }
+
+    private Name readName() throws IOException {
+        int size = readInt();
+        List<String> words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            words.add(readString());
+        }
+        return NameParser.intern(new Name(words));
+    }
+
+    private void readAnnotation(Annotation annotation) throws IOException {
+        annotation.setName(readReference(Name.class));
+        annotation.addParameters(readReferences(AnnotationParameter.class));
+    }
+
+    private void readAnnotationParameter(AnnotationParameter parameter) throws IOException {
+        parameter.setName(readReference(Name.class));
+        int size = readInt();
+        for (int i = 0; i < size; i++) {
+            parameter.addValue(readString());
+        }
+    }
+
+    private void readConcept(Concept concept) throws IOException {
+        concept.setName(readReference(Name.class));
+        concept.setDoc(readString());
+        concept.setSource(readString());
+        concept.addAnnotations(readReferences(Annotation.class));
+    }
+
+    private void readType(Type type) throws IOException {
+        readConcept(type);
+        Module module = readReference(Module.class);
+        if (type instanceof StructType) {
+            StructType structType = (StructType) type;
+            structType.setBase(readReference(Type.class));
+            for (Attribute attribute : readReferences(Attribute.class)) {
+                structType.addAttribute(attribute);
+            }
+            for (Link link : readReferences(Link.class)) {
+                structType.addLink(link);
+            }
+        }
+        else if (type instanceof EnumType) {
+            EnumType enumType = (EnumType) type;
+            for (EnumValue value : readReferences(EnumValue.class)) {
+                enumType.addValue(value);
+            }
+        }
+        else if (type instanceof ListType) {
+            ((ListType) type).setElementType(readReference(Type.class));
+        }
+
+        // This needs to be done after setting the element type of list types, as that also sets the module, using the
+        // module of the element type, that may not have been read yet:
+        type.setModule(module);
+    }
+
+    private void readEnumValue(EnumValue value) throws IOException {
+        readConcept(value);
+        value.setDeclaringType(readReference(EnumType.class));
+    }
+
+    private void readStructMember(StructMember member) throws IOException {
+        readConcept(member);
+        member.setDeclaringType(readReference(StructType.class));
+        member.setType(readReference(Type.class));
+    }
+
+    private void readService(Service service) throws IOException {
+        readConcept(service);
+        service.setModule(readReference(Module.class));
+        service.setBase(readReference(Service.class));
+        service.addMethods(readReferences(Method.class));
+        service.addLocators(readReferences(Locator.class));
+        service.addConstraints(readReferences(Constraint.class));
+    }
+
+    private void readServiceMember(ServiceMember member) throws IOException {
+        readConcept(member);
+        member.setDeclaringService(readReference(Service.class));
+        member.addParameters(readReferences(Parameter.class));
+        if (member instanceof Method) {
+            Method method = (Method) member;
+            method.setBase(readReference(Method.class));
+            method.addConstraints(readReferences(Constraint.class));
+        }
+        else if (member instanceof Locator) {
+            ((Locator) member).setService(readReference(Service.class));
+        }
+    }
+
+    private void readParameter(Parameter parameter) throws IOException {
+        readConcept(parameter);
+        parameter.setDeclaringMethod(readReference(Method.class));
+        parameter.setIn(in.readBoolean());
+        parameter.setOut(in.readBoolean());
+        parameter.setType(readReference(Type.class));
+        parameter.setDefaultValue(readReference(Expression.class));
+        parameter.setMandatory(in.readBoolean());
+        parameter.getMemberInvolvementTrees().addAll(readReferences(MemberInvolvementTree.class));
+    }
+
+    private void readConstraint(Constraint constraint) throws IOException {
+        readConcept(constraint);
+        constraint.setDeclaringMethod(readReference(Method.class));
+        constraint.setIn(in.readBoolean());
+        constraint.setOut(in.readBoolean());
+        constraint.setKind(KINDS[readInt()]);
+        constraint.addExpressions(readReferences(Expression.class));
+    }
+
+    private void readMemberInvolvementTree(MemberInvolvementTree tree) throws IOException {
+        tree.setMember(readReference(StructMember.class));
+        tree.setParent(readReference(MemberInvolvementTree.class));
+        tree.setAlternative(readReference(MemberInvolvementTree.class));
+        tree.setMandatory(in.readBoolean());
+        tree.getNodes().addAll(readReferences(MemberInvolvementTree.class));
+    }
+
+    private void readExpression(Expression expression) throws IOException {
+        expression.setType(readReference(Type.class));
+        if (expression instanceof ArrayExpression) {
+            ArrayExpression array = (ArrayExpression) expression;
+            array.setArray(readReference(Expression.class));
+            array.setIndex(readReference(Expression.class));
+        }
+        else if (expression instanceof AttributeExpression) {
+            AttributeExpression attribute = (AttributeExpression) expression;
+            attribute.setTarget(readReference(Expression.class));
+            attribute.setAttribute(readReference(Attribute.class));
+        }
+        else if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            binary.setOperator(OPERATORS[readInt()]);
+            binary.setLeft(readReference(Expression.class));
+            binary.setRight(readReference(Expression.class));
+        }
+        else if (expression instanceof LinkExpression) {
+            LinkExpression link = (LinkExpression) expression;
+            link.setTarget(readReference(Expression.class));
+            link.setLink(readReference(Link.class));
+        }
+        else if (expression instanceof LiteralExpression) {
+            ((LiteralExpression) expression).setValue(readLiteral());
+        }
+        else if (expression instanceof ParameterExpression) {
+            ((ParameterExpression) expression).setParameter(readReference(Parameter.class));
+        }
+        else if (expression instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) expression;
+            unary.setOperator(OPERATORS[readInt()]);
+            unary.setOperand(readReference(Expression.class));
+        }
+    }
+
+    private Object readLiteral() throws IOException {
+        int tag = readInt();
+        switch (tag) {
+        case LITERAL_NULL:
+            return null;
+        case LITERAL_FALSE:
+            return Boolean.FALSE;
+        case LITERAL_TRUE:
+            return Boolean.TRUE;
+        case LITERAL_INTEGER:
+            return new BigInteger(readString());
+        default:
+            throw new IOException("Unknown literal tag " + tag);
+        }
+    }
+
+    private String readString() throws IOException {
+        int code = readInt();
+        if (code == NULL) {
+            return null;
+        }
+        if (code != NEW) {
+            return strings.get(code - FIRST_REFERENCE);
+        }
+        byte[] bytes = new byte[readInt()];
+        in.readFully(bytes);
+        String string = new String(bytes, UTF_8);
+        strings.add(string);
+        return string;
+    }
+
+    private int readInt() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readByte();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
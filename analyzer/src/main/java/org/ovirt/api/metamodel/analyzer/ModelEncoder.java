@@ -0,0 +1,504 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.analyzer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.ovirt.api.metamodel.concepts.Annotation;
+import org.ovirt.api.metamodel.concepts.AnnotationParameter;
+import org.ovirt.api.metamodel.concepts.ArrayExpression;
+import org.ovirt.api.metamodel.concepts.Attribute;
+import org.ovirt.api.metamodel.concepts.AttributeExpression;
+import org.ovirt.api.metamodel.concepts.BinaryExpression;
+import org.ovirt.api.metamodel.concepts.Concept;
+import org.ovirt.api.metamodel.concepts.Constraint;
+import org.ovirt.api.metamodel.concepts.Document;
+import org.ovirt.api.metamodel.concepts.EnumType;
+import org.ovirt.api.metamodel.concepts.EnumValue;
+import org.ovirt.api.metamodel.concepts.Expression;
+import org.ovirt.api.metamodel.concepts.ImmutableName;
+import org.ovirt.api.metamodel.concepts.Link;
+import org.ovirt.api.metamodel.concepts.LinkExpression;
+import org.ovirt.api.metamodel.concepts.ListType;
+import org.ovirt.api.metamodel.concepts.LiteralExpression;
+import org.ovirt.api.metamodel.concepts.Locator;
+import org.ovirt.api.metamodel.concepts.MemberInvolvementTree;
+import org.ovirt.api.metamodel.concepts.Method;
+import org.ovirt.api.metamodel.concepts.Model;
+import org.ovirt.api.metamodel.concepts.Module;
+import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.Parameter;
+import org.ovirt.api.metamodel.concepts.ParameterExpression;
+import org.ovirt.api.metamodel.concepts.PrimitiveType;
+import org.ovirt.api.metamodel.concepts.Service;
+import org.ovirt.api.metamodel.concepts.ServiceMember;
+import org.ovirt.api.metamodel.concepts.StructMember;
+import org.ovirt.api.metamodel.concepts.StructType;
+import org.ovirt.api.metamodel.concepts.Type;
+import org.ovirt.api.metamodel.concepts.UnaryExpression;
+
+/**
+ * This class writes a model using the compact binary format of the {@link ModelCache} class.
+ *
+ * Objects are written the first time that they are referenced, preceded by a tag that identifies their class, and
+ * then they are referenced by their index in the order they were written, so the identity of objects that are
+ * referenced from multiple places is preserved, and cycles are supported. Strings are handled in the same way, but in
+ * a separate table. Numbers are written as variable length integers, so most of them take only one byte.
+ *
+ * To avoid deep recursion the modules, types, services and documents of the model are declared first, and their
+ * contents are written later, so that references between them are always to objects that have already been declared.
+ * The objects created by the constructor of the {@link Model} class, the anonymous module and the built-in types,
+ * aren't written, they are implicitly the first ones.
+ */
+class ModelEncoder {
+    // Codes used for references:
+    static final int NULL = 0;
+    static final int NEW = 1;
+    static final int FIRST_REFERENCE = 2;
+
+    // Tags that identify the classes of objects:
+    static final int NAME = 1;
+    static final int ANNOTATION = 2;
+    static final int ANNOTATION_PARAMETER = 3;
+    static final int MODULE = 4;
+    static final int DOCUMENT = 5;
+    static final int PRIMITIVE_TYPE = 6;
+    static final int STRUCT_TYPE = 7;
+    static final int ENUM_TYPE = 8;
+    static final int LIST_TYPE = 9;
+    static final int ENUM_VALUE = 10;
+    static final int STRUCT_MEMBER = 11;
+    static final int ATTRIBUTE = 12;
+    static final int LINK = 13;
+    static final int SERVICE = 14;
+    static final int SERVICE_MEMBER = 15;
+    static final int METHOD = 16;
+    static final int LOCATOR = 17;
+    static final int PARAMETER = 18;
+    static final int CONSTRAINT = 19;
+    static final int MEMBER_INVOLVEMENT_TREE = 20;
+    static final int ARRAY_EXPRESSION = 21;
+    static final int ATTRIBUTE_EXPRESSION = 22;
+    static final int BINARY_EXPRESSION = 23;
+    static final int LINK_EXPRESSION = 24;
+    static final int LITERAL_EXPRESSION = 25;
+    static final int PARAMETER_EXPRESSION = 26;
+    static final int UNARY_EXPRESSION = 27;
+
+    // Tags that identify the classes of literal values:
+    static final int LITERAL_NULL = 0;
+    static final int LITERAL_FALSE = 1;
+    static final int LITERAL_TRUE = 2;
+    static final int LITERAL_INTEGER = 3;
+
+    // The tags of the classes, indexed by class:
+    private static final Map<Class<?>, Integer> TAGS = new HashMap<>();
+
+    static {
+        TAGS.put(Name.class, NAME);
+        TAGS.put(ImmutableName.class, NAME);
+        TAGS.put(Annotation.class, ANNOTATION);
+        TAGS.put(AnnotationParameter.class, ANNOTATION_PARAMETER);
+        TAGS.put(Module.class, MODULE);
+        TAGS.put(Document.class, DOCUMENT);
+        TAGS.put(PrimitiveType.class, PRIMITIVE_TYPE);
+        TAGS.put(StructType.class, STRUCT_TYPE);
+        TAGS.put(EnumType.class, ENUM_TYPE);
+        TAGS.put(ListType.class, LIST_TYPE);
+        TAGS.put(EnumValue.class, ENUM_VALUE);
+        TAGS.put(StructMember.class, STRUCT_MEMBER);
+        TAGS.put(Attribute.class, ATTRIBUTE);
+        TAGS.put(Link.class, LINK);
+        TAGS.put(Service.class, SERVICE);
+        TAGS.put(ServiceMember.class, SERVICE_MEMBER);
+        TAGS.put(Method.class, METHOD);
+        TAGS.put(Locator.class, LOCATOR);
+        TAGS.put(Parameter.class, PARAMETER);
+        TAGS.put(Constraint.class, CONSTRAINT);
+        TAGS.put(MemberInvolvementTree.class, MEMBER_INVOLVEMENT_TREE);
+        TAGS.put(ArrayExpression.class, ARRAY_EXPRESSION);
+        TAGS.put(AttributeExpression.class, ATTRIBUTE_EXPRESSION);
+        TAGS.put(BinaryExpression.class, BINARY_EXPRESSION);
+        TAGS.put(LinkExpression.class, LINK_EXPRESSION);
+        TAGS.put(LiteralExpression.class, LITERAL_EXPRESSION);
+        TAGS.put(ParameterExpression.class, PARAMETER_EXPRESSION);
+        TAGS.put(UnaryExpression.class, UNARY_EXPRESSION);
+    }
+
+    // The output where the data is written:
+    private final DataOutput out;
+
+    // The indexes of the objects and strings that have already been written:
+    private final Map<Object, Integer> objects = new IdentityHashMap<>();
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    ModelEncoder(DataOutput out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes the given model.
+     */
+    void encode(Model model) throws IOException {
+        // The objects created by the constructor of the model are implicitly the first ones:
+        List<Object> builtins = builtinObjects(model);
+        builtins.forEach(this::register);
+        Set<Object> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+        skipped.addAll(builtins);
+
+        // Declare the modules, types, services and documents, and then write their contents:
+        List<Module> modules = without(model.modules(), skipped);
+        List<Type> types = without(model.types(), skipped);
+        List<Service> services = without(model.services(), skipped);
+        List<Document> documents = without(model.documents(), skipped);
+        declare(modules);
+        declare(types);
+        declare(services);
+        declare(documents);
+        for (Module module : modules) {
+            writeConcept(module);
+            writeReference(module.getModel());
+        }
+        for (Type type : types) {
+            writeType(type);
+        }
+        for (Service service : services) {
+            writeService(service);
+        }
+        for (Document document : documents) {
+            writeConcept(document);
+            out.writeBoolean(document.isAppendix());
+        }
+        writeReference(model.getRoot());
+    }
+
+    /**
+     * Returns the objects created by the constructor of the model, in a well known order that is also used by the
+     * decoder.
+     */
+    static List<Object> builtinObjects(Model model) {
+        return Arrays.asList(
+            model,
+            model.getModules().get(0),
+            model.getBooleanType(),
+            model.getStringType(),
+            model.getIntegerType(),
+            model.getDateType(),
+            model.getDecimalType()
+        );
+    }
+
+    private static <T> List<T> without(Stream<T> stream, Set<Object> skipped) {
+        return stream.filter(x -> !skipped.contains(x)).collect(toList());
+    }
+
+    private void register(Object object) {
+        objects.put(object, objects.size());
+    }
+
+    private void declare(List<?> list) throws IOException {
+        writeInt(list.size());
+        for (Object object : list) {
+            writeInt(getTag(object));
+            register(object);
+        }
+    }
+
+    private int getTag(Object object) {
+        Integer tag = TAGS.get(object.getClass());
+        if (tag == null) {
+            throw new IllegalStateException("Don't know how to encode objects of class \"" +
+                object.getClass().getName() + "\"");
+        }
+        return tag;
+    }
+
+    /**
+     * Writes a reference to an object. If the object hasn't been written before then it is written now, preceded by
+     * its tag.
+     */
+    private void writeReference(Object object) throws IOException {
+        if (object == null) {
+            writeInt(NULL);
+            return;
+        }
+        Integer index = objects.get(object);
+        if (index != null) {
+            writeInt(FIRST_REFERENCE + index);
+            return;
+        }
+        int tag = getTag(object);
+        writeInt(NEW);
+        writeInt(tag);
+        register(object);
+        writeObject(object);
+    }
+
+    private void writeReferences(List<?> list) throws IOException {
+        writeInt(list.size());
+        for (Object object : list) {
+            writeReference(object);
+        }
+    }
+
+    private void writeObject(Object object) throws IOException {
+        if (object instanceof Name) {
+            writeName((Name) object);
+        }
+        else if (object instanceof Annotation) {
+            writeAnnotation((Annotation) object);
+        }
+        else if (object instanceof AnnotationParameter) {
+            writeAnnotationParameter((AnnotationParameter) object);
+        }
+        else if (object instanceof Type) {
+            writeType((Type) object);
+        }
+        else if (object instanceof EnumValue) {
+            writeEnumValue((EnumValue) object);
+        }
+        else if (object instanceof StructMember) {
+            writeStructMember((StructMember) object);
+        }
+        else if (object instanceof ServiceMember) {
+            writeServiceMember((ServiceMember) object);
+        }
+        else if (object instanceof Parameter) {
+            writeParameter((Parameter) object);
+        }
+        else if (object instanceof Constraint) {
+            writeConstraint((Constraint) object);
+        }
+        else if (object instanceof MemberInvolvementTree) {
+            writeMemberInvolvementTree((MemberInvolvementTree) object);
+        }
+        else if (object instanceof Expression) {
+            writeExpression((Expression) object);
+        }
+        else {
+            // Modules, services and documents are always declared in advance, so they should never get here:
+            throw new IllegalStateException("Object \"" + object + "\" should have been declared in advance");
+        }
+    }
+
+    private void writeName(Name name) throws IOException {
+        List<String> words = name.getWords();
+        writeInt(words.size());
+        for (String word : words) {
+            writeString(word);
+        }
+    }
+
+    private void writeAnnotation(Annotation annotation) throws IOException {
+        writeReference(annotation.getName());
+        writeReferences(annotation.getParameters());
+    }
+
+    private void writeAnnotationParameter(AnnotationParameter parameter) throws IOException {
+        writeReference(parameter.getName());
+        List<String> values = parameter.getValues();
+        writeInt(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    private void writeConcept(Concept concept) throws IOException {
+        writeReference(concept.getName());
+        writeString(concept.getDoc());
+        writeString(concept.getSource());
+        writeReferences(concept.getAnnotations());
+    }
+
+    private void writeType(Type type) throws IOException {
+        writeConcept(type);
+        writeReference(type.getModule());
+        if (type instanceof StructType) {
+            StructType structType = (StructType) type;
+            writeReference(structType.getBase());
+            writeReferences(structType.getDeclaredAttributes());
+            writeReferences(structType.getDeclaredLinks());
+        }
+        else if (type instanceof EnumType) {
+            writeReferences(((EnumType) type).getValues());
+        }
+        else if (type instanceof ListType) {
+            writeReference(((ListType) type).getElementType());
+        }
+    }
+
+    private void writeEnumValue(EnumValue value) throws IOException {
+        writeConcept(value);
+        writeReference(value.getDeclaringType());
+    }
+
+    private void writeStructMember(StructMember member) throws IOException {
+        writeConcept(member);
+        writeReference(member.getDeclaringType());
+        writeReference(member.getType());
+    }
+
+    private void writeService(Service service) throws IOException {
+        writeConcept(service);
+        writeReference(service.getModule());
+        writeReference(service.getBase());
+        writeReferences(service.getDeclaredMethods());
+        writeReferences(service.getDeclaredLocators());
+        writeReferences(service.getDeclaredConstraints());
+    }
+
+    private void writeServiceMember(ServiceMember member) throws IOException {
+        writeConcept(member);
+        writeReference(member.getDeclaringService());
+        writeReferences(member.getParameters());
+        if (member instanceof Method) {
+            Method method = (Method) member;
+            writeReference(method.getBase());
+            writeReferences(method.getConstraints());
+        }
+        else if (member instanceof Locator) {
+            writeReference(((Locator) member).getService());
+        }
+    }
+
+    private void writeParameter(Parameter parameter) throws IOException {
+        writeConcept(parameter);
+        writeReference(parameter.getDeclaringMethod());
+        out.writeBoolean(parameter.isIn());
+        out.writeBoolean(parameter.isOut());
+        writeReference(parameter.getType());
+        writeReference(parameter.getDefaultValue());
+        out.writeBoolean(parameter.isMandatory());
+        writeReferences(parameter.getMemberInvolvementTrees());
+    }
+
+    private void writeConstraint(Constraint constraint) throws IOException {
+        writeConcept(constraint);
+        writeReference(constraint.getDeclaringMethod());
+        out.writeBoolean(constraint.isIn());
+        out.writeBoolean(constraint.isOut());
+        writeInt(constraint.getKind().ordinal());
+        writeReferences(constraint.getExpressions());
+    }
+
+    private void writeMemberInvolvementTree(MemberInvolvementTree tree) throws IOException {
+        writeReference(tree.getMember());
+        writeReference(tree.getParent());
+        writeReference(tree.getAlternative());
+        out.writeBoolean(tree.isMandatory());
+        writeReferences(tree.getNodes());
+    }
+
+    private void writeExpression(Expression expression) throws IOException {
+        writeReference(expression.getType());
+        if (expression instanceof ArrayExpression) {
+            ArrayExpression array = (ArrayExpression) expression;
+            writeReference(array.getArray());
+            writeReference(array.getIndex());
+        }
+        else if (expression instanceof AttributeExpression) {
+            AttributeExpression attribute = (AttributeExpression) expression;
+            writeReference(attribute.getTarget());
+            writeReference(attribute.getAttribute());
+        }
+        else if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            writeInt(binary.getOperator().ordinal());
+            writeReference(binary.getLeft());
+            writeReference(binary.getRight());
+        }
+        else if (expression instanceof LinkExpression) {
+            LinkExpression link = (LinkExpression) expression;
+            writeReference(link.getTarget());
+            writeReference(link.getLink());
+        }
+        else if (expression instanceof LiteralExpression) {
+            writeLiteral(((LiteralExpression) expression).getValue());
+        }
+        else if (expression instanceof ParameterExpression) {
+            writeReference(((ParameterExpression) expression).getParameter());
+        }
+        else if (expression instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) expression;
+            writeInt(unary.getOperator().ordinal());
+            writeReference(unary.getOperand());
+        }
+    }
+
+    private void writeLiteral(Object value) throws IOException {
+        if (value == null) {
+            writeInt(LITERAL_NULL);
+        }
+        else if (value instanceof Boolean) {
+            writeInt((Boolean) value? LITERAL_TRUE: LITERAL_FALSE);
+        }
+        else if (value instanceof BigInteger) {
+            writeInt(LITERAL_INTEGER);
+            writeString(value.toString());
+        }
+        else {
+            throw new IllegalStateException("Don't know how to encode literal values of class \"" +
+                value.getClass().getName() + "\"");
+        }
+    }
+
+    /**
+     * Writes a string. The first time that a string is written its characters are written, encoded using UTF-8,
+     * and later it is written as a reference to the first one.
+     */
+    private void writeString(String string) throws IOException {
+        if (string == null) {
+            writeInt(NULL);
+            return;
+        }
+        Integer index = strings.get(string);
+        if (index != null) {
+            writeInt(FIRST_REFERENCE + index);
+            return;
+        }
+        strings.put(string, strings.size());
+        byte[] bytes = string.getBytes(UTF_8);
+        writeInt(NEW);
+        writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes a non negative integer using a variable number of bytes, seven bits per byte, starting with the least
+     * significant ones. The most significant bit of each byte indicates if there are more bytes.
+     */
+    private void writeInt(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
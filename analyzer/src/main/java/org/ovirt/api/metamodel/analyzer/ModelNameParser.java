@@ -25,7 +25,8 @@ import org.ovirt.api.metamodel.concepts.NameParser;
 public class ModelNameParser {
     /**
      * Creates a model name from a Java name, doing any processing that is required, for example removing the prefixes
-     * or suffixes that are used to avoid conflicts with Java reserved words.
+     * or suffixes that are used to avoid conflicts with Java reserved words. The returned name is interned, so it
+     * can't be modified.
      */
     public static Name parseJavaName(String text) {
         // Remove the underscore prefixes and suffixes, as they only make sense to avoid conflicts with Java reserved
@@ -38,6 +39,6 @@ public class ModelNameParser {
         }
 
         // Once the name is clean it can be parsed:
-        return NameParser.parseUsingCase(text);
+        return NameParser.internUsingCase(text);
     }
 }
@@ -0,0 +1,123 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.analyzer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.ovirt.api.metamodel.analyzer.SourceFactory.analyze;
+import static org.ovirt.api.metamodel.analyzer.SourceFactory.writeRing;
+import static org.ovirt.api.metamodel.analyzer.SourceFactory.writeSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.thoughtworks.qdox.parser.ParseException;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ovirt.api.metamodel.concepts.Model;
+import org.ovirt.api.metamodel.concepts.NameParser;
+
+/**
+ * Tests for the parallel parsing of the model source files done by the {@link ModelAnalyzer} class.
+ */
+public class ModelAnalyzerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // The directory containing the model source files:
+    private File sourceDir;
+
+    @Before
+    public void createSources() throws IOException {
+        sourceDir = folder.newFolder("model");
+        writeRing(sourceDir, 20);
+    }
+
+    /**
+     * Checks that parsing the source files in parallel gives exactly the same model than parsing them in the calling
+     * thread.
+     */
+    @Test
+    public void testParallelParsingGivesSameModel() throws IOException {
+        byte[] expected = encode(analyze(sourceDir, 1));
+        for (int threads = 2; threads <= 8; threads *= 2) {
+            assertArrayEquals(expected, encode(analyze(sourceDir, threads)));
+        }
+    }
+
+    /**
+     * Checks that parsing the source files of a {@code .jar} file in parallel gives the same model than parsing them
+     * from a directory.
+     */
+    @Test
+    public void testParallelParsingOfJarGivesSameModel() throws IOException {
+        File jarFile = folder.newFile("model.jar");
+        Collection<File> files = FileUtils.listFiles(sourceDir, new String[] { "java" }, true);
+        try (ZipOutputStream jarOut = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            for (File file : files) {
+                String path = sourceDir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+                jarOut.putNextEntry(new ZipEntry(path));
+                jarOut.write(FileUtils.readFileToByteArray(file));
+                jarOut.closeEntry();
+            }
+        }
+        byte[] expected = encode(analyze(jarFile, 1));
+        assertArrayEquals(expected, encode(analyze(jarFile, 4)));
+        Model model = analyze(jarFile, 4);
+        assertEquals(20, model.getServices().size());
+        assertNotNull(model.getType(NameParser.parseUsingCase("Type19")));
+    }
+
+    /**
+     * Checks that a syntax error in one of the files is reported when parsing in parallel.
+     */
+    @Test(expected = ParseException.class)
+    public void testParseErrorIsReported() throws IOException {
+        writeSource(sourceDir, "types/Broken.java",
+            "package types;",
+            "public interface Broken {"
+        );
+        analyze(sourceDir, 4);
+    }
+
+    /**
+     * Checks that the number of threads must be at least one.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroThreadsIsRejected() {
+        new ModelAnalyzer().setThreads(0);
+    }
+
+    private static byte[] encode(Model model) throws IOException {
+        try (ByteArrayOutputStream bytesOut = new ByteArrayOutputStream()) {
+            try (DataOutputStream dataOut = new DataOutputStream(bytesOut)) {
+                new ModelEncoder(dataOut).encode(model);
+            }
+            return bytesOut.toByteArray();
+        }
+    }
+}
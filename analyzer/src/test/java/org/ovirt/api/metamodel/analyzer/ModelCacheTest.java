@@ -0,0 +1,393 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.analyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.ovirt.api.metamodel.analyzer.SourceFactory.analyze;
+import static org.ovirt.api.metamodel.analyzer.SourceFactory.writeSource;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ovirt.api.metamodel.concepts.Annotation;
+import org.ovirt.api.metamodel.concepts.Attribute;
+import org.ovirt.api.metamodel.concepts.Concept;
+import org.ovirt.api.metamodel.concepts.Constraint;
+import org.ovirt.api.metamodel.concepts.EnumType;
+import org.ovirt.api.metamodel.concepts.Expression;
+import org.ovirt.api.metamodel.concepts.ListType;
+import org.ovirt.api.metamodel.concepts.Locator;
+import org.ovirt.api.metamodel.concepts.MemberInvolvementTree;
+import org.ovirt.api.metamodel.concepts.Method;
+import org.ovirt.api.metamodel.concepts.Model;
+import org.ovirt.api.metamodel.concepts.NameParser;
+import org.ovirt.api.metamodel.concepts.Parameter;
+import org.ovirt.api.metamodel.concepts.Service;
+import org.ovirt.api.metamodel.concepts.StructMember;
+import org.ovirt.api.metamodel.concepts.StructType;
+import org.ovirt.api.metamodel.concepts.Type;
+
+/**
+ * Tests for the {@link ModelCache} class.
+ */
+public class ModelCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // The directory containing the model source files, and the cache file:
+    private File sourceDir;
+    private File cacheFile;
+
+    @Before
+    public void createSources() throws IOException {
+        sourceDir = folder.newFolder("model");
+        cacheFile = new File(folder.getRoot(), "model.cache");
+        writeSource(sourceDir, "types/Identified.java",
+            "package types;",
+            "import org.ovirt.api.metamodel.annotations.Type;",
+            "/** Something that has an identifier. */",
+            "@Type",
+            "public interface Identified {",
+            "    String id();",
+            "    String name();",
+            "}"
+        );
+        writeSource(sourceDir, "types/Vm.java",
+            "package types;",
+            "import java.util.Date;",
+            "import org.ovirt.api.metamodel.annotations.Link;",
+            "import org.ovirt.api.metamodel.annotations.Type;",
+            "/**",
+            " * A virtual machine.",
+            " *",
+            " * @author Someone",
+            " */",
+            "@Type",
+            "public interface Vm extends Identified {",
+            "    Integer memory();",
+            "    Date creationTime();",
+            "    VmStatus status();",
+            "    String[] properties();",
+            "    Disk[] disks();",
+            "    @Link Vm[] children();",
+            "}"
+        );
+        writeSource(sourceDir, "types/Disk.java",
+            "package types;",
+            "import org.ovirt.api.metamodel.annotations.Type;",
+            "@Type",
+            "public interface Disk extends Identified {",
+            "    Integer size();",
+            "}"
+        );
+        writeSource(sourceDir, "types/VmStatus.java",
+            "package types;",
+            "import org.ovirt.api.metamodel.annotations.Type;",
+            "@Type",
+            "public enum VmStatus {",
+            "    /** Running. */",
+            "    UP,",
+            "    DOWN;",
+            "}"
+        );
+        writeSource(sourceDir, "services/SystemService.java",
+            "package services;",
+            "import org.ovirt.api.metamodel.annotations.Root;",
+            "import org.ovirt.api.metamodel.annotations.Service;",
+            "@Root",
+            "@Service",
+            "public interface SystemService {",
+            "    @Service VmsService vms();",
+            "}"
+        );
+        writeSource(sourceDir, "services/VmsService.java",
+            "package services;",
+            "import org.ovirt.api.metamodel.annotations.In;",
+            "import org.ovirt.api.metamodel.annotations.InputDetail;",
+            "import org.ovirt.api.metamodel.annotations.Out;",
+            "import org.ovirt.api.metamodel.annotations.Service;",
+            "import types.Vm;",
+            "@Service",
+            "public interface VmsService {",
+            "    interface Add {",
+            "        @In @Out Vm vm();",
+            "        @InputDetail",
+            "        default void inputDetail() {",
+            "            mandatory(vm().name());",
+            "            optional(vm().memory());",
+            "        }",
+            "        interface FromTemplate extends Add {",
+            "        }",
+            "    }",
+            "    interface List {",
+            "        @Out Vm[] vms();",
+            "        @In Integer max();",
+            "        @In default Boolean caseSensitive() {",
+            "            return true;",
+            "        }",
+            "    }",
+            "    @Service VmService vm(String id);",
+            "}"
+        );
+        writeSource(sourceDir, "services/VmService.java",
+            "package services;",
+            "import org.ovirt.api.metamodel.annotations.Out;",
+            "import org.ovirt.api.metamodel.annotations.Service;",
+            "import types.Vm;",
+            "@Service",
+            "public interface VmService {",
+            "    interface Get {",
+            "        @Out Vm vm();",
+            "    }",
+            "}"
+        );
+        writeSource(sourceDir, "Introduction.adoc",
+            "= Introduction",
+            "",
+            "This is the introduction."
+        );
+    }
+
+    /**
+     * Checks that the model loaded from the cache is equivalent to the model created by the analyzer.
+     */
+    @Test
+    public void testLoadedModelIsEquivalent() throws IOException {
+        Model analyzed = analyze(sourceDir);
+        new ModelCache(cacheFile, sourceDir).save(analyzed);
+        Model loaded = new ModelCache(cacheFile, sourceDir).load();
+        assertNotNull(loaded);
+        assertEquals(describe(analyzed), describe(loaded));
+    }
+
+    /**
+     * Checks that references between the concepts of the loaded model are preserved.
+     */
+    @Test
+    public void testLoadedModelPreservesReferences() throws IOException {
+        new ModelCache(cacheFile, sourceDir).save(analyze(sourceDir));
+        Model model = new ModelCache(cacheFile, sourceDir).load();
+        assertNotNull(model);
+        checkReferences(model);
+    }
+
+    /**
+     * Checks that the copy of a model is equivalent to the original, that references between concepts point to the
+     * objects of the copy, and that no concept is shared with the original.
+     */
+    @Test
+    public void testCopiedModelIsEquivalent() throws IOException {
+        Model original = analyze(sourceDir);
+        Model copy = original.copy();
+        assertEquals(describe(original), describe(copy));
+        checkReferences(copy);
+        Type originalVm = original.getType(NameParser.parseUsingCase("Vm"));
+        Type copiedVm = copy.getType(NameParser.parseUsingCase("Vm"));
+        assertNotSame(originalVm, copiedVm);
+        assertNotSame(original.getStringType(), copy.getStringType());
+        assertNotSame(original.getRoot(), copy.getRoot());
+        assertNotSame(original.getRoot().getLocators().get(0), copy.getRoot().getLocators().get(0));
+    }
+
+    /**
+     * Checks that changing a source file invalidates the cache.
+     */
+    @Test
+    public void testChangedSourceInvalidatesCache() throws IOException {
+        new ModelCache(cacheFile, sourceDir).save(analyze(sourceDir));
+        assertNotNull(new ModelCache(cacheFile, sourceDir).load());
+        writeSource(sourceDir, "Introduction.adoc",
+            "= Introduction",
+            "",
+            "This is the modified introduction."
+        );
+        assertNull(new ModelCache(cacheFile, sourceDir).load());
+    }
+
+    /**
+     * Checks that a damaged cache file is ignored.
+     */
+    @Test
+    public void testDamagedCacheIsIgnored() throws IOException {
+        new ModelCache(cacheFile, sourceDir).save(analyze(sourceDir));
+        byte[] data = FileUtils.readFileToByteArray(cacheFile);
+        byte[] truncated = new byte[data.length / 2];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        FileUtils.writeByteArrayToFile(cacheFile, truncated);
+        assertNull(new ModelCache(cacheFile, sourceDir).load());
+    }
+
+    /**
+     * Checks that loading from a cache file that doesn't exist returns {@code null}.
+     */
+    @Test
+    public void testMissingCacheReturnsNull() throws IOException {
+        assertNull(new ModelCache(cacheFile, sourceDir).load());
+    }
+
+    /**
+     * Checks that references between concepts of the given model point to the same objects that are in the model,
+     * and that the built-in types are the ones created by the model.
+     */
+    private static void checkReferences(Model model) {
+        StructType vm = (StructType) model.getType(NameParser.parseUsingCase("Vm"));
+        StructType disk = (StructType) model.getType(NameParser.parseUsingCase("Disk"));
+        StructType identified = (StructType) model.getType(NameParser.parseUsingCase("Identified"));
+        assertSame(identified, vm.getBase());
+        assertSame(model.getIntegerType(), getMember(vm, "memory").getType());
+        assertSame(model.getDateType(), getMember(vm, "creationTime").getType());
+        ListType disks = (ListType) getMember(vm, "disks").getType();
+        assertSame(disk, disks.getElementType());
+        assertTrue(model.types().anyMatch(type -> type == disks));
+        ListType children = (ListType) getMember(vm, "children").getType();
+        assertSame(vm, children.getElementType());
+        assertSame(vm.getModule(), disk.getModule());
+        assertSame(model, vm.getModule().getModel());
+        EnumType status = (EnumType) getMember(vm, "status").getType();
+        status.values().forEach(value -> assertSame(status, value.getDeclaringType()));
+        Service root = model.getRoot();
+        assertSame(model.getService(NameParser.parseUsingCase("System")), root);
+        Locator vms = root.getLocators().get(0);
+        assertSame(model.getService(NameParser.parseUsingCase("Vms")), vms.getService());
+        assertEquals(3, model.getPoints().size());
+    }
+
+    private static StructMember getMember(StructType type, String name) {
+        return type.getMember(NameParser.parseUsingCase(name)).get();
+    }
+
+    /**
+     * Generates a text description of the model that contains all the information extracted by the analyzer, so
+     * that two models can be compared.
+     */
+    private static String describe(Model model) {
+        StringBuilder buffer = new StringBuilder();
+        model.modules().forEach(module -> describeConcept(buffer, "module", module));
+        model.types().forEach(type -> describeType(buffer, type));
+        model.services().forEach(service -> describeService(buffer, service));
+        model.documents().forEach(document -> {
+            describeConcept(buffer, "document", document);
+            buffer.append(" appendix=").append(document.isAppendix());
+        });
+        buffer.append("\nroot=").append(model.getRoot());
+        return buffer.toString();
+    }
+
+    private static void describeConcept(StringBuilder buffer, String kind, Concept concept) {
+        buffer.append('\n').append(kind).append(' ').append(concept.getName());
+        buffer.append(" doc=").append(concept.getDoc());
+        buffer.append(" source=").append(concept.getSource());
+        for (Annotation annotation : concept.getAnnotations()) {
+            buffer.append(" @").append(annotation.getName());
+            annotation.parameters().forEach(parameter ->
+                buffer.append(' ').append(parameter.getName()).append('=').append(parameter.getValues())
+            );
+        }
+    }
+
+    private static void describeType(StringBuilder buffer, Type type) {
+        describeConcept(buffer, type.getClass().getSimpleName(), type);
+        buffer.append(" module=").append(type.getModule());
+        if (type instanceof StructType) {
+            StructType struct = (StructType) type;
+            buffer.append(" base=").append(struct.getBase());
+            struct.declaredAttributes().forEach(x -> describeMember(buffer, "attribute", x));
+            struct.declaredLinks().forEach(x -> describeMember(buffer, "link", x));
+        }
+        else if (type instanceof EnumType) {
+            ((EnumType) type).values().forEach(value -> {
+                describeConcept(buffer, "value", value);
+                buffer.append(" type=").append(value.getDeclaringType());
+            });
+        }
+        else if (type instanceof ListType) {
+            buffer.append(" element=").append(((ListType) type).getElementType());
+        }
+    }
+
+    private static void describeMember(StringBuilder buffer, String kind, StructMember member) {
+        describeConcept(buffer, kind, member);
+        buffer.append(" declaring=").append(member.getDeclaringType());
+        buffer.append(" type=").append(member.getType());
+        buffer.append(" class=").append(member instanceof Attribute? "attribute": member.getClass().getSimpleName());
+    }
+
+    private static void describeService(StringBuilder buffer, Service service) {
+        describeConcept(buffer, "service", service);
+        buffer.append(" module=").append(service.getModule());
+        buffer.append(" base=").append(service.getBase());
+        for (Method method : service.getDeclaredMethods()) {
+            describeConcept(buffer, "method", method);
+            buffer.append(" base=").append(method.getBase());
+            buffer.append(" declaring=").append(method.getDeclaringService());
+            method.parameters().forEach(x -> describeParameter(buffer, x));
+            method.constraints().forEach(x -> describeConstraint(buffer, x));
+        }
+        for (Locator locator : service.getDeclaredLocators()) {
+            describeConcept(buffer, "locator", locator);
+            buffer.append(" service=").append(locator.getService());
+            locator.parameters().forEach(x -> describeParameter(buffer, x));
+        }
+        service.getDeclaredConstraints().forEach(x -> describeConstraint(buffer, x));
+    }
+
+    private static void describeParameter(StringBuilder buffer, Parameter parameter) {
+        describeConcept(buffer, "parameter", parameter);
+        buffer.append(" declaring=").append(parameter.getDeclaringMethod());
+        buffer.append(" in=").append(parameter.isIn());
+        buffer.append(" out=").append(parameter.isOut());
+        buffer.append(" type=").append(parameter.getType());
+        buffer.append(" mandatory=").append(parameter.isMandatory());
+        describeExpression(buffer, parameter.getDefaultValue());
+        for (MemberInvolvementTree tree : parameter.getMemberInvolvementTrees()) {
+            describeTree(buffer, tree);
+        }
+    }
+
+    private static void describeTree(StringBuilder buffer, MemberInvolvementTree tree) {
+        buffer.append(" tree(").append(tree.getName());
+        buffer.append(" mandatory=").append(tree.isMandatory());
+        buffer.append(" parent=").append(tree.hasParent()? tree.getParent().getName(): null);
+        if (tree.hasAlternative()) {
+            buffer.append(" alternative=").append(tree.getAlternative().getName());
+        }
+        tree.getNodes().forEach(node -> describeTree(buffer, node));
+        buffer.append(')');
+    }
+
+    private static void describeConstraint(StringBuilder buffer, Constraint constraint) {
+        describeConcept(buffer, "constraint", constraint);
+        buffer.append(" kind=").append(constraint.getKind());
+        constraint.getExpressions().forEach(x -> describeExpression(buffer, x));
+    }
+
+    private static void describeExpression(StringBuilder buffer, Expression expression) {
+        if (expression != null) {
+            buffer.append(" expression=").append(expression).append(':').append(expression.getType());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.analyzer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.ovirt.api.metamodel.concepts.Model;
+
+/**
+ * This class contains methods that write the source files of the small models used by the tests, and that analyze
+ * them.
+ */
+final class SourceFactory {
+    private SourceFactory() {
+    }
+
+    /**
+     * Writes a source file, creating the directories that contain it if needed.
+     *
+     * @param sourceDir the directory containing the model source files
+     * @param path the path of the file, relative to the source directory, for example {@code types/Vm.java}
+     * @param lines the lines of the file
+     */
+    static void writeSource(File sourceDir, String path, String... lines) throws IOException {
+        FileUtils.writeLines(new File(sourceDir, path), UTF_8.name(), Arrays.asList(lines));
+    }
+
+    /**
+     * Writes a ring of struct types and services, where each type and each service refers to the next ones, so that
+     * the references between concepts are resolved across files. The types are written to {@code types/TypeN.java}
+     * and the services to {@code services/TypeNService.java}.
+     *
+     * @param sourceDir the directory containing the model source files
+     * @param count the number of types, and of services
+     */
+    static void writeRing(File sourceDir, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            writeSource(sourceDir, "types/Type" + i + ".java",
+                "package types;",
+                "import org.ovirt.api.metamodel.annotations.Link;",
+                "import org.ovirt.api.metamodel.annotations.Type;",
+                "/** Type number " + i + ". */",
+                "@Type",
+                "public interface Type" + i + " {",
+                "    String id();",
+                "    Type" + (i + 1) % count + " next();",
+                "    @Link Type" + (i + 2) % count + "[] others();",
+                "}"
+            );
+            writeSource(sourceDir, "services/Type" + i + "Service.java",
+                "package services;",
+                "import org.ovirt.api.metamodel.annotations.In;",
+                "import org.ovirt.api.metamodel.annotations.Out;",
+                "import org.ovirt.api.metamodel.annotations.Service;",
+                "import types.Type" + i + ";",
+                "@Service",
+                "public interface Type" + i + "Service {",
+                "    interface Get {",
+                "        @Out Type" + i + " value();",
+                "        @In Boolean filter();",
+                "    }",
+                "    @Service Type" + (i + 1) % count + "Service next();",
+                "}"
+            );
+        }
+    }
+
+    /**
+     * Analyzes the given directory or {@code .jar} file, with the default number of threads.
+     */
+    static Model analyze(File source) throws IOException {
+        return analyze(source, new ModelAnalyzer());
+    }
+
+    /**
+     * Analyzes the given directory or {@code .jar} file, parsing the source files with the given number of threads.
+     */
+    static Model analyze(File source, int threads) throws IOException {
+        ModelAnalyzer analyzer = new ModelAnalyzer();
+        analyzer.setThreads(threads);
+        return analyze(source, analyzer);
+    }
+
+    private static Model analyze(File source, ModelAnalyzer analyzer) throws IOException {
+        Model model = new Model();
+        analyzer.setModel(model);
+        analyzer.analyzeSource(source);
+        return model;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.api.metamodel.runtime.util.IsoDateFormat;
+
+/**
+ * Compares the {@link IsoDateFormat} class with the {@link SimpleDateFormat} instances, one per thread, that the XML
+ * and JSON readers and writers used previously.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DateFormatBenchmark {
+    // The text and the date used as input, the text has a time zone offset, like the dates sent by some clients:
+    private String image = "2016-01-17T17:18:23.123+01:00";
+    private Date date;
+
+    // The legacy format isn't thread safe, so each thread has its own, like when it was stored in a thread local:
+    private SimpleDateFormat format;
+
+    @Setup
+    public void setup() {
+        format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        date = IsoDateFormat.parse(image);
+    }
+
+    @Benchmark
+    public Date parseIso() {
+        return IsoDateFormat.parse(image);
+    }
+
+    @Benchmark
+    public Date parseSimple() throws ParseException {
+        return format.parse(image);
+    }
+
+    @Benchmark
+    public String formatIso() {
+        return IsoDateFormat.format(date);
+    }
+
+    @Benchmark
+    public String formatSimple() {
+        return format.format(date);
+    }
+}
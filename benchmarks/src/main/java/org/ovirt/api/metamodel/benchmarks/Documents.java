@@ -0,0 +1,169 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.ovirt.api.metamodel.runtime.json.JsonWriter;
+import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
+import org.ovirt.engine.api.builders.V4DiskBuilder;
+import org.ovirt.engine.api.builders.V4PermissionBuilder;
+import org.ovirt.engine.api.builders.V4TagBuilder;
+import org.ovirt.engine.api.builders.V4VmBuilder;
+import org.ovirt.engine.api.json.V4JsonVmWriter;
+import org.ovirt.engine.api.types.V4Disk;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.types.V4VmType;
+import org.ovirt.engine.api.xml.V4XmlVmWriter;
+
+/**
+ * This class creates the objects and documents used by the benchmarks. All the documents describe virtual machines,
+ * as they are the most common and the most complex objects returned by the API.
+ */
+public class Documents {
+    /**
+     * The sizes of the documents used by the benchmarks. The size determines the number of disks of the virtual
+     * machine used in the single object documents, and the number of virtual machines of the collection documents.
+     */
+    public enum Size {
+        SMALL(1, 10),
+        MEDIUM(10, 1_000),
+        HUGE(1_000, 100_000);
+
+        private final int disks;
+        private final int vms;
+
+        Size(int disks, int vms) {
+            this.disks = disks;
+            this.vms = vms;
+        }
+
+        /**
+         * Returns the number of disks of the virtual machine used in single object documents.
+         */
+        public int getDisks() {
+            return disks;
+        }
+
+        /**
+         * Returns the number of virtual machines of collection documents.
+         */
+        public int getVms() {
+            return vms;
+        }
+    }
+
+    // The number of disks of each virtual machine inside collection documents:
+    private static final int COLLECTION_DISKS = 2;
+
+    private Documents() {
+    }
+
+    /**
+     * Creates the virtual machine used in single object documents of the given size.
+     */
+    public static V4Vm createVm(Size size) {
+        return createVm(0, size.getDisks());
+    }
+
+    /**
+     * Creates the list of virtual machines used in collection documents of the given size.
+     */
+    public static List<V4Vm> createVms(Size size) {
+        List<V4Vm> vms = new ArrayList<>(size.getVms());
+        for (int i = 0; i < size.getVms(); i++) {
+            vms.add(createVm(i, COLLECTION_DISKS));
+        }
+        return vms;
+    }
+
+    /**
+     * Converts the given virtual machine to an XML document.
+     */
+    public static byte[] toXml(V4Vm vm) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XmlWriter writer = new XmlWriter(out, false)) {
+            V4XmlVmWriter.writeOne(vm, writer);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Converts the given list of virtual machines to an XML document.
+     */
+    public static byte[] toXml(List<V4Vm> vms) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XmlWriter writer = new XmlWriter(out, false)) {
+            V4XmlVmWriter.writeMany(vms.iterator(), writer);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Converts the given virtual machine to a JSON document.
+     */
+    public static byte[] toJson(V4Vm vm) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonWriter writer = new JsonWriter(out, false)) {
+            V4JsonVmWriter.writeOne(vm, writer);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Converts the given list of virtual machines to a JSON document.
+     */
+    public static byte[] toJson(List<V4Vm> vms) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonWriter writer = new JsonWriter(out, false)) {
+            V4JsonVmWriter.writeMany(vms.iterator(), writer);
+        }
+        return out.toByteArray();
+    }
+
+    private static V4Vm createVm(int index, int disks) {
+        // Note that the display types and the properties aren't populated, because the generated JSON readers and
+        // writers don't yet round trip lists of enums and of primitive values, and the benchmarks should read exactly
+        // the same objects from the XML and JSON documents.
+        List<V4Disk> list = new ArrayList<>(disks);
+        for (int i = 0; i < disks; i++) {
+            list.add(
+                new V4DiskBuilder()
+                    .id(index + "-" + i)
+                    .alias("disk" + i)
+                    .build()
+            );
+        }
+        return new V4VmBuilder()
+            .id(String.valueOf(index))
+            .name("vm" + index)
+            .fqdn("vm" + index + ".example.com")
+            .memory(BigInteger.valueOf(1L << 30))
+            .creationTime(new Date(1453047503123L + index))
+            .deleteProtected(false)
+            .runOnce(true)
+            .type(V4VmType.SERVER)
+            .disks(list)
+            .permissions(new V4PermissionBuilder().id("p" + index))
+            .tags(new V4TagBuilder().id("t" + index))
+            .build();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.api.metamodel.runtime.json.JsonReader;
+import org.ovirt.engine.api.json.V4JsonVmReader;
+import org.ovirt.engine.api.types.V4Vm;
+
+/**
+ * Measures the generated JSON readers, and the {@link JsonReader} class that they use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JsonReaderBenchmark {
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private Documents.Size size;
+
+    // The documents are created once and shared by all the threads, as they are never modified:
+    private byte[] one;
+    private byte[] many;
+
+    @Setup
+    public void setup() {
+        one = Documents.toJson(Documents.createVm(size));
+        many = Documents.toJson(Documents.createVms(size));
+    }
+
+    @Benchmark
+    public V4Vm readOne() {
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(one))) {
+            return V4JsonVmReader.readOne(reader);
+        }
+    }
+
+    @Benchmark
+    public List<V4Vm> readMany() {
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(many))) {
+            return V4JsonVmReader.readMany(reader);
+        }
+    }
+
+    @Benchmark
+    public void iterateMany(Blackhole blackhole) {
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(many))) {
+            Iterator<V4Vm> iterator = V4JsonVmReader.iterateMany(reader);
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.api.metamodel.analyzer.ModelCache;
+import org.ovirt.api.metamodel.concepts.Model;
+
+/**
+ * Compares analyzing the model from its source files with loading it from the {@link ModelCache}, and with reading
+ * it using Java serialization. Loading from the cache includes calculating the digest of the source files, like the
+ * tool does when it starts. The model is the one analyzed by the {@link Models} class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelCacheBenchmark {
+    // The cache file and the serialized model are created once and shared by all the threads, as they are never
+    // modified:
+    private File cacheFile;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        Model model = Models.analyze();
+        cacheFile = File.createTempFile("model", ".cache");
+        new ModelCache(cacheFile, Models.getSourceDir()).save(model);
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytesOut)) {
+            objectOut.writeObject(model);
+        }
+        serialized = bytesOut.toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(cacheFile.toPath());
+    }
+
+    @Benchmark
+    public Model analyze() throws IOException {
+        return Models.analyze();
+    }
+
+    @Benchmark
+    public Model load() throws IOException {
+        Model model = new ModelCache(cacheFile, Models.getSourceDir()).load();
+        if (model == null) {
+            throw new IllegalStateException("The model cache file \"" + cacheFile.getAbsolutePath() + "\" is invalid");
+        }
+        return model;
+    }
+
+    @Benchmark
+    public Model deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return (Model) objectIn.readObject();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.api.metamodel.concepts.Model;
+
+/**
+ * Compares the {@link Model#copy()} method, that walks the concepts and copies them, with the round trip through
+ * Java serialization that it replaced. The model is the one analyzed by the {@link Models} class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelCopyBenchmark {
+    // The model is analyzed once and shared by all the threads, as copying it doesn't modify it:
+    private Model model;
+
+    @Setup
+    public void setup() throws IOException {
+        model = Models.analyze();
+    }
+
+    @Benchmark
+    public Model copy() {
+        return model.copy();
+    }
+
+    @Benchmark
+    public Model serialize() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytesOut)) {
+            objectOut.writeObject(model);
+        }
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytesOut.toByteArray()))) {
+            return (Model) objectIn.readObject();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.ovirt.api.metamodel.analyzer.ModelAnalyzer;
+import org.ovirt.api.metamodel.concepts.Model;
+
+/**
+ * This class locates and analyzes the model used by the benchmarks that work with models. The model is analyzed from
+ * the directory given by the {@code model} system property, by default the model used by the tests, relative to the
+ * root of the project.
+ */
+public class Models {
+    private Models() {
+    }
+
+    /**
+     * Returns the directory or {@code .jar} file containing the model source files.
+     */
+    public static File getSourceDir() {
+        return new File(System.getProperty("model", "tests/src/main/java"));
+    }
+
+    /**
+     * Analyzes the model, with the default number of threads.
+     */
+    public static Model analyze() throws IOException {
+        return analyze(new ModelAnalyzer());
+    }
+
+    /**
+     * Analyzes the model, parsing the source files with the given number of threads.
+     */
+    public static Model analyze(int threads) throws IOException {
+        ModelAnalyzer analyzer = new ModelAnalyzer();
+        analyzer.setThreads(threads);
+        return analyze(analyzer);
+    }
+
+    private static Model analyze(ModelAnalyzer analyzer) throws IOException {
+        Model model = new Model();
+        analyzer.setModel(model);
+        analyzer.analyzeSource(getSourceDir());
+        return model;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.api.metamodel.concepts.Locator;
+import org.ovirt.api.metamodel.concepts.Method;
+import org.ovirt.api.metamodel.concepts.Model;
+import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.Parameter;
+import org.ovirt.api.metamodel.concepts.Point;
+import org.ovirt.api.metamodel.concepts.PointRouter;
+import org.ovirt.api.metamodel.concepts.Service;
+
+/**
+ * Compares the {@link PointRouter} with the approach of checking one regular expression per point, in order. The
+ * model is generated with the number of collections given by the {@code collections} parameter, each of them with
+ * seven points: list and add for the collection, get, update, remove and an action for each entity, and list for a
+ * nested collection. The requests are generated for all the points and used in turn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RouterBenchmark {
+    @Param({"10", "100"})
+    private int collections;
+
+    // The router and the regular expressions are created once and shared by all the threads, as they are never
+    // modified:
+    private PointRouter router;
+    private List<Route> routes;
+    private String[] methods;
+    private String[] paths;
+
+    // The index of the next request, not shared with other threads:
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setup() {
+        Model model = createModel(collections);
+        model.freeze();
+        router = new PointRouter(model);
+        routes = new ArrayList<>();
+        List<Point> points = model.getPoints();
+        methods = new String[points.size()];
+        paths = new String[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            Point point = points.get(i);
+            StringBuilder regex = new StringBuilder("/?");
+            StringBuilder path = new StringBuilder();
+            for (Locator locator : point.getPath()) {
+                if (locator.parameters().findAny().isPresent()) {
+                    regex.append("([^/]+)/");
+                    path.append("123/");
+                }
+                else {
+                    String segment = locator.getName().getLowerJoined("");
+                    regex.append(Pattern.quote(segment)).append("/");
+                    path.append(segment).append("/");
+                }
+            }
+            Method method = point.getMethod();
+            if (method.isAction()) {
+                String segment = method.getName().getLowerJoined("");
+                regex.append(Pattern.quote(segment)).append("/");
+                path.append(segment).append("/");
+            }
+            regex.append("?");
+            methods[i] = getHttpMethod(method);
+            paths[i] = path.substring(0, path.length() - 1);
+            routes.add(new Route(methods[i], Pattern.compile(regex.toString()), point));
+        }
+    }
+
+    @Benchmark
+    public Point router(Cursor cursor) {
+        int i = next(cursor);
+        return router.match(methods[i], paths[i]).getPoint();
+    }
+
+    @Benchmark
+    public Point regex(Cursor cursor) {
+        int i = next(cursor);
+        for (Route route : routes) {
+            if (route.method.equals(methods[i])) {
+                Matcher matcher = route.pattern.matcher(paths[i]);
+                if (matcher.matches()) {
+                    return route.point;
+                }
+            }
+        }
+        return null;
+    }
+
+    private int next(Cursor cursor) {
+        int i = cursor.next;
+        cursor.next = i + 1 < paths.length? i + 1: 0;
+        return i;
+    }
+
+    private static Model createModel(int collections) {
+        Model model = new Model();
+        Service system = createService(model, new Name("system"));
+        model.setRoot(system);
+        for (int i = 0; i < collections; i++) {
+            Service collection = createService(model, new Name("items" + i));
+            createLocator(system, collection, false);
+            createMethod(collection, "list");
+            createMethod(collection, "add");
+            Service entity = createService(model, new Name("item" + i));
+            createLocator(collection, entity, true);
+            createMethod(entity, "get");
+            createMethod(entity, "update");
+            createMethod(entity, "remove");
+            createMethod(entity, "start");
+            Service disks = createService(model, new Name("disks" + i));
+            createLocator(entity, disks, false);
+            createMethod(disks, "list");
+        }
+        return model;
+    }
+
+    private static Service createService(Model model, Name name) {
+        Service service = new Service();
+        service.setName(name);
+        model.addService(service);
+        return service;
+    }
+
+    private static void createLocator(Service from, Service to, boolean identified) {
+        Locator locator = new Locator();
+        locator.setName(to.getName());
+        locator.setDeclaringService(from);
+        locator.setService(to);
+        if (identified) {
+            Parameter id = new Parameter();
+            id.setName(new Name("id"));
+            locator.addParameter(id);
+        }
+        from.addLocator(locator);
+    }
+
+    private static void createMethod(Service service, String name) {
+        Method method = new Method();
+        method.setName(new Name(name));
+        method.setDeclaringService(service);
+        service.addMethod(method);
+    }
+
+    private static String getHttpMethod(Method method) {
+        switch (method.getName().toString()) {
+        case "get":
+        case "list":
+            return "GET";
+        case "update":
+            return "PUT";
+        case "remove":
+            return "DELETE";
+        default:
+            return "POST";
+        }
+    }
+
+    /**
+     * A regular expression that matches the paths of a point, and the HTTP method of the point.
+     */
+    private static class Route {
+        private final String method;
+        private final Pattern pattern;
+        private final Point point;
+
+        private Route(String method, Pattern pattern, Point point) {
+            this.method = method;
+            this.pattern = pattern;
+            this.point = point;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.xml.V4XmlVmReader;
+
+/**
+ * Measures the generated XML readers, and the {@link XmlReader} class that they use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class XmlReaderBenchmark {
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private Documents.Size size;
+
+    // The documents are created once and shared by all the threads, as they are never modified:
+    private byte[] one;
+    private byte[] many;
+
+    @Setup
+    public void setup() {
+        one = Documents.toXml(Documents.createVm(size));
+        many = Documents.toXml(Documents.createVms(size));
+    }
+
+    @Benchmark
+    public V4Vm readOne() {
+        try (XmlReader reader = new XmlReader(one)) {
+            return V4XmlVmReader.readOne(reader);
+        }
+    }
+
+    @Benchmark
+    public List<V4Vm> readMany() {
+        try (XmlReader reader = new XmlReader(many)) {
+            return V4XmlVmReader.readMany(reader);
+        }
+    }
+
+    @Benchmark
+    public void iterateMany(Blackhole blackhole) {
+        try (XmlReader reader = new XmlReader(many)) {
+            Iterator<V4Vm> iterator = V4XmlVmReader.iterateMany(reader);
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public Object readWithRegistry() {
+        try (XmlReader reader = new XmlReader(many)) {
+            return reader.read();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlSplitter;
+import org.ovirt.engine.api.xml.V4XmlVmReader;
+
+/**
+ * Measures how reading a collection document with the {@link XmlSplitter} scales with the number of parts and with
+ * the number of threads that read them. The parts are read with a parallel stream running inside a fork join pool
+ * with the number of threads given by the {@code threads} parameter. Note that this isn't the same as the JMH
+ * {@code -t} option, which controls how many threads call the benchmark method concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class XmlSplitterBenchmark {
+    @Param({"MEDIUM", "HUGE"})
+    private Documents.Size size;
+
+    @Param({"1", "2", "4", "8"})
+    private int parts;
+
+    @Param({"1", "2", "4"})
+    private int threads;
+
+    // The document is created once and shared by all the threads, as it is never modified:
+    private byte[] many;
+
+    // The pool that reads the parts:
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        many = Documents.toXml(Documents.createVms(size));
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long readMany() throws InterruptedException, ExecutionException {
+        List<XmlReader> readers = XmlSplitter.split(many, parts);
+        return pool.submit(() -> readers.parallelStream().mapToLong(reader -> {
+            try (XmlReader current = reader) {
+                return V4XmlVmReader.readMany(current).size();
+            }
+        }).sum()).get();
+    }
+}
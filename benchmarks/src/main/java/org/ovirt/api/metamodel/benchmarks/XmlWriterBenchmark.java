@@ -0,0 +1,85 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.xml.V4XmlVmWriter;
+
+/**
+ * Measures the generated XML writers, and the {@link XmlWriter} class that they use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class XmlWriterBenchmark {
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private Documents.Size size;
+
+    // The objects are created once and shared by all the threads, as they are never modified:
+    private V4Vm one;
+    private List<V4Vm> many;
+
+    // The sizes of the generated documents, used to preallocate the output buffers so that their growth isn't
+    // measured:
+    private int oneLength;
+    private int manyLength;
+
+    @Setup
+    public void setup() {
+        one = Documents.createVm(size);
+        many = Documents.createVms(size);
+        oneLength = Documents.toXml(one).length;
+        manyLength = Documents.toXml(many).length;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream writeOne() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(oneLength);
+        try (XmlWriter writer = new XmlWriter(out, false)) {
+            V4XmlVmWriter.writeOne(one, writer);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream writeMany() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(manyLength);
+        try (XmlWriter writer = new XmlWriter(out, false)) {
+            V4XmlVmWriter.writeMany(many.iterator(), writer);
+        }
+        return out;
+    }
+}
@@ -17,6 +17,8 @@ limitations under the License.
 package org.ovirt.api.metamodel.concepts;
 
 import java.io.Serializable;
+import static java.util.Collections.unmodifiableList;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -32,6 +34,12 @@ public abstract class Concept implements Named, Serializable {
     private String source;
     private List<Annotation> annotations = new ArrayList<>();
 
+    // Indicates if this concept has been frozen by the Model.freeze() method:
+    private transient boolean frozen;
+
+    // The unmodifiable view of the annotations, created when the concept is frozen:
+    private transient List<Annotation> annotationsView;
+
     /**
      * Returns the name of this concept.
      */
@@ -44,6 +52,7 @@ public abstract class Concept implements Named, Serializable {
      * Sets the name of this concept.
      */
     public void setName(Name name) {
+        checkNotFrozen();
         this.name = name;
     }
 
@@ -58,6 +67,7 @@ public abstract class Concept implements Named, Serializable {
      * Sets the documentation of this concept.
      */
     public void setDoc(String newDoc) {
+        checkNotFrozen();
         doc = newDoc;
     }
 
@@ -74,15 +84,20 @@ public abstract class Concept implements Named, Serializable {
      * Sets the source code of this concept.
      */
     public void setSource(String newSource) {
+        checkNotFrozen();
         source = newSource;
     }
 
     /**
-     * Returns the list of annotations that are applied to this concept. The returned list is a copy of the one used
-     * internally, so it is safe to modify it in any way. If you aren't going to modify the list consider using the
+     * Returns the list of annotations that are applied to this concept. Before the concept is frozen the returned list
+     * is a copy of the one used internally, so it is safe to modify it in any way. Once the concept is frozen it is an
+     * unmodifiable view of the internal list. If you aren't going to modify the list consider using the
      * {@link #annotations()} method instead.
      */
     public List<Annotation> getAnnotations() {
+        if (annotationsView != null) {
+            return annotationsView;
+        }
         return new CopyOnWriteArrayList<>(annotations);
     }
 
@@ -105,6 +120,7 @@ public abstract class Concept implements Named, Serializable {
      * Applies an annotation to this concept.
      */
     public void addAnnotation(Annotation newAnnotation) {
+        checkNotFrozen();
         annotations.add(newAnnotation);
     }
 
@@ -112,9 +128,40 @@ public abstract class Concept implements Named, Serializable {
      * Applies a list of annotations to this concept.
      */
     public void addAnnotations(List<Annotation> newAnnotations) {
+        checkNotFrozen();
         annotations.addAll(newAnnotations);
     }
 
+    /**
+     * Checks if this concept has been frozen. See {@link Model#freeze()} for details.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Freezes this concept. The name is replaced by the equivalent interned immutable name, so that all the concepts
+     * with the same name share it. Subclasses that contain other concepts, or that calculate derived data when they
+     * are frozen, should override this method, calling this implementation first.
+     */
+    void freeze() {
+        frozen = true;
+        name = NameParser.intern(name);
+        annotationsView = unmodifiableList(annotations);
+    }
+
+    /**
+     * Checks that this concept hasn't been frozen yet, and throws an exception if it has. All the methods that modify
+     * concepts should call this method.
+     *
+     * @throws IllegalStateException if the concept has been frozen
+     */
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("The concept \"" + this + "\" has been frozen, it can't be modified");
+        }
+    }
+
     /**
      * Generates a string representation of this concept, usually just its name.
      */
@@ -16,6 +16,7 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
+import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.joining;
 
 import java.util.ArrayList;
@@ -41,6 +42,9 @@ public class Constraint extends Concept {
     // The list of expressions of this constraint:
     private List<Expression> expressions = new ArrayList<>(1);
 
+    // The unmodifiable view of the expressions, created when the constraint is frozen:
+    private transient List<Expression> expressionsView;
+
     /**
      * Returns the method where this constraint is declared.
      */
@@ -52,6 +56,7 @@ public class Constraint extends Concept {
      * Sets the method where this constraint is declared.
      */
     public void setDeclaringMethod(Method newDeclaringMethod) {
+        checkNotFrozen();
         declaringMethod = newDeclaringMethod;
     }
 
@@ -60,6 +65,7 @@ public class Constraint extends Concept {
     }
 
     public void setIn(boolean in) {
+        checkNotFrozen();
         this.in = in;
     }
 
@@ -68,6 +74,7 @@ public class Constraint extends Concept {
     }
 
     public void setOut(boolean out) {
+        checkNotFrozen();
         this.out = out;
     }
 
@@ -82,14 +89,19 @@ public class Constraint extends Concept {
      * Sets the type of this constraint.
      */
     public void setKind(ConstraintKind newKind) {
+        checkNotFrozen();
         kind = newKind;
     }
 
     /**
-     * Returns the list of expressions of this constraint. The returned list is a copy of the one used internally, so it
-     * is safe to modify it.
+     * Returns the list of expressions of this constraint. Before the constraint is frozen the returned list is a copy
+     * of the one used internally, so it is safe to modify it. Once the constraint is frozen it is an unmodifiable view
+     * of the internal list.
      */
     public List<Expression> getExpressions() {
+        if (expressionsView != null) {
+            return expressionsView;
+        }
         return new CopyOnWriteArrayList<>(expressions);
     }
 
@@ -97,6 +109,7 @@ public class Constraint extends Concept {
      * Adds a new expression to this constraint.
      */
     public void addExpression(Expression newExpression) {
+        checkNotFrozen();
         expressions.add(newExpression);
     }
 
@@ -104,9 +117,16 @@ public class Constraint extends Concept {
      * Adds a list of new expressions to this constraint.
      */
     public void addExpressions(List<Expression> newExpressions) {
+        checkNotFrozen();
         expressions.addAll(newExpressions);
     }
 
+    @Override
+    void freeze() {
+        super.freeze();
+        expressionsView = unmodifiableList(expressions);
+    }
+
     @Override
     public String toString() {
         return getName().toString() + expressions.stream().map(Expression::toString).collect(joining(",", "[", "]"));
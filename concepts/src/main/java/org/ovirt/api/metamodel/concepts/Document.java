@@ -28,6 +28,7 @@ public class Document extends Concept {
     }
 
     public void setAppendix(boolean appendix) {
+        checkNotFrozen();
         this.appendix = appendix;
     }
 }
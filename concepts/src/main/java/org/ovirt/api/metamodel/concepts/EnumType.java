@@ -16,8 +16,9 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
+import static java.util.Collections.unmodifiableList;
+
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -34,7 +35,7 @@ public class EnumType extends Type {
      * method * instead.
      */
     public List<EnumValue> getValues() {
-        return Collections.unmodifiableList(values);
+        return unmodifiableList(values);
     }
 
     /**
@@ -48,7 +49,14 @@ public class EnumType extends Type {
      * Adds a new value to this enumerated type.
      */
     public void addValue(EnumValue value) {
+        checkNotFrozen();
         values.add(value);
     }
+
+    @Override
+    void freeze() {
+        super.freeze();
+        values.forEach(EnumValue::freeze);
+    }
 }
 
@@ -34,6 +34,7 @@ public class EnumValue extends Concept {
      * Sets the enumerated type where this value is declared.
      */
     public void setDeclaringType(EnumType newDeclaringType) {
+        checkNotFrozen();
         declaringType = newDeclaringType;
     }
 }
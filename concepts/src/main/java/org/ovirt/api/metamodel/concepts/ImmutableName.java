@@ -0,0 +1,97 @@
+/*
+Copyright (c) 2015-2017 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import java.io.ObjectStreamException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class is a variant of {@link Name} that can't be modified. As the words never change it can calculate its
+ * hash code and its rendered forms only once, and it can safely be shared by all the concepts that have the same name,
+ * even if they are used from different threads. Instances are created using the {@link NameParser#intern(Name)}
+ * method, so that repeated names are represented by the same object. Callers that need to modify one of these names
+ * should create a mutable copy first, using the {@link Name#Name(Name)} constructor.
+ */
+public final class ImmutableName extends Name {
+    // The rendered forms of this name, calculated when requested for the first time:
+    private transient volatile String capitalized;
+    private transient volatile ConcurrentMap<String, String> lowerJoined;
+    private transient volatile ConcurrentMap<String, String> upperJoined;
+
+    ImmutableName(List<String> words) {
+        super(words);
+    }
+
+    @Override
+    public void setWords(List<String> newWords) {
+        throw new UnsupportedOperationException("The name \"" + this + "\" can't be modified");
+    }
+
+    @Override
+    public void setWord(int index, String word) {
+        throw new UnsupportedOperationException("The name \"" + this + "\" can't be modified");
+    }
+
+    @Override
+    public void addWord(String newWord) {
+        throw new UnsupportedOperationException("The name \"" + this + "\" can't be modified");
+    }
+
+    @Override
+    public void addWords(List<String> words) {
+        throw new UnsupportedOperationException("The name \"" + this + "\" can't be modified");
+    }
+
+    @Override
+    public String getCapitalized() {
+        String result = capitalized;
+        if (result == null) {
+            result = super.getCapitalized();
+            capitalized = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String getLowerJoined(String separator) {
+        ConcurrentMap<String, String> cache = lowerJoined;
+        if (cache == null) {
+            cache = new ConcurrentHashMap<>(2);
+            lowerJoined = cache;
+        }
+        return cache.computeIfAbsent(separator, super::getLowerJoined);
+    }
+
+    @Override
+    public String getUpperJoined(String separator) {
+        ConcurrentMap<String, String> cache = upperJoined;
+        if (cache == null) {
+            cache = new ConcurrentHashMap<>(2);
+            upperJoined = cache;
+        }
+        return cache.computeIfAbsent(separator, super::getUpperJoined);
+    }
+
+    /**
+     * Makes sure that deserialized names are also interned.
+     */
+    private Object readResolve() throws ObjectStreamException {
+        return NameParser.intern(this);
+    }
+}
@@ -27,6 +27,7 @@ public class ListType extends Type {
     }
 
     public void setElementType(Type elementType) {
+        checkNotFrozen();
         this.elementType = elementType;
         setModule(elementType.getModule());
     }
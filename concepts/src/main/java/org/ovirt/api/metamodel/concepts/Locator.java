@@ -34,6 +34,7 @@ public class Locator extends ServiceMember {
      * Sets the service that is resolved by this locator.
      */
     public void setService(Service newService) {
+        checkNotFrozen();
         service = newService;
     }
 }
@@ -0,0 +1,83 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents a path of locators starting from the root service, as a node of a tree where each node
+ * points to its parent. Paths that share a prefix share the nodes of that prefix, so building all the paths of the
+ * model needs one node per locator of each path instead of a complete copy of the prefix.
+ */
+final class LocatorPath implements Serializable {
+    // The path that this one extends, or null if the locator is one of the root service:
+    private final LocatorPath parent;
+
+    // The last locator of the path:
+    private final Locator locator;
+
+    // The number of locators in the path:
+    private final int length;
+
+    LocatorPath(LocatorPath parent, Locator locator) {
+        this.parent = parent;
+        this.locator = locator;
+        this.length = parent != null? parent.length + 1: 1;
+    }
+
+    /**
+     * Returns the path that this one extends, or {@code null} if this path contains only one locator.
+     */
+    LocatorPath getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the last locator of this path.
+     */
+    Locator getLocator() {
+        return locator;
+    }
+
+    /**
+     * Returns the service resolved by the last locator of this path.
+     */
+    Service getService() {
+        return locator.getService();
+    }
+
+    /**
+     * Returns the number of locators of this path.
+     */
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the locators of this path, starting with the one of the root service. The list is created each time
+     * that this method is called, it is fixed size, and it isn't shared with any other object.
+     */
+    List<Locator> toList() {
+        Locator[] locators = new Locator[length];
+        for (LocatorPath current = this; current != null; current = current.parent) {
+            locators[current.length - 1] = current.locator;
+        }
+        return Arrays.asList(locators);
+    }
+}
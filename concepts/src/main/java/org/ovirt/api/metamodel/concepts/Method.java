@@ -16,6 +16,7 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
+import static java.util.Collections.unmodifiableList;
 import static org.ovirt.api.metamodel.concepts.Named.named;
 
 import java.util.ArrayList;
@@ -31,7 +32,7 @@ import java.util.stream.Stream;
  */
 public class Method extends ServiceMember {
 
-    private final Set<Name> NON_ACTION_METHOD_NAMES = new HashSet<>(Arrays.asList(
+    private static final Set<Name> NON_ACTION_METHOD_NAMES = new HashSet<>(Arrays.asList(
             new Name("add"), new Name("get"), new Name("list"), new Name("update"), new Name("remove")));
     //API methods with several signatures have a Method instance for each
     //signature and a base Method instance, containing common parameters.
@@ -41,12 +42,19 @@ public class Method extends ServiceMember {
     // The constraints that apply to this method:
     private List<Constraint> constraints = new ArrayList<>();
 
+    // The unmodifiable view of the constraints, created when the method is frozen:
+    private transient List<Constraint> constraintsView;
+
     /**
-     * Returns the list of constraints that apply to this method. The returned list is a copy of the one used
-     * internally, so it is safe to modify it in any way. If you aren't going to modify the list consider using the
+     * Returns the list of constraints that apply to this method. Before the method is frozen the returned list is a
+     * copy of the one used internally, so it is safe to modify it in any way. Once the method is frozen it is an
+     * unmodifiable view of the internal list. If you aren't going to modify the list consider using the
      * {@link #constraints()} method instead.
      */
     public List<Constraint> getConstraints() {
+        if (constraintsView != null) {
+            return constraintsView;
+        }
         return new CopyOnWriteArrayList<>(constraints);
     }
 
@@ -68,6 +76,7 @@ public class Method extends ServiceMember {
      * Adds a new constraint to this method.
      */
     public void addConstraint(Constraint constraint) {
+        checkNotFrozen();
         constraints.add(constraint);
     }
 
@@ -75,6 +84,7 @@ public class Method extends ServiceMember {
      * Adds a list of new constraints to this method.
      */
     public void addConstraints(List<Constraint> constraints) {
+        checkNotFrozen();
         this.constraints.addAll(constraints);
     }
 
@@ -92,9 +102,17 @@ public class Method extends ServiceMember {
     }
 
     public void setBase(Method base) {
+        checkNotFrozen();
         this.base = base;
     }
 
+    @Override
+    void freeze() {
+        super.freeze();
+        constraints.forEach(Constraint::freeze);
+        constraintsView = unmodifiableList(constraints);
+    }
+
     public boolean isMandatoryAttributeExists() {
         for (Parameter parameter : getParameters()) {
             if (parameter.isMandatory() || !parameter.getMandatoryAttributes().isEmpty()) {
@@ -16,24 +16,16 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
-import static java.util.stream.Collectors.toCollection;
-import static org.ovirt.api.metamodel.concepts.Named.named;
-
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInput;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutput;
-import java.io.ObjectOutputStream;
+import static java.util.Collections.unmodifiableList;
+
 import java.io.Serializable;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Deque;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Model implements Serializable {
     // The list of modules of the model:
@@ -45,11 +37,25 @@ public class Model implements Serializable {
     // The list of services of the model:
     private List<Service> services = new ArrayList<>();
 
+    // The indexes of modules, types and services, to find them by name:
+    private NameIndex<Module> modulesIndex = new NameIndex<>();
+    private NameIndex<Type> typesIndex = new NameIndex<>();
+    private NameIndex<Service> servicesIndex = new NameIndex<>();
+
     // The list of documents included in the model:
     private List<Document> documents = new ArrayList<>();
 
-    // The list of points of the model. It will be calculated lazily.
-    private volatile List<Point> points;
+    // The list of points of the model, and the indexes to find them. It is calculated when the model is frozen, or
+    // lazily if it is requested before that.
+    private transient volatile PointIndex points;
+
+    // Indicates if this model has been frozen, and the unmodifiable views of the lists of concepts created when it
+    // was frozen:
+    private transient boolean frozen;
+    private transient List<Module> modulesView;
+    private transient List<Type> typesView;
+    private transient List<Service> servicesView;
+    private transient List<Document> documentsView;
 
     // The root of the tree of services:
     private Service root;
@@ -65,7 +71,7 @@ public class Model implements Serializable {
         // Create the anonymous module:
         Module anonymousModule = new Module();
         anonymousModule.setModel(this);
-        modules.add(anonymousModule);
+        addModule(anonymousModule);
 
         // Add the builtin types:
         booleanType = new PrimitiveType();
@@ -95,10 +101,13 @@ public class Model implements Serializable {
     }
 
     /**
-     * Adds a module to the list of modules of this model.
+     * Adds a module to the list of modules of this model. The module is indexed by name, so its name should be set
+     * before adding it, and it shouldn't be changed later.
      */
     public void addModule(Module newModule) {
+        checkNotFrozen();
         modules.add(newModule);
+        modulesIndex.add(newModule);
     }
 
     /**
@@ -107,6 +116,9 @@ public class Model implements Serializable {
      * instead.
      */
     public List<Module> getModules() {
+        if (modulesView != null) {
+            return modulesView;
+        }
         return new CopyOnWriteArrayList<>(modules);
     }
 
@@ -121,14 +133,17 @@ public class Model implements Serializable {
      * Returns the module that has the given name, or {@code null} if there is no such module.
      */
     public Module getModule(Name name) {
-        return modules.stream().filter(named(name)).findFirst().orElse(null);
+        return modulesIndex.get(name);
     }
 
     /**
-     * Adds a type to the list of types of this model.
+     * Adds a type to the list of types of this model. The type is indexed by name, so its name should be set
+     * before adding it, and it shouldn't be changed later.
      */
     public void addType(Type newType) {
+        checkNotFrozen();
         types.add(newType);
+        typesIndex.add(newType);
     }
 
     /**
@@ -136,6 +151,9 @@ public class Model implements Serializable {
      * modify it in any way. If you aren't going to modify the list consider using the {@link #types()} method instead.
      */
     public List<Type> getTypes() {
+        if (typesView != null) {
+            return typesView;
+        }
         return new CopyOnWriteArrayList<>(types);
     }
 
@@ -150,14 +168,17 @@ public class Model implements Serializable {
      * Returns the type that has the given name, or {@code null} if there is no such type.
      */
     public Type getType(Name name) {
-        return types.stream().filter(named(name)).findFirst().orElse(null);
+        return typesIndex.get(name);
     }
 
     /**
-     * Adds a service to the list of services of this model.
+     * Adds a service to the list of services of this model. The service is indexed by name, so its name should be set
+     * before adding it, and it shouldn't be changed later.
      */
     public void addService(Service newService) {
+        checkNotFrozen();
         services.add(newService);
+        servicesIndex.add(newService);
     }
 
     /**
@@ -166,7 +187,10 @@ public class Model implements Serializable {
      * instead.
      */
     public List<Service> getServices() {
-        return services;
+        if (servicesView != null) {
+            return servicesView;
+        }
+        return new CopyOnWriteArrayList<>(services);
     }
 
     /**
@@ -180,7 +204,7 @@ public class Model implements Serializable {
      * Returns a stream that delivers the services of this model.
      */
     public Service getService(Name name) {
-        return services.stream().filter(named(name)).findFirst().orElse(null);
+        return servicesIndex.get(name);
     }
 
     /**
@@ -189,6 +213,9 @@ public class Model implements Serializable {
      * method instead.
      */
     public List<Document> getDocuments() {
+        if (documentsView != null) {
+            return documentsView;
+        }
         return documents;
     }
 
@@ -203,6 +230,7 @@ public class Model implements Serializable {
      * Adds a document to the list of documents of this model.
      */
     public void addDocument(Document newDocument) {
+        checkNotFrozen();
         documents.add(newDocument);
     }
 
@@ -217,6 +245,7 @@ public class Model implements Serializable {
      * Sets the root of the services tree of this model.
      */
     public void setRoot(Service newRoot) {
+        checkNotFrozen();
         root = newRoot;
     }
 
@@ -258,93 +287,114 @@ public class Model implements Serializable {
     /**
      * Returns the list of points of this model. A point is a pair containing a list of locators and a method. If the
      * list of locators is invoked in sequence, starting from the root service, the result is a service that contains
-     * the method. The returned list is a copy of the one used internally, so it is safe to modify it. If you don't
-     * plan to modify it consider using the {@link #points()} method instead.
+     * the method. The returned list is unmodifiable. If the model is frozen it has already been calculated, otherwise
+     * it is calculated the first time that this method is called.
      */
     public List<Point> getPoints() {
-        if (points == null) {
-            synchronized (this) {
-                if (points == null) {
-                    points = calculatePoints();
-                }
-            }
-        }
-        return points;
+        return getPointIndex().getPoints();
     }
 
     /**
-     * Returns an stream that delivers the points of this model.
+     * Returns an stream that delivers the points of this model. If the points have already been calculated the stream
+     * delivers them, otherwise the points are generated as they are consumed, walking the tree of services, without
+     * creating the complete list.
      */
     public Stream<Point> points() {
-        if (points == null) {
-            synchronized (this) {
-                if (points == null) {
-                    points = calculatePoints();
-                }
-            }
-        }
-        return points.stream();
-    }
-
-    private List<Point> calculatePoints() {
-        // First we need to find all the possible paths:
-        List<List<Locator>> paths = new ArrayList<>();
-
-        // We will start the walk with a simple path for each locator of the root service:
-        Deque<List<Locator>> pending = root.locators()
-            .map(Collections::singletonList)
-            .collect(toCollection(ArrayDeque::new));
-
-        // Extract paths from the pending queue and expand them, till the queue is empty:
-        while (!pending.isEmpty()) {
-            List<Locator> current = pending.removeFirst();
-            paths.add(current);
-            int size = current.size();
-            Service service = current.get(size - 1).getService();
-            service.locators().forEach(locator -> {
-                List<Locator> next = new ArrayList<>(current);
-                next.add(locator);
-                pending.addLast(next);
-            });
+        PointIndex index = points;
+        if (index != null) {
+            return index.getPoints().stream();
         }
+        Spliterator<Point> spliterator = Spliterators.spliteratorUnknownSize(
+            new PointIterator(root),
+            Spliterator.ORDERED | Spliterator.NONNULL
+        );
+        return StreamSupport.stream(spliterator, false);
+    }
 
-        // Now, for each path, we need to create a point for each method:
-        List<Point> points = new ArrayList<>(paths.size());
-        paths.forEach(path -> {
-            int size = path.size();
-            if (size > 0) {
-                Service service = path.get(size -1).getService();
-                service.methods()
-                    .filter(method -> method.getBase() == null)
-                    .forEach(method -> {
-                        Point point = new Point();
-                        point.setPath(path);
-                        point.setMethod(method);
-                        points.add(point);
-                    });
-            }
-        });
-
-        return points;
+    /**
+     * Returns the points whose path ends in the given service, in the same order than {@link #getPoints()}. The
+     * returned list is unmodifiable.
+     */
+    public List<Point> getPointsByService(Service service) {
+        return getPointIndex().getPointsByService(service);
     }
 
     /**
-     * Creates a deep copy of this model.
+     * Returns the points whose method has the given name, in the same order than {@link #getPoints()}. The returned
+     * list is unmodifiable.
      */
-    public Model copy() {
-        try (ByteArrayOutputStream bytesOut = new ByteArrayOutputStream()) {
-            try (ObjectOutput objectOut = new ObjectOutputStream(bytesOut)) {
-                objectOut.writeObject(this);
-            }
-            try (ByteArrayInputStream bytesIn = new ByteArrayInputStream(bytesOut.toByteArray())) {
-                try (ObjectInput objectIn = new ObjectInputStream(bytesIn)) {
-                    return (Model) objectIn.readObject();
-                }
-            }
+    public List<Point> getPointsByMethodName(Name name) {
+        return getPointIndex().getPointsByMethodName(name);
+    }
+
+    /**
+     * Returns the points whose path starts with a sequence of locators that have the given names, in the same order
+     * than {@link #getPoints()}. For example, the prefix {@code [vms, vm]} returns the points of the {@code /vms/{id}}
+     * path and of all the paths below it. The returned list is unmodifiable.
+     */
+    public List<Point> getPointsByPathPrefix(List<Name> prefix) {
+        return getPointIndex().getPointsByPathPrefix(prefix);
+    }
+
+    private PointIndex getPointIndex() {
+        // No lock is needed here: the calculation has no side effects, so if several threads find that the points
+        // haven't been calculated yet they will all calculate equivalent indexes, and the volatile field ensures that
+        // the one that is finally stored is safely published.
+        PointIndex result = points;
+        if (result == null) {
+            result = new PointIndex(root);
+            points = result;
         }
-        catch (IOException | ClassNotFoundException exception) {
-            throw new IllegalStateException("Can't copy of the model", exception);
+        return result;
+    }
+
+    /**
+     * Freezes this model. This should be called when the model is complete, after analyzing it and after adding the
+     * built-in types. Once frozen the model and all the concepts that it contains can't be modified, any attempt to do
+     * so will throw an {@link IllegalStateException}. The methods that return lists, like
+     * {@link StructType#getAttributes()} or {@link Service#getMethods()}, return unmodifiable lists calculated only
+     * once, instead of creating new lists in each call. The names of the concepts are replaced by the equivalent
+     * interned immutable names, and the points are calculated in advance. As a result a frozen model can be shared
+     * by multiple threads without locks or defensive copies. This method should be called before sharing the model
+     * with other threads. Calling it on a model that is already frozen has no effect.
+     */
+    public void freeze() {
+        if (frozen) {
+            return;
+        }
+        modules.forEach(Concept::freeze);
+        types.forEach(Concept::freeze);
+        services.forEach(Concept::freeze);
+        documents.forEach(Concept::freeze);
+        modulesView = unmodifiableList(modules);
+        typesView = unmodifiableList(types);
+        servicesView = unmodifiableList(services);
+        documentsView = unmodifiableList(documents);
+        if (root != null) {
+            points = new PointIndex(root);
+        }
+        frozen = true;
+    }
+
+    /**
+     * Checks if this model has been frozen. See {@link #freeze()} for details.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("The model has been frozen, it can't be modified");
         }
     }
+
+    /**
+     * Creates a deep copy of this model. Shared references are preserved, so the copy has the same structure than
+     * this model. Strings, interned names and other immutable objects are shared by both models.
+     */
+    public Model copy() {
+        return new ModelCopier().copy(this);
+    }
 }
 
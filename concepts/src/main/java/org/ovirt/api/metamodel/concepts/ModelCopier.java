@@ -0,0 +1,370 @@
+/*
+Copyright (c) 2015-2017 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * This class creates deep copies of models, walking the graph of concepts and copying each of them. Objects that are
+ * referenced from multiple places are copied only once, using an identity map from the original objects to their
+ * copies, so the copy has exactly the same structure than the original. Immutable objects, like strings, interned
+ * names, enum constants and literal values, aren't copied, they are shared by the original and the copy.
+ *
+ * The modules, types, services and documents are created first and their contents are copied later, so that the
+ * depth of the recursion is limited by the length of the chains of members and expressions, instead of by the number
+ * of concepts of the model.
+ *
+ * Instances of this class can be used only once, and only from one thread.
+ */
+class ModelCopier {
+    // The functions that create empty objects of each class:
+    private static final Map<Class<?>, Supplier<?>> CONSTRUCTORS = new IdentityHashMap<>();
+
+    static {
+        CONSTRUCTORS.put(Annotation.class, Annotation::new);
+        CONSTRUCTORS.put(AnnotationParameter.class, AnnotationParameter::new);
+        CONSTRUCTORS.put(Module.class, Module::new);
+        CONSTRUCTORS.put(Document.class, Document::new);
+        CONSTRUCTORS.put(PrimitiveType.class, PrimitiveType::new);
+        CONSTRUCTORS.put(StructType.class, StructType::new);
+        CONSTRUCTORS.put(EnumType.class, EnumType::new);
+        CONSTRUCTORS.put(ListType.class, ListType::new);
+        CONSTRUCTORS.put(EnumValue.class, EnumValue::new);
+        CONSTRUCTORS.put(StructMember.class, StructMember::new);
+        CONSTRUCTORS.put(Attribute.class, Attribute::new);
+        CONSTRUCTORS.put(Link.class, Link::new);
+        CONSTRUCTORS.put(Service.class, Service::new);
+        CONSTRUCTORS.put(ServiceMember.class, ServiceMember::new);
+        CONSTRUCTORS.put(Method.class, Method::new);
+        CONSTRUCTORS.put(Locator.class, Locator::new);
+        CONSTRUCTORS.put(Parameter.class, Parameter::new);
+        CONSTRUCTORS.put(Constraint.class, Constraint::new);
+        CONSTRUCTORS.put(MemberInvolvementTree.class, () -> new MemberInvolvementTree((Name) null));
+        CONSTRUCTORS.put(ArrayExpression.class, ArrayExpression::new);
+        CONSTRUCTORS.put(AttributeExpression.class, AttributeExpression::new);
+        CONSTRUCTORS.put(BinaryExpression.class, BinaryExpression::new);
+        CONSTRUCTORS.put(LinkExpression.class, LinkExpression::new);
+        CONSTRUCTORS.put(LiteralExpression.class, LiteralExpression::new);
+        CONSTRUCTORS.put(ParameterExpression.class, ParameterExpression::new);
+        CONSTRUCTORS.put(UnaryExpression.class, UnaryExpression::new);
+    }
+
+    // The copies of the objects that have already been visited, indexed by the original objects:
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+    /**
+     * Creates a deep copy of the given model.
+     */
+    Model copy(Model model) {
+        // The objects created by the constructor of the model are implicitly copied by the constructor of the copy:
+        Model result = new Model();
+        copies.put(model, result);
+        copies.put(model.getModule(null), result.getModule(null));
+        copies.put(model.getBooleanType(), result.getBooleanType());
+        copies.put(model.getStringType(), result.getStringType());
+        copies.put(model.getIntegerType(), result.getIntegerType());
+        copies.put(model.getDateType(), result.getDateType());
+        copies.put(model.getDecimalType(), result.getDecimalType());
+
+        // Declare the modules, types, services and documents, and then copy their contents:
+        List<Module> modules = declare(model.getModules());
+        List<Type> types = declare(model.getTypes());
+        List<Service> services = declare(model.getServices());
+        List<Document> documents = declare(model.getDocuments());
+        for (Module module : modules) {
+            Module copy = get(module);
+            copyConcept(module, copy);
+            copy.setModel(copyOf(module.getModel()));
+            result.addModule(copy);
+        }
+        for (Type type : types) {
+            Type copy = get(type);
+            copyType(type, copy);
+            result.addType(copy);
+        }
+        for (Service service : services) {
+            Service copy = get(service);
+            copyService(service, copy);
+            result.addService(copy);
+        }
+        for (Document document : documents) {
+            Document copy = get(document);
+            copyConcept(document, copy);
+            copy.setAppendix(document.isAppendix());
+            result.addDocument(copy);
+        }
+        result.setRoot(copyOf(model.getRoot()));
+        return result;
+    }
+
+    /**
+     * Creates empty copies of the given objects, skipping the ones that have already been copied, and returns the
+     * list of originals whose contents still need to be copied.
+     */
+    private <T> List<T> declare(List<T> originals) {
+        List<T> pending = new ArrayList<>(originals.size());
+        for (T original : originals) {
+            if (!copies.containsKey(original)) {
+                copies.put(original, create(original));
+                pending.add(original);
+            }
+        }
+        return pending;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(T original) {
+        return (T) copies.get(original);
+    }
+
+    /**
+     * Returns the copy of the given object, creating it and copying its contents if it hasn't been copied yet.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T copyOf(T original) {
+        if (original == null || original instanceof ImmutableName) {
+            return original;
+        }
+        Object copy = copies.get(original);
+        if (copy == null) {
+            if (original instanceof Name) {
+                // Names don't contain references, so they can be copied directly:
+                copy = new Name((Name) original);
+                copies.put(original, copy);
+            }
+            else {
+                // The copy needs to be registered before copying the contents, as they may contain references to the
+                // object itself:
+                copy = create(original);
+                copies.put(original, copy);
+                copyContents(original, copy);
+            }
+        }
+        return (T) copy;
+    }
+
+    private <T> List<T> copyOf(List<T> originals) {
+        List<T> result = new ArrayList<>(originals.size());
+        for (T original : originals) {
+            result.add(copyOf(original));
+        }
+        return result;
+    }
+
+    /**
+     * Creates an empty object of the same class than the given one.
+     */
+    private Object create(Object original) {
+        Supplier<?> constructor = CONSTRUCTORS.get(original.getClass());
+        if (constructor == null) {
+            throw new IllegalStateException("Don't know how to copy objects of class \"" +
+                original.getClass().getName() + "\"");
+        }
+        return constructor.get();
+    }
+
+    private void copyContents(Object original, Object copy) {
+        if (original instanceof Annotation) {
+            copyAnnotation((Annotation) original, (Annotation) copy);
+        }
+        else if (original instanceof AnnotationParameter) {
+            copyAnnotationParameter((AnnotationParameter) original, (AnnotationParameter) copy);
+        }
+        else if (original instanceof Type) {
+            copyType((Type) original, (Type) copy);
+        }
+        else if (original instanceof EnumValue) {
+            copyEnumValue((EnumValue) original, (EnumValue) copy);
+        }
+        else if (original instanceof StructMember) {
+            copyStructMember((StructMember) original, (StructMember) copy);
+        }
+        else if (original instanceof ServiceMember) {
+            copyServiceMember((ServiceMember) original, (ServiceMember) copy);
+        }
+        else if (original instanceof Parameter) {
+            copyParameter((Parameter) original, (Parameter) copy);
+        }
+        else if (original instanceof Constraint) {
+            copyConstraint((Constraint) original, (Constraint) copy);
+        }
+        else if (original instanceof MemberInvolvementTree) {
+            copyMemberInvolvementTree((MemberInvolvementTree) original, (MemberInvolvementTree) copy);
+        }
+        else if (original instanceof Expression) {
+            copyExpression((Expression) original, (Expression) copy);
+        }
+        else {
+            // Modules, services and documents are always declared in advance, so they should never get here:
+            throw new IllegalStateException("Object \"" + original + "\" should have been declared in advance");
+        }
+    }
+
+    private void copyAnnotation(Annotation original, Annotation copy) {
+        copy.setName(copyOf(original.getName()));
+        copy.addParameters(copyOf(original.getParameters()));
+    }
+
+    private void copyAnnotationParameter(AnnotationParameter original, AnnotationParameter copy) {
+        copy.setName(copyOf(original.getName()));
+        copy.addValues(original.getValues());
+    }
+
+    private void copyConcept(Concept original, Concept copy) {
+        copy.setName(copyOf(original.getName()));
+        copy.setDoc(original.getDoc());
+        copy.setSource(original.getSource());
+        copy.addAnnotations(copyOf(original.getAnnotations()));
+    }
+
+    private void copyType(Type original, Type copy) {
+        copyConcept(original, copy);
+        if (original instanceof StructType) {
+            StructType structOriginal = (StructType) original;
+            StructType structCopy = (StructType) copy;
+            structCopy.setBase(copyOf(structOriginal.getBase()));
+            for (Attribute attribute : structOriginal.getDeclaredAttributes()) {
+                structCopy.addAttribute(copyOf(attribute));
+            }
+            for (Link link : structOriginal.getDeclaredLinks()) {
+                structCopy.addLink(copyOf(link));
+            }
+        }
+        else if (original instanceof EnumType) {
+            EnumType enumCopy = (EnumType) copy;
+            for (EnumValue value : ((EnumType) original).getValues()) {
+                enumCopy.addValue(copyOf(value));
+            }
+        }
+        else if (original instanceof ListType) {
+            ((ListType) copy).setElementType(copyOf(((ListType) original).getElementType()));
+        }
+
+        // This needs to be done after setting the element type of list types, as that also sets the module, using the
+        // module of the element type:
+        copy.setModule(copyOf(original.getModule()));
+    }
+
+    private void copyEnumValue(EnumValue original, EnumValue copy) {
+        copyConcept(original, copy);
+        copy.setDeclaringType(copyOf(original.getDeclaringType()));
+    }
+
+    private void copyStructMember(StructMember original, StructMember copy) {
+        copyConcept(original, copy);
+        copy.setDeclaringType(copyOf(original.getDeclaringType()));
+        copy.setType(copyOf(original.getType()));
+    }
+
+    private void copyService(Service original, Service copy) {
+        copyConcept(original, copy);
+        copy.setModule(copyOf(original.getModule()));
+        copy.setBase(copyOf(original.getBase()));
+        copy.addMethods(copyOf(original.getDeclaredMethods()));
+        copy.addLocators(copyOf(original.getDeclaredLocators()));
+        copy.addConstraints(copyOf(original.getDeclaredConstraints()));
+    }
+
+    private void copyServiceMember(ServiceMember original, ServiceMember copy) {
+        copyConcept(original, copy);
+        copy.setDeclaringService(copyOf(original.getDeclaringService()));
+        copy.addParameters(copyOf(original.getParameters()));
+        if (original instanceof Method) {
+            Method methodOriginal = (Method) original;
+            Method methodCopy = (Method) copy;
+            methodCopy.setBase(copyOf(methodOriginal.getBase()));
+            methodCopy.addConstraints(copyOf(methodOriginal.getConstraints()));
+        }
+        else if (original instanceof Locator) {
+            ((Locator) copy).setService(copyOf(((Locator) original).getService()));
+        }
+    }
+
+    private void copyParameter(Parameter original, Parameter copy) {
+        copyConcept(original, copy);
+        copy.setDeclaringMethod(copyOf(original.getDeclaringMethod()));
+        copy.setIn(original.isIn());
+        copy.setOut(original.isOut());
+        copy.setType(copyOf(original.getType()));
+        copy.setDefaultValue(copyOf(original.getDefaultValue()));
+        copy.setMandatory(original.isMandatory());
+        copy.getMemberInvolvementTrees().addAll(copyOf(original.getMemberInvolvementTrees()));
+    }
+
+    private void copyConstraint(Constraint original, Constraint copy) {
+        copyConcept(original, copy);
+        copy.setDeclaringMethod(copyOf(original.getDeclaringMethod()));
+        copy.setIn(original.isIn());
+        copy.setOut(original.isOut());
+        copy.setKind(original.getKind());
+        copy.addExpressions(copyOf(original.getExpressions()));
+    }
+
+    private void copyMemberInvolvementTree(MemberInvolvementTree original, MemberInvolvementTree copy) {
+        copy.setMember(copyOf(original.getMember()));
+        copy.setParent(copyOf(original.getParent()));
+        copy.setAlternative(copyOf(original.getAlternative()));
+        copy.setMandatory(original.isMandatory());
+        copy.getNodes().addAll(copyOf(original.getNodes()));
+    }
+
+    private void copyExpression(Expression original, Expression copy) {
+        copy.setType(copyOf(original.getType()));
+        if (original instanceof ArrayExpression) {
+            ArrayExpression arrayOriginal = (ArrayExpression) original;
+            ArrayExpression arrayCopy = (ArrayExpression) copy;
+            arrayCopy.setArray(copyOf(arrayOriginal.getArray()));
+            arrayCopy.setIndex(copyOf(arrayOriginal.getIndex()));
+        }
+        else if (original instanceof AttributeExpression) {
+            AttributeExpression attributeOriginal = (AttributeExpression) original;
+            AttributeExpression attributeCopy = (AttributeExpression) copy;
+            attributeCopy.setTarget(copyOf(attributeOriginal.getTarget()));
+            attributeCopy.setAttribute(copyOf(attributeOriginal.getAttribute()));
+        }
+        else if (original instanceof BinaryExpression) {
+            BinaryExpression binaryOriginal = (BinaryExpression) original;
+            BinaryExpression binaryCopy = (BinaryExpression) copy;
+            binaryCopy.setOperator(binaryOriginal.getOperator());
+            binaryCopy.setLeft(copyOf(binaryOriginal.getLeft()));
+            binaryCopy.setRight(copyOf(binaryOriginal.getRight()));
+        }
+        else if (original instanceof LinkExpression) {
+            LinkExpression linkOriginal = (LinkExpression) original;
+            LinkExpression linkCopy = (LinkExpression) copy;
+            linkCopy.setTarget(copyOf(linkOriginal.getTarget()));
+            linkCopy.setLink(copyOf(linkOriginal.getLink()));
+        }
+        else if (original instanceof LiteralExpression) {
+            // Literal values are booleans and big integers, both immutable:
+            ((LiteralExpression) copy).setValue(((LiteralExpression) original).getValue());
+        }
+        else if (original instanceof ParameterExpression) {
+            ((ParameterExpression) copy).setParameter(copyOf(((ParameterExpression) original).getParameter()));
+        }
+        else if (original instanceof UnaryExpression) {
+            UnaryExpression unaryOriginal = (UnaryExpression) original;
+            UnaryExpression unaryCopy = (UnaryExpression) copy;
+            unaryCopy.setOperator(unaryOriginal.getOperator());
+            unaryCopy.setOperand(copyOf(unaryOriginal.getOperand()));
+        }
+    }
+}
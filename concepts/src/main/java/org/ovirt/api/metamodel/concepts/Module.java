@@ -24,6 +24,7 @@ public class Module extends Concept {
     }
 
     public void setModel(Model newModel) {
+        checkNotFrozen();
         model = newModel;
     }
 }
@@ -17,6 +17,7 @@ limitations under the License.
 package org.ovirt.api.metamodel.concepts;
 
 import static java.lang.String.join;
+import static java.util.stream.Collectors.joining;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -35,6 +36,12 @@ public class Name implements Comparable<Name>, Serializable {
      */
     private ArrayList<String> words = new ArrayList<>(1);
 
+    /**
+     * The cached hash code of this name, zero if it hasn't been calculated yet. Methods that modify the list of words
+     * must reset it.
+     */
+    private transient int hash;
+
     public Name() {
         super();
     }
@@ -85,6 +92,7 @@ public class Name implements Comparable<Name>, Serializable {
      * @param newWords the list of words that will replace the words of this name
      */
     public void setWords(List<String> newWords) {
+        hash = 0;
         words.clear();
         for (String newWord : newWords) {
             words.add(newWord.toLowerCase());
@@ -97,6 +105,7 @@ public class Name implements Comparable<Name>, Serializable {
      * @param word the replacement word
      */
     public void setWord(int index, String word) {
+        hash = 0;
         words.set(index, word);
     }
 
@@ -106,6 +115,7 @@ public class Name implements Comparable<Name>, Serializable {
      * @param newWord the world that will be added
      */
     public void addWord(String newWord) {
+        hash = 0;
         words.add(newWord.toLowerCase());
     }
 
@@ -115,6 +125,7 @@ public class Name implements Comparable<Name>, Serializable {
      * @param newWord the world that will be added
      */
     public void addWords(List<String> words) {
+        hash = 0;
         this.words.addAll(words);
     }
 
@@ -125,6 +136,40 @@ public class Name implements Comparable<Name>, Serializable {
         return words.stream();
     }
 
+    /**
+     * Returns the words of this name with the first letter in upper case and the rest of the letters in lower case,
+     * joined together without separator. For example, the name {@code my_favorite_fruit} is rendered as
+     * {@code MyFavoriteFruit}.
+     */
+    public String getCapitalized() {
+        StringBuilder buffer = new StringBuilder();
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                buffer.append(Character.toUpperCase(word.charAt(0)));
+                buffer.append(word.substring(1).toLowerCase());
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Returns the words of this name converted to lower case and joined using the given separator.
+     *
+     * @param separator the text that will be placed between words
+     */
+    public String getLowerJoined(String separator) {
+        return words.stream().map(String::toLowerCase).collect(joining(separator));
+    }
+
+    /**
+     * Returns the words of this name converted to upper case and joined using the given separator.
+     *
+     * @param separator the text that will be placed between words
+     */
+    public String getUpperJoined(String separator) {
+        return words.stream().map(String::toUpperCase).collect(joining(separator));
+    }
+
     /**
      * Returns a string representation of this name, consisting on the list of words of the name separated by underscores.
      */
@@ -147,7 +192,12 @@ public class Name implements Comparable<Name>, Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(words);
+        int result = hash;
+        if (result == 0) {
+            result = Objects.hashCode(words);
+            hash = result;
+        }
+        return result;
     }
 
     /**
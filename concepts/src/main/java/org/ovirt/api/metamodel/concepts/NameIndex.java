@@ -0,0 +1,72 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is an index of named concepts, used to find them by name without having to scan the lists that contain
+ * them. The lookups have the same semantics than filtering the list with the {@link Named#named(Name)} predicate and
+ * taking the first result: if several concepts have the same name the one that was added first is returned, and a
+ * leading underscore in the first word of the searched name is ignored.
+ *
+ * Note that the index uses the name that the concept has when it is added, so the name of the concept shouldn't be
+ * changed after that.
+ *
+ * @param <T> the type of the indexed concepts
+ */
+class NameIndex<T extends Named> implements Serializable {
+    private final Map<Name, T> map = new HashMap<>();
+
+    /**
+     * Adds a concept to the index.
+     */
+    void add(T concept) {
+        map.putIfAbsent(concept.getName(), concept);
+    }
+
+    /**
+     * Returns the concept that has the given name, or {@code null} if there is no such concept. If the name is
+     * {@code null} then the first concept that doesn't have a name is returned, for example the anonymous module of
+     * the model.
+     */
+    T get(Name name) {
+        if (name != null) {
+            name = removeUnderscore(name);
+        }
+        return map.get(name);
+    }
+
+    /**
+     * Removes the underscore that may have been added to the first word of a name to avoid conflicts with Java
+     * keywords, like the {@link Named#named(Name)} predicate does, but without modifying the given name.
+     */
+    private static Name removeUnderscore(Name name) {
+        List<String> words = name.getWords();
+        if (!words.isEmpty()) {
+            String first = words.get(0);
+            if (first.startsWith("_")) {
+                words.set(0, first.substring(1));
+                return new Name(words);
+            }
+        }
+        return name;
+    }
+}
@@ -16,7 +16,66 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 public class NameParser {
+    /**
+     * The interned names, indexed by themselves. The set of different names used by a model is small and the names
+     * are used during all the life of the process, so this is never cleaned.
+     */
+    private static final ConcurrentMap<Name, ImmutableName> INTERNED = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the immutable and shared representation of the given name. Calling this method with names that contain
+     * the same words always returns the same object, so repeated names don't need additional memory and they can
+     * reuse the hash code and rendered forms calculated by other users. The given name isn't modified or referenced.
+     *
+     * @param name the name to intern
+     * @return the immutable name that contains the same words than the given one, or {@code null} if the given name
+     *     is {@code null}
+     */
+    public static ImmutableName intern(Name name) {
+        if (name == null) {
+            return null;
+        }
+        ImmutableName interned = INTERNED.get(name);
+        if (interned == null) {
+            ImmutableName candidate = name instanceof ImmutableName ?
+                (ImmutableName) name : new ImmutableName(name.getWords());
+            interned = INTERNED.putIfAbsent(candidate, candidate);
+            if (interned == null) {
+                interned = candidate;
+            }
+        }
+        return interned;
+    }
+
+    /**
+     * Separates the given text into words, using the case transitions as separators, and returns the interned name
+     * containing those words.
+     *
+     * @param text the text to process
+     * @see #parseUsingCase(String)
+     * @see #intern(Name)
+     */
+    public static ImmutableName internUsingCase(String text) {
+        return intern(parseUsingCase(text));
+    }
+
+    /**
+     * Separates the given text into words, using the given separator character, and returns the interned name
+     * containing those words.
+     *
+     * @param text the text to process
+     * @param separator the character that separates words
+     * @see #parseUsingSeparator(String, char)
+     * @see #intern(Name)
+     */
+    public static ImmutableName internUsingSeparator(String text, char separator) {
+        return intern(parseUsingSeparator(text, separator));
+    }
+
     /**
      * Separates the given text into words, using the given separator character, and creates a new name containing
      * those words. For example, to convert the text {@code my_favorite_fruit} into a name the method can be used
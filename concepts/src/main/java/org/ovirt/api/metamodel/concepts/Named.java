@@ -16,6 +16,7 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
 
@@ -73,9 +74,12 @@ public interface Named extends Comparable<Named> {
 
     static boolean namesEqual(Name name1, Named name2) {
         if (name1 != null) {
-            String firstWord = name1.getWords().get(0);
+            // Names may be immutable, so the underscore is removed from a copy:
+            List<String> words = name1.getWords();
+            String firstWord = words.get(0);
             if (firstWord.startsWith("_")) {
-                name1.setWord(0, firstWord.substring(1, firstWord.length())); //remove the underscore
+                words.set(0, firstWord.substring(1, firstWord.length())); //remove the underscore
+                name1 = new Name(words);
             }
         }
         return Objects.equals(name2.getName(), name1);
@@ -16,6 +16,8 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
+import static java.util.Collections.unmodifiableList;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -79,7 +81,20 @@ public class Parameter extends Concept {
      */
     private List<MemberInvolvementTree> memberInvolvementTrees = new ArrayList<>();
 
+    // The unmodifiable views of the member involvement trees and of the mandatory attributes, calculated when the
+    // parameter is frozen:
+    private transient List<MemberInvolvementTree> memberInvolvementTreesView;
+    private transient List<MemberInvolvementTree> mandatoryAttributes;
+
+    /**
+     * Returns the list of member involvement trees of this parameter. Before the parameter is frozen this is the list
+     * used internally, and the analyzer modifies it directly. Once the parameter is frozen it is an unmodifiable view
+     * of that list.
+     */
     public List <MemberInvolvementTree> getMemberInvolvementTrees() {
+        if (memberInvolvementTreesView != null) {
+            return memberInvolvementTreesView;
+        }
         return memberInvolvementTrees;
     }
 
@@ -94,6 +109,7 @@ public class Parameter extends Concept {
      * Sets the method that declared this parameter.
      */
     public void setDeclaringMethod(Method newDeclaringMethod) {
+        checkNotFrozen();
         declaringMethod = newDeclaringMethod;
     }
 
@@ -102,6 +118,7 @@ public class Parameter extends Concept {
     }
 
     public void setIn(boolean in) {
+        checkNotFrozen();
         this.in = in;
     }
 
@@ -110,6 +127,7 @@ public class Parameter extends Concept {
     }
 
     public void setOut(boolean out) {
+        checkNotFrozen();
         this.out = out;
     }
 
@@ -118,6 +136,7 @@ public class Parameter extends Concept {
     }
 
     public void setType(Type type) {
+        checkNotFrozen();
         this.type = type;
     }
 
@@ -126,6 +145,7 @@ public class Parameter extends Concept {
     }
 
     public void setDefaultValue(Expression value) {
+        checkNotFrozen();
         this.defaultValue = value;
     }
 
@@ -142,24 +162,44 @@ public class Parameter extends Concept {
     }
 
     public void setMandatory(Boolean mandatory) {
+        checkNotFrozen();
         this.mandatory = mandatory;
     }
 
+    /**
+     * Returns the mandatory leaves of the member involvement trees of this parameter. Once the parameter is frozen the
+     * returned list is calculated only once and it can't be modified.
+     */
     public List<MemberInvolvementTree> getMandatoryAttributes() {
-        List<MemberInvolvementTree> mandatoryAttributes = new ArrayList<>();
+        if (mandatoryAttributes != null) {
+            return mandatoryAttributes;
+        }
+        return collectMandatoryAttributes();
+    }
+
+    private List<MemberInvolvementTree> collectMandatoryAttributes() {
+        List<MemberInvolvementTree> result = new ArrayList<>();
         for (MemberInvolvementTree memberInvolvementTree : memberInvolvementTrees) {
-            mandatoryAttributes.addAll(memberInvolvementTree.getMandatoryAttributes());
+            result.addAll(memberInvolvementTree.getMandatoryAttributes());
         }
-        return mandatoryAttributes;
+        return result;
     }
 
     /**
      * Remove tree with provided root name from member-involvement-trees list.
      */
     public void removeMemeberInvolvementTree(Name name) {
+        checkNotFrozen();
         memberInvolvementTrees.removeIf(s -> s.getName().equals(name));
     }
 
+    @Override
+    void freeze() {
+        super.freeze();
+        memberInvolvementTreesView = unmodifiableList(memberInvolvementTrees);
+        mandatoryAttributes = unmodifiableList(collectMandatoryAttributes());
+    }
+
     @Override
     public String toString() {
         StringBuilder buffer = new StringBuilder();
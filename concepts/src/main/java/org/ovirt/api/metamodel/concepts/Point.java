@@ -27,15 +27,35 @@ import java.util.stream.Stream;
  * of locators) and a method.
  */
 public class Point implements Serializable {
+    // The path of this point. Points created by the model use a node of the tree of paths shared by all the points,
+    // and points created with the setPath method use a list. Only one of the two is used.
     private List<Locator> path = new ArrayList<>();
+    private LocatorPath pathNode;
+
+    // The method of this point:
     private Method method;
 
+    public Point() {
+    }
+
+    /**
+     * Creates a point whose path is the given node of the tree of paths.
+     */
+    Point(LocatorPath pathNode, Method method) {
+        this.path = null;
+        this.pathNode = pathNode;
+        this.method = method;
+    }
+
     /**
      * Returns the a list containing the locators in the path to of this point. The returned list is a copy of the one
      * used internally, so it is safe to modify it in any way. If you aren't going to modify the list consider using the
      * {@link #path()} method instead.
      */
     public List<Locator> getPath() {
+        if (pathNode != null) {
+            return new CopyOnWriteArrayList<>(pathNode.toList());
+        }
         return new CopyOnWriteArrayList<>(path);
     }
 
@@ -43,6 +63,9 @@ public class Point implements Serializable {
      * Returns a stream that delivers the locators in the path to this point.
      */
     public Stream<Locator> path() {
+        if (pathNode != null) {
+            return pathNode.toList().stream();
+        }
         return path.stream();
     }
 
@@ -51,8 +74,23 @@ public class Point implements Serializable {
      * after calling the method.
      */
     public void setPath(List<Locator> path) {
-        this.path.clear();
-        this.path.addAll(path);
+        this.path = new ArrayList<>(path);
+        this.pathNode = null;
+    }
+
+    /**
+     * Returns the node of the tree of paths that corresponds to this point, creating it if the point was created with
+     * a list of locators.
+     */
+    LocatorPath getPathNode() {
+        if (pathNode == null) {
+            LocatorPath node = null;
+            for (Locator locator : path) {
+                node = new LocatorPath(node, locator);
+            }
+            return node;
+        }
+        return pathNode;
     }
 
     /**
@@ -0,0 +1,164 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparingInt;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class contains the complete list of points of a model, and the indexes used to find them by service, by
+ * method name and by path prefix without having to scan the complete list.
+ */
+final class PointIndex {
+    // The list of all the points, in the order generated by the point iterator:
+    private final List<Point> points;
+
+    // The position of each point in the list, used to return the results of queries in the same order:
+    private final Map<Point, Integer> positions = new IdentityHashMap<>();
+
+    // The points indexed by the service at the end of their path:
+    private final Map<Service, List<Point>> byService = new IdentityHashMap<>();
+
+    // The points indexed by the name of their method:
+    private final NameIndex<PointGroup> byMethodName = new NameIndex<>();
+
+    // The paths that contain one locator, and the paths that extend each path by one locator. Only the paths that
+    // lead to at least one point are included.
+    private final List<LocatorPath> roots = new ArrayList<>();
+    private final Map<LocatorPath, List<LocatorPath>> children = new IdentityHashMap<>();
+
+    // The points whose path ends in each path:
+    private final Map<LocatorPath, List<Point>> byPath = new IdentityHashMap<>();
+
+    PointIndex(Service root) {
+        List<Point> all = new ArrayList<>();
+        Iterator<Point> iterator = new PointIterator(root);
+        while (iterator.hasNext()) {
+            Point point = iterator.next();
+            positions.put(point, all.size());
+            all.add(point);
+            byService.computeIfAbsent(point.getPathNode().getService(), key -> new ArrayList<>()).add(point);
+            Name methodName = point.getMethod().getName();
+            PointGroup group = byMethodName.get(methodName);
+            if (group == null) {
+                group = new PointGroup(methodName);
+                byMethodName.add(group);
+            }
+            group.points.add(point);
+            addPath(point.getPathNode());
+            byPath.computeIfAbsent(point.getPathNode(), key -> new ArrayList<>()).add(point);
+        }
+        points = unmodifiableList(all);
+    }
+
+    private void addPath(LocatorPath path) {
+        if (children.containsKey(path)) {
+            return;
+        }
+        children.put(path, new ArrayList<>());
+        LocatorPath parent = path.getParent();
+        if (parent != null) {
+            addPath(parent);
+            children.get(parent).add(path);
+        }
+        else {
+            roots.add(path);
+        }
+    }
+
+    /**
+     * Returns the unmodifiable list of all the points.
+     */
+    List<Point> getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns the points whose path ends in the given service.
+     */
+    List<Point> getPointsByService(Service service) {
+        List<Point> result = byService.get(service);
+        return result != null? unmodifiableList(result): emptyList();
+    }
+
+    /**
+     * Returns the points whose method has the given name.
+     */
+    List<Point> getPointsByMethodName(Name name) {
+        PointGroup group = byMethodName.get(name);
+        return group != null? unmodifiableList(group.points): emptyList();
+    }
+
+    /**
+     * Returns the points whose path starts with locators that have the given names.
+     */
+    List<Point> getPointsByPathPrefix(List<Name> prefix) {
+        List<LocatorPath> current = roots;
+        for (int i = 0; i < prefix.size(); i++) {
+            Name name = prefix.get(i);
+            List<LocatorPath> candidates = current;
+            if (i > 0) {
+                candidates = new ArrayList<>();
+                for (LocatorPath path : current) {
+                    candidates.addAll(children.get(path));
+                }
+            }
+            current = candidates.stream()
+                .filter(path -> Named.named(name).test(path.getLocator()))
+                .collect(toList());
+        }
+        List<Point> result = new ArrayList<>();
+        for (LocatorPath path : current) {
+            collectPoints(path, result);
+        }
+        result.sort(comparingInt(positions::get));
+        return result;
+    }
+
+    private void collectPoints(LocatorPath path, List<Point> result) {
+        result.addAll(byPath.getOrDefault(path, emptyList()));
+        for (LocatorPath child : children.get(path)) {
+            collectPoints(child, result);
+        }
+    }
+
+    /**
+     * The points that have methods with the same name. This is needed because the name index only supports named
+     * objects.
+     */
+    private static class PointGroup implements Named {
+        private final Name name;
+        private final List<Point> points = new ArrayList<>();
+
+        PointGroup(Name name) {
+            this.name = name;
+        }
+
+        @Override
+        public Name getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class walks the tree of services, starting from the root, and generates the points of the model as they are
+ * requested. The walk is breadth first, and for each path the points of the methods of the service are generated
+ * in the order of the methods. Only the paths that haven't been expanded yet, and the points of the last expanded
+ * path, are kept in memory.
+ */
+final class PointIterator implements Iterator<Point> {
+    // The paths that haven't been expanded yet:
+    private final Deque<LocatorPath> pending = new ArrayDeque<>();
+
+    // The points of the last expanded path that haven't been returned yet:
+    private final Deque<Point> ready = new ArrayDeque<>();
+
+    PointIterator(Service root) {
+        root.locators().forEach(locator -> pending.addLast(new LocatorPath(null, locator)));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (ready.isEmpty() && !pending.isEmpty()) {
+            LocatorPath current = pending.removeFirst();
+            Service service = current.getService();
+            service.locators().forEach(locator -> pending.addLast(new LocatorPath(current, locator)));
+            service.methods()
+                .filter(method -> method.getBase() == null)
+                .forEach(method -> ready.addLast(new Point(current, method)));
+        }
+        return !ready.isEmpty();
+    }
+
+    @Override
+    public Point next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ready.removeFirst();
+    }
+}
@@ -0,0 +1,288 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class finds the point of the model that corresponds to an HTTP request, given its method and its path. The
+ * points are compiled into a tree where each node corresponds to a segment of the path: locators without parameters
+ * and actions are literal segments, like {@code vms} or {@code start}, and locators with parameters are variable
+ * segments that match any value, like the identifier in {@code vms/123}.
+ *
+ * A segment may match both a literal and a variable child of the same node, for example {@code vms/export} when the
+ * {@code vms} collection has an {@code export} action. The literal one is preferred, but if the rest of the path, or
+ * the HTTP method, only matches below the variable one then that is used. In order to avoid trying both alternatives
+ * when matching, which would take a time exponential in the number of segments, the tree is compiled into states,
+ * where each state contains all the nodes that a prefix of the path can reach, in order of preference. Finding a point
+ * then needs one lookup per segment, so the time is proportional to the length of the path and independent of the
+ * number of points of the model.
+ *
+ * The paths are relative to the root of the API, for example {@code vms/123/disks}. Leading and trailing slashes, and
+ * the query string, are ignored. Once the router is created it isn't modified, so it can be used by multiple threads
+ * simultaneously.
+ */
+public class PointRouter {
+    // The state that corresponds to the root service:
+    private final State root;
+
+    /**
+     * Creates a router containing all the points of the given model. The model should be frozen, or at least it
+     * shouldn't be modified after creating the router, as the router won't be updated.
+     */
+    public PointRouter(Model model) {
+        Node tree = new Node();
+        if (model.getRoot() != null) {
+            model.points().forEach(point -> addPoint(tree, point));
+        }
+        root = compile(Collections.singletonList(tree), new HashMap<>());
+    }
+
+    private static void addPoint(Node root, Point point) {
+        Node node = root;
+        for (Locator locator : point.getPathNode().toList()) {
+            if (isVariable(locator)) {
+                if (node.variable == null) {
+                    node.variable = new Node();
+                }
+                node = node.variable;
+            }
+            else {
+                node = node.literals.computeIfAbsent(getSegment(locator), key -> new Node());
+            }
+        }
+        Method method = point.getMethod();
+        if (method.isAction()) {
+            node = node.literals.computeIfAbsent(getSegment(method), key -> new Node());
+        }
+        node.points.putIfAbsent(getHttpMethod(method), point);
+    }
+
+    /**
+     * Compiles the given list of nodes, sorted by preference, into a state, and then recursively the states that can
+     * be reached from it. States are indexed by their list of nodes, so that each one is compiled only once.
+     */
+    private static State compile(List<Node> nodes, Map<List<Node>, State> states) {
+        State state = states.get(nodes);
+        if (state != null) {
+            return state;
+        }
+        state = new State();
+        states.put(nodes, state);
+
+        // The targets of each HTTP method are taken from the first node that has one:
+        for (Node node : nodes) {
+            for (Map.Entry<String, Point> entry : node.points.entrySet()) {
+                state.targets.computeIfAbsent(entry.getKey(), key -> new Target(entry.getValue()));
+            }
+        }
+
+        // A literal segment leads to the literal children with that text and to the variable children, in that order
+        // for each node:
+        Set<String> segments = new LinkedHashSet<>();
+        for (Node node : nodes) {
+            segments.addAll(node.literals.keySet());
+        }
+        for (String segment : segments) {
+            List<Node> next = new ArrayList<>();
+            for (Node node : nodes) {
+                Node literal = node.literals.get(segment);
+                if (literal != null) {
+                    next.add(literal);
+                }
+                if (node.variable != null) {
+                    next.add(node.variable);
+                }
+            }
+            state.literals.put(segment, compile(next, states));
+        }
+
+        // Any other segment only leads to the variable children:
+        List<Node> variables = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.variable != null) {
+                variables.add(node.variable);
+            }
+        }
+        if (!variables.isEmpty()) {
+            state.variable = compile(variables, states);
+        }
+        return state;
+    }
+
+    /**
+     * Finds the point that corresponds to the given HTTP method and path.
+     *
+     * @param httpMethod the HTTP method, for example {@code GET}
+     * @param path the path of the request, relative to the root of the API, for example {@code vms/123}
+     * @return the match containing the point and the values of the variable segments, or {@code null} if there is no
+     *     point for the given method and path
+     */
+    public Match match(String httpMethod, String path) {
+        int end = path.indexOf('?');
+        if (end == -1) {
+            end = path.length();
+        }
+        State state = root;
+        List<String> segments = new ArrayList<>();
+        int start = skipSlashes(path, 0, end);
+        while (start < end) {
+            int slash = path.indexOf('/', start);
+            if (slash == -1 || slash > end) {
+                slash = end;
+            }
+            String segment = path.substring(start, slash);
+            State next = state.literals.get(segment);
+            if (next == null) {
+                next = state.variable;
+                if (next == null) {
+                    return null;
+                }
+            }
+            segments.add(segment);
+            state = next;
+            start = skipSlashes(path, slash, end);
+        }
+        Target target = state.targets.get(httpMethod);
+        if (target == null) {
+            return null;
+        }
+
+        // The state doesn't know which of its nodes matched, so the values are extracted using the positions of the
+        // variable segments of the path of the point:
+        List<String> values = new ArrayList<>(target.variables.length);
+        for (int variable : target.variables) {
+            values.add(segments.get(variable));
+        }
+        return new Match(target.point, values);
+    }
+
+    private static boolean isVariable(Locator locator) {
+        return locator.parameters().findAny().isPresent();
+    }
+
+    private static int skipSlashes(String path, int index, int end) {
+        while (index < end && path.charAt(index) == '/') {
+            index++;
+        }
+        return index;
+    }
+
+    private static String getSegment(Named named) {
+        return named.getName().getLowerJoined("");
+    }
+
+    private static String getHttpMethod(Method method) {
+        switch (method.getName().toString().toLowerCase()) {
+        case "get":
+        case "list":
+            return "GET";
+        case "update":
+            return "PUT";
+        case "remove":
+            return "DELETE";
+        default:
+            return "POST";
+        }
+    }
+
+    /**
+     * A node of the tree, corresponding to a segment of the path.
+     */
+    private static class Node {
+        // The children that correspond to literal segments, indexed by the text of the segment:
+        private final Map<String, Node> literals = new HashMap<>();
+
+        // The child that corresponds to a variable segment, if any:
+        private Node variable;
+
+        // The points of the path that ends in this node, indexed by HTTP method:
+        private final Map<String, Point> points = new HashMap<>(4);
+    }
+
+    /**
+     * A state of the compiled tree, corresponding to the list of nodes that a prefix of the path can reach.
+     */
+    private static class State {
+        // The states reached by literal segments, indexed by the text of the segment:
+        private final Map<String, State> literals = new HashMap<>();
+
+        // The state reached by any other segment, if any:
+        private State variable;
+
+        // The points of the paths that end in this state, indexed by HTTP method:
+        private final Map<String, Target> targets = new HashMap<>(4);
+    }
+
+    /**
+     * A point that can be found by the router, together with the positions of the variable segments of its path.
+     */
+    private static class Target {
+        private final Point point;
+        private final int[] variables;
+
+        private Target(Point point) {
+            this.point = point;
+            List<Locator> locators = point.getPathNode().toList();
+            int[] positions = new int[locators.size()];
+            int count = 0;
+            for (int i = 0; i < locators.size(); i++) {
+                if (isVariable(locators.get(i))) {
+                    positions[count++] = i;
+                }
+            }
+            this.variables = Arrays.copyOf(positions, count);
+        }
+    }
+
+    /**
+     * The result of matching a request, containing the point and the values of the variable segments of the path.
+     */
+    public static class Match {
+        private final Point point;
+        private final List<String> values;
+
+        private Match(Point point, List<String> values) {
+            this.point = point;
+            this.values = unmodifiableList(values);
+        }
+
+        /**
+         * Returns the point that matched the request.
+         */
+        public Point getPoint() {
+            return point;
+        }
+
+        /**
+         * Returns the values of the variable segments of the path, for example the identifiers of the objects, in the
+         * same order that they appear in the path.
+         */
+        public List<String> getValues() {
+            return values;
+        }
+    }
+}
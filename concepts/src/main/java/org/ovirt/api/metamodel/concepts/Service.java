@@ -16,13 +16,11 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
-import static org.ovirt.api.metamodel.concepts.Named.named;
-
+import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Stream.concat;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
@@ -30,14 +28,24 @@ public class Service extends Concept {
     private Module module;
     private Service base;
     private List<Method> methods = new ArrayList<>();
+    private NameIndex<Method> methodsIndex = new NameIndex<>();
     private List<Locator> locators = new ArrayList<>();
     private List<Constraint> constraints = new ArrayList<>();
 
+    // The unmodifiable lists of members, calculated when the service is frozen:
+    private transient List<Locator> allLocators;
+    private transient List<Locator> declaredLocators;
+    private transient List<Method> allMethods;
+    private transient List<Method> declaredMethods;
+    private transient List<Constraint> allConstraints;
+    private transient List<Constraint> declaredConstraints;
+
     public Module getModule() {
         return module;
     }
 
     public void setModule(Module newModule) {
+        checkNotFrozen();
         module = newModule;
     }
 
@@ -46,15 +54,24 @@ public class Service extends Concept {
     }
 
     public void setBase(Service newBase) {
+        checkNotFrozen();
         base = newBase;
     }
 
     /**
-     * Returns all the locators of this service, including the ones declared in base services. The returned list is a
-     * copy of the one used internally, so it is safe to modify it. If you aren't going to modify the list consider
-     * using the {@link #locators()} method instead.
+     * Returns all the locators of this service, including the ones declared in base services. Before the service is
+     * frozen the returned list is a copy of the one used internally, so it is safe to modify it. Once the service is
+     * frozen it is an unmodifiable list calculated only once. If you aren't going to modify the list consider using
+     * the {@link #locators()} method instead.
      */
     public List<Locator> getLocators() {
+        if (allLocators != null) {
+            return allLocators;
+        }
+        return collectLocators();
+    }
+
+    private List<Locator> collectLocators() {
         List<Locator> result = new ArrayList<>(locators);
         if (base != null) {
             result.addAll(base.getLocators());
@@ -75,10 +92,14 @@ public class Service extends Concept {
 
     /**
      * Returns the list of locators that are declared directly in this service, not included the ones that are declared
-     * in the base services. The returned list is a copy of the one used internally, so it is safe to modify it. If you
-     * aren't going to modify the list consider using the {@link #declaredLocators()} method instead.
+     * in the base services. Before the service is frozen the returned list is a copy of the one used internally, so it
+     * is safe to modify it. Once the service is frozen it is an unmodifiable view of the internal list. If you aren't
+     * going to modify the list consider using the {@link #declaredLocators()} method instead.
      */
     public List<Locator> getDeclaredLocators() {
+        if (declaredLocators != null) {
+            return declaredLocators;
+        }
         return new CopyOnWriteArrayList<>(locators);
     }
 
@@ -94,6 +115,7 @@ public class Service extends Concept {
      * Adds a new locator to this service.
      */
     public void addLocator(Locator newLocator) {
+        checkNotFrozen();
         locators.add(newLocator);
     }
 
@@ -101,14 +123,23 @@ public class Service extends Concept {
      * Adds a list of new locators to this service.
      */
     public void addLocators(List<Locator> newLocators) {
+        checkNotFrozen();
         locators.addAll(newLocators);
     }
 
     /**
-     * Returns all the methods of this service, including the ones declared in base types. The returned list is a copy
-     * of the one used internally, so it is safe to modify it.
+     * Returns all the methods of this service, including the ones declared in base types. Before the service is frozen
+     * the returned list is a copy of the one used internally, so it is safe to modify it. Once the service is frozen
+     * it is an unmodifiable list calculated only once.
      */
     public List<Method> getMethods() {
+        if (allMethods != null) {
+            return allMethods;
+        }
+        return collectMethods();
+    }
+
+    private List<Method> collectMethods() {
         List<Method> result = new ArrayList<>(methods);
         if (base != null) {
             result.addAll(base.getMethods());
@@ -130,10 +161,14 @@ public class Service extends Concept {
     /**
      * Returns the list of methods that are declared directly in this service, not included the ones that are declared
      * in the base services. This includes 'signature's of a method - meaning methods defined inside a method.
-     * The returned list is a copy of the one used internally, so it is safe to modify it. If you aren't going to
-     * modify the list consider using the {@link #declaredMethods()} method instead.
+     * Before the service is frozen the returned list is a copy of the one used internally, so it is safe to modify it.
+     * Once the service is frozen it is an unmodifiable view of the internal list. If you aren't going to modify the
+     * list consider using the {@link #declaredMethods()} method instead.
      */
     public List<Method> getDeclaredMethods() {
+        if (declaredMethods != null) {
+            return declaredMethods;
+        }
         return new CopyOnWriteArrayList<>(methods);
     }
 
@@ -154,14 +189,11 @@ public class Service extends Concept {
      * @return the method with the given name or {@code null if no such method exists}
      */
     public Method getMethod(Name name) {
-        Optional<Method> method = methods.stream().filter(named(name)).findFirst();
-        if (method.isPresent()) {
-            return method.get();
-        }
-        if (base != null) {
-            return base.getMethod(name);
+        Method method = methodsIndex.get(name);
+        if (method == null && base != null) {
+            method = base.getMethod(name);
         }
-        return null;
+        return method;
     }
 
     /**
@@ -171,29 +203,40 @@ public class Service extends Concept {
      * @return {@code true} if the method exists, {@code false} otherwise
      */
     public boolean hasMethod(Name name) {
-        return methods().anyMatch(named(name));
+        return getMethod(name) != null;
     }
 
     /**
-     * Adds a new method to this service.
+     * Adds a new method to this service. The method is indexed by name, so its name should be set before adding it,
+     * and it shouldn't be changed later.
      */
     public void addMethod(Method newMethod) {
+        checkNotFrozen();
         methods.add(newMethod);
+        methodsIndex.add(newMethod);
     }
 
     /**
      * Adds a new list of methods to this service.
      */
     public void addMethods(List<Method> newMethod) {
-        methods.addAll(newMethod);
+        newMethod.forEach(this::addMethod);
     }
 
     /**
-     * Returns all the constraints of this service, including the ones declared in base services. The returned list is
-     * a copy of the one used internally, so it is safe to modify it. If you aren't going to modify the list consider
-     * using the {@link #constraints()} method instead.
+     * Returns all the constraints of this service, including the ones declared in base services. Before the service is
+     * frozen the returned list is a copy of the one used internally, so it is safe to modify it. Once the service is
+     * frozen it is an unmodifiable list calculated only once. If you aren't going to modify the list consider using
+     * the {@link #constraints()} method instead.
      */
     public List<Constraint> getConstraints() {
+        if (allConstraints != null) {
+            return allConstraints;
+        }
+        return collectConstraints();
+    }
+
+    private List<Constraint> collectConstraints() {
         List<Constraint> result = new ArrayList<>(constraints);
         if (base != null) {
             result.addAll(base.getConstraints());
@@ -214,11 +257,14 @@ public class Service extends Concept {
 
     /**
      * Returns the list of constraints that are declared directly in this service, not including the ones that are
-     * declared in the base services. The returned list is a copy of the one used internally, so it is safe to
-     * modify it. If you aren't going to modify the list consider using the {@link #declaredConstraints()} method
-     * instead.
+     * declared in the base services. Before the service is frozen the returned list is a copy of the one used
+     * internally, so it is safe to modify it. Once the service is frozen it is an unmodifiable view of the internal
+     * list. If you aren't going to modify the list consider using the {@link #declaredConstraints()} method instead.
      */
     public List<Constraint> getDeclaredConstraints() {
+        if (declaredConstraints != null) {
+            return declaredConstraints;
+        }
         return new CopyOnWriteArrayList<>(constraints);
     }
 
@@ -234,6 +280,7 @@ public class Service extends Concept {
      * Adds a new constraint to this service.
      */
     public void addConstraint(Constraint newConstraint) {
+        checkNotFrozen();
         constraints.add(newConstraint);
     }
 
@@ -241,11 +288,25 @@ public class Service extends Concept {
      * Adds a list of new constraints to this service.
      */
     public void addConstraints(List<Constraint> newConstraints) {
+        checkNotFrozen();
         constraints.addAll(newConstraints);
     }
 
     public Model getModel() {
         return module.getModel();
     }
+
+    @Override
+    void freeze() {
+        super.freeze();
+        methods.forEach(Method::freeze);
+        locators.forEach(Locator::freeze);
+        allLocators = unmodifiableList(collectLocators());
+        declaredLocators = unmodifiableList(locators);
+        allMethods = unmodifiableList(collectMethods());
+        declaredMethods = unmodifiableList(methods);
+        allConstraints = unmodifiableList(collectConstraints());
+        declaredConstraints = unmodifiableList(constraints);
+    }
 }
 
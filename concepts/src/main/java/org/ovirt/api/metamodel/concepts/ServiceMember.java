@@ -16,6 +16,7 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
+import static java.util.Collections.unmodifiableList;
 import static org.ovirt.api.metamodel.concepts.Named.named;
 
 import java.util.ArrayList;
@@ -33,6 +34,9 @@ public class ServiceMember extends Concept {
     // The parameters of this method:
     private List<Parameter> parameters = new ArrayList<>();
 
+    // The unmodifiable view of the parameters, created when the member is frozen:
+    private transient List<Parameter> parametersView;
+
     /**
      * Returns the service where this member is directly declared.
      */
@@ -44,15 +48,20 @@ public class ServiceMember extends Concept {
      * Sets the service that directly declares this member.
      */
     public void setDeclaringService(Service newDeclaringService) {
+        checkNotFrozen();
         declaringService = newDeclaringService;
     }
 
     /**
-     * Returns the list of parameters of this member. The returned list is a copy of the one used internally, so it is
-     * safe to modify it in any way. If you aren't going to modify the list consider using the {@link #parameters()}
-     * method instead.
+     * Returns the list of parameters of this member. Before the member is frozen the returned list is a copy of the one
+     * used internally, so it is safe to modify it in any way. Once the member is frozen it is an unmodifiable view of
+     * the internal list. If you aren't going to modify the list consider using the {@link #parameters()} method
+     * instead.
      */
     public List<Parameter> getParameters() {
+        if (parametersView != null) {
+            return parametersView;
+        }
         return new CopyOnWriteArrayList<>(parameters);
     }
 
@@ -74,6 +83,7 @@ public class ServiceMember extends Concept {
      * Adds a new parameter to this service member.
      */
     public void addParameter(Parameter newParameter) {
+        checkNotFrozen();
         parameters.add(newParameter);
     }
 
@@ -81,9 +91,17 @@ public class ServiceMember extends Concept {
      * Adds a list of new parameters to this member.
      */
     public void addParameters(List<Parameter> newParameters) {
+        checkNotFrozen();
         parameters.addAll(newParameters);
     }
 
+    @Override
+    void freeze() {
+        super.freeze();
+        parameters.forEach(Parameter::freeze);
+        parametersView = unmodifiableList(parameters);
+    }
+
     @Override
     public String toString() {
         StringBuilder buffer = new StringBuilder();
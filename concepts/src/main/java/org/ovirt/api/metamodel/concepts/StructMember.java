@@ -42,6 +42,7 @@ public class StructMember extends Concept {
      * Sets the type that directly declares this member.
      */
     public void setDeclaringType(StructType newDeclaringType) {
+        checkNotFrozen();
         declaringType = newDeclaringType;
     }
 
@@ -56,6 +57,7 @@ public class StructMember extends Concept {
      * Sets the type of this member.
      */
     public void setType(Type newType) {
+        checkNotFrozen();
         type = newType;
     }
 
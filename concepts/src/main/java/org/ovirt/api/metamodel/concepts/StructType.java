@@ -16,8 +16,7 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.concepts;
 
-import static org.ovirt.api.metamodel.concepts.Named.named;
-
+import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Stream.concat;
 
 import java.util.ArrayList;
@@ -36,6 +35,17 @@ public class StructType extends Type {
     // The list of links declared by this type directly:
     private List<Link> links = new ArrayList<>();
 
+    // The indexes of the attributes and links declared by this type directly, to find them by name:
+    private NameIndex<Attribute> attributesIndex = new NameIndex<>();
+    private NameIndex<Link> linksIndex = new NameIndex<>();
+
+    // The unmodifiable lists of members, calculated when the type is frozen:
+    private transient List<Attribute> allAttributes;
+    private transient List<Attribute> declaredAttributes;
+    private transient List<Link> allLinks;
+    private transient List<Link> declaredLinks;
+    private transient List<StructMember> allMembers;
+
     /**
      * Returns the base of this type, or {@code null} if this type doesn't have a base type.
      */
@@ -47,6 +57,7 @@ public class StructType extends Type {
      * Sets the base of this type.
      */
     public void setBase(Type newType) {
+        checkNotFrozen();
         base = newType;
     }
 
@@ -64,11 +75,19 @@ public class StructType extends Type {
     }
 
     /**
-     * Returns all the attributes of this type, including the ones declared in base types. The returned list is a copy
-     * of the one used internally, so it is safe to modify it. If you aren't going to modify the list consider using the
+     * Returns all the attributes of this type, including the ones declared in base types. Before the type is frozen
+     * the returned list is a copy of the one used internally, so it is safe to modify it. Once the type is frozen it
+     * is an unmodifiable list calculated only once. If you aren't going to modify the list consider using the
      * {@link #attributes()} method instead.
      */
     public List<Attribute> getAttributes() {
+        if (allAttributes != null) {
+            return allAttributes;
+        }
+        return collectAttributes();
+    }
+
+    private List<Attribute> collectAttributes() {
         List<Attribute> result = new ArrayList<>(attributes);
         if (base != null && base instanceof StructType) {
             result.addAll(((StructType) base).getAttributes());
@@ -91,15 +110,27 @@ public class StructType extends Type {
      * Returns the attribute that has the given name, or an empty {@link Optional} if no such attribute exists.
      */
     public Optional<Attribute> getAttribute(Name name) {
-        return getAttributes().stream().filter(named(name)).findFirst();
+        return Optional.ofNullable(findAttribute(name));
+    }
+
+    private Attribute findAttribute(Name name) {
+        Attribute attribute = attributesIndex.get(name);
+        if (attribute == null && base != null && base instanceof StructType) {
+            attribute = ((StructType) base).findAttribute(name);
+        }
+        return attribute;
     }
 
     /**
      * Returns the list of attributes that are declared directly in this type, not including the ones that are declared
-     * in the base types. The returned list is a copy of the one used internally, so it is safe to modify it. If you
-     * aren't going to modify the list consider using the {@link #declaredAttributes()} method instead.
+     * in the base types. Before the type is frozen the returned list is a copy of the one used internally, so it is
+     * safe to modify it. Once the type is frozen it is an unmodifiable view of the internal list. If you aren't going
+     * to modify the list consider using the {@link #declaredAttributes()} method instead.
      */
     public List<Attribute> getDeclaredAttributes() {
+        if (declaredAttributes != null) {
+            return declaredAttributes;
+        }
         return new CopyOnWriteArrayList<>(attributes);
     }
 
@@ -112,25 +143,36 @@ public class StructType extends Type {
     }
 
     /**
-     * Adds a new attribute to this type.
+     * Adds a new attribute to this type. The attribute is indexed by name, so its name should be set before adding it,
+     * and it shouldn't be changed later.
      */
     public void addAttribute(Attribute newAttribute) {
+        checkNotFrozen();
         attributes.add(newAttribute);
+        attributesIndex.add(newAttribute);
     }
 
     /**
      * Adds a list of new attributes to this type.
      */
     public void addAttributes(List<Attribute> newAttributes) {
-        attributes.addAll(attributes);
+        newAttributes.forEach(this::addAttribute);
     }
 
     /**
-     * Returns all the links of this type, including the ones declared in base types. The returned list is a copy of the
-     * one used internally, so it is safe to modify it. If you aren't going to modify the list consider using the
+     * Returns all the links of this type, including the ones declared in base types. Before the type is frozen the
+     * returned list is a copy of the one used internally, so it is safe to modify it. Once the type is frozen it is an
+     * unmodifiable list calculated only once. If you aren't going to modify the list consider using the
      * {@link #links()} method instead.
      */
     public List<Link> getLinks() {
+        if (allLinks != null) {
+            return allLinks;
+        }
+        return collectLinks();
+    }
+
+    private List<Link> collectLinks() {
         List<Link> result = new ArrayList<>(links);
         if (base != null && base instanceof StructType) {
             result.addAll(((StructType) base).getLinks());
@@ -153,15 +195,27 @@ public class StructType extends Type {
      * Returns the link that has the given name, or an empty {@link Optional} if no such link exists.
      */
     public Optional<Link> getLink(Name name) {
-        return getLinks().stream().filter(named(name)).findFirst();
+        return Optional.ofNullable(findLink(name));
+    }
+
+    private Link findLink(Name name) {
+        Link link = linksIndex.get(name);
+        if (link == null && base != null && base instanceof StructType) {
+            link = ((StructType) base).findLink(name);
+        }
+        return link;
     }
 
     /**
      * Returns the list of links that are declared directly in this type, not including the ones that are declared
-     * in the base types. The returned list is a copy of the one used internally, so it is safe to modify it. If you
-     * aren't going to modify the list consider using the {@link #declaredLinks()} method instead.
+     * in the base types. Before the type is frozen the returned list is a copy of the one used internally, so it is
+     * safe to modify it. Once the type is frozen it is an unmodifiable view of the internal list. If you aren't going
+     * to modify the list consider using the {@link #declaredLinks()} method instead.
      */
     public List<Link> getDeclaredLinks() {
+        if (declaredLinks != null) {
+            return declaredLinks;
+        }
         return new CopyOnWriteArrayList<>(links);
     }
 
@@ -174,23 +228,35 @@ public class StructType extends Type {
     }
 
     /**
-     * Adds a new link to this type.
+     * Adds a new link to this type. The link is indexed by name, so its name should be set before adding it, and it
+     * shouldn't be changed later.
      */
     public void addLink(Link newLink) {
+        checkNotFrozen();
         links.add(newLink);
+        linksIndex.add(newLink);
     }
 
     /**
      * Adds a list of new links to this type.
      */
     public void addLinks(List<Link> newLinks) {
-        links.addAll(newLinks);
+        newLinks.forEach(this::addLink);
     }
 
     /**
-     * Returns all the links and attributes of this type
+     * Returns all the links and attributes of this type, including the ones declared in base types. Before the type is
+     * frozen the returned list is a new list, so it is safe to modify it. Once the type is frozen it is an unmodifiable
+     * list calculated only once.
      */
     public List<StructMember> getMembers() {
+        if (allMembers != null) {
+            return allMembers;
+        }
+        return collectMembers();
+    }
+
+    private List<StructMember> collectMembers() {
         List<StructMember> result = new ArrayList<>();
         result.addAll(attributes);
         result.addAll(links);
@@ -205,7 +271,29 @@ public class StructType extends Type {
      * or an empty Option otherwise.
      */
     public Optional<StructMember> getMember(Name name) {
-        return getMembers().stream().filter(named(name)).findFirst();
+        return Optional.ofNullable(findMember(name));
+    }
+
+    private StructMember findMember(Name name) {
+        StructMember member = attributesIndex.get(name);
+        if (member == null) {
+            member = linksIndex.get(name);
+        }
+        if (member == null && base != null && base instanceof StructType) {
+            member = ((StructType) base).findMember(name);
+        }
+        return member;
     }
 
+    @Override
+    void freeze() {
+        super.freeze();
+        attributes.forEach(Attribute::freeze);
+        links.forEach(Link::freeze);
+        allAttributes = unmodifiableList(collectAttributes());
+        declaredAttributes = unmodifiableList(attributes);
+        allLinks = unmodifiableList(collectLinks());
+        declaredLinks = unmodifiableList(links);
+        allMembers = unmodifiableList(collectMembers());
+    }
 }
@@ -24,6 +24,7 @@ public abstract class Type extends Concept {
     }
 
     public void setModule(Module newModule) {
+        checkNotFrozen();
         module = newModule;
     }
 
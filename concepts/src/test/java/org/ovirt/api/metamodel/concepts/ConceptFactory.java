@@ -0,0 +1,107 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+/**
+ * This class contains methods that create and connect concepts, to build the small models used by the tests. The
+ * names are given in the same format used in the model source, for example {@code Vm} or {@code DiskAttachment}.
+ */
+final class ConceptFactory {
+    private ConceptFactory() {
+    }
+
+    /**
+     * Creates a struct type that doesn't belong to any model.
+     */
+    static StructType createStruct(String name) {
+        StructType type = new StructType();
+        type.setName(NameParser.parseUsingCase(name));
+        return type;
+    }
+
+    /**
+     * Creates a struct type and adds it to the given model.
+     */
+    static StructType createStruct(Model model, String name) {
+        StructType type = createStruct(name);
+        model.addType(type);
+        return type;
+    }
+
+    /**
+     * Creates an attribute and adds it to the given struct type.
+     */
+    static Attribute createAttribute(StructType type, String name) {
+        Attribute attribute = new Attribute();
+        attribute.setName(NameParser.parseUsingCase(name));
+        attribute.setDeclaringType(type);
+        type.addAttribute(attribute);
+        return attribute;
+    }
+
+    /**
+     * Creates a service that doesn't belong to any model.
+     */
+    static Service createService(String name) {
+        Service service = new Service();
+        service.setName(NameParser.parseUsingCase(name));
+        return service;
+    }
+
+    /**
+     * Creates a service and adds it to the given model.
+     */
+    static Service createService(Model model, String name) {
+        Service service = createService(name);
+        model.addService(service);
+        return service;
+    }
+
+    /**
+     * Creates a method and adds it to the given service.
+     */
+    static Method createMethod(Service service, String name) {
+        Method method = new Method();
+        method.setName(NameParser.parseUsingCase(name));
+        method.setDeclaringService(service);
+        service.addMethod(method);
+        return method;
+    }
+
+    /**
+     * Creates a locator that goes from the declaring service to the given service, and adds it to the declaring
+     * service.
+     */
+    static Locator createLocator(Service declaringService, String name, Service service) {
+        Locator locator = new Locator();
+        locator.setName(NameParser.parseUsingCase(name));
+        locator.setDeclaringService(declaringService);
+        locator.setService(service);
+        declaringService.addLocator(locator);
+        return locator;
+    }
+
+    /**
+     * Adds an {@code id} parameter to the given locator, so that it corresponds to a variable segment of the path.
+     */
+    static Parameter addIdParameter(Locator locator) {
+        Parameter id = new Parameter();
+        id.setName(NameParser.parseUsingCase("Id"));
+        locator.addParameter(id);
+        return id;
+    }
+}
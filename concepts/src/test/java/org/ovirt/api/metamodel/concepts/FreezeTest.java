@@ -0,0 +1,235 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createAttribute;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createLocator;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createMethod;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createService;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createStruct;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the freezing of the model.
+ */
+public class FreezeTest {
+    /**
+     * Checks that before freezing the lists of members are new copies, and that after freezing they are the same
+     * unmodifiable lists, with the same content.
+     */
+    @Test
+    public void testFrozenStructReturnsSameLists() {
+        Model model = new Model();
+        StructType base = createStruct(model, "Identified");
+        Attribute id = createAttribute(base, "Id");
+        StructType vm = createStruct(model, "Vm");
+        vm.setBase(base);
+        Attribute name = createAttribute(vm, "Name");
+        Link disks = new Link();
+        disks.setName(NameParser.parseUsingCase("Disks"));
+        vm.addLink(disks);
+        assertNotSame(vm.getAttributes(), vm.getAttributes());
+        assertFalse(vm.isFrozen());
+
+        model.freeze();
+        assertTrue(vm.isFrozen());
+        assertSame(vm.getAttributes(), vm.getAttributes());
+        assertSame(vm.getLinks(), vm.getLinks());
+        assertSame(vm.getMembers(), vm.getMembers());
+        assertEquals(Arrays.asList(name, id), vm.getAttributes());
+        assertEquals(Arrays.asList(name), vm.getDeclaredAttributes());
+        assertEquals(Arrays.asList(name, disks, id), vm.getMembers());
+        checkUnmodifiable(vm.getAttributes());
+        checkUnmodifiable(vm.getDeclaredLinks());
+    }
+
+    /**
+     * Checks that after freezing the lists of methods of services, and the lists of parameters of methods, are the
+     * same unmodifiable lists.
+     */
+    @Test
+    public void testFrozenServiceReturnsSameLists() {
+        Model model = new Model();
+        Service service = new Service();
+        service.setName(NameParser.parseUsingCase("Vm"));
+        model.addService(service);
+        Method start = new Method();
+        start.setName(NameParser.parseUsingCase("Start"));
+        start.setDeclaringService(service);
+        service.addMethod(start);
+        Parameter async = new Parameter();
+        async.setName(NameParser.parseUsingCase("Async"));
+        start.addParameter(async);
+
+        model.freeze();
+        assertTrue(start.isFrozen());
+        assertSame(service.getMethods(), service.getMethods());
+        assertSame(service.getLocators(), service.getLocators());
+        assertSame(start.getParameters(), start.getParameters());
+        assertEquals(Arrays.asList(start), service.getMethods());
+        assertEquals(Arrays.asList(async), start.getParameters());
+        checkUnmodifiable(service.getMethods());
+        checkUnmodifiable(start.getParameters());
+    }
+
+    /**
+     * Checks that members can't be added once the model is frozen.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenStructRejectsNewAttributes() {
+        Model model = new Model();
+        StructType vm = createStruct(model, "Vm");
+        model.freeze();
+        createAttribute(vm, "Name");
+    }
+
+    /**
+     * Checks that methods can't be added to a service once the model is frozen.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenServiceRejectsNewMethods() {
+        Model model = new Model();
+        Service service = createService(model, "Vm");
+        model.freeze();
+        service.addMethod(new Method());
+    }
+
+    /**
+     * Checks that a service can't be moved to a different module once the model is frozen.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenServiceRejectsNewModule() {
+        Model model = new Model();
+        Service service = createService(model, "Vm");
+        model.freeze();
+        service.setModule(new Module());
+    }
+
+    /**
+     * Checks that a method can't be moved to a different service once the model is frozen.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenMethodRejectsNewDeclaringService() {
+        Model model = new Model();
+        Service vm = createService(model, "Vm");
+        Method start = createMethod(vm, "Start");
+        model.freeze();
+        start.setDeclaringService(createService("Host"));
+    }
+
+    /**
+     * Checks that a locator can't be moved to a different service once the model is frozen.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenLocatorRejectsNewDeclaringService() {
+        Model model = new Model();
+        Service root = createService(model, "System");
+        Service vms = createService(model, "Vms");
+        Locator locator = createLocator(root, "Vms", vms);
+        model.setRoot(root);
+        model.freeze();
+        locator.setDeclaringService(vms);
+    }
+
+    /**
+     * Checks that the simple properties of concepts can't be changed once the model is frozen.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenConceptRejectsChanges() {
+        Model model = new Model();
+        StructType vm = createStruct(model, "Vm");
+        model.freeze();
+        vm.setDoc("Virtual machine.");
+    }
+
+    /**
+     * Checks that types can't be added to the model once it is frozen.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenModelRejectsNewTypes() {
+        Model model = new Model();
+        model.freeze();
+        createStruct(model, "Vm");
+    }
+
+    /**
+     * Checks that freezing the model replaces the names of the concepts with the interned immutable names.
+     */
+    @Test
+    public void testFreezeInternsNames() {
+        Model model = new Model();
+        StructType vm = createStruct(model, "Vm");
+        Attribute name = createAttribute(vm, "Name");
+        model.freeze();
+        assertSame(NameParser.internUsingCase("Vm"), vm.getName());
+        assertSame(NameParser.internUsingCase("Name"), name.getName());
+        assertSame(vm, model.getType(NameParser.parseUsingCase("Vm")));
+    }
+
+    /**
+     * Checks that the points are calculated when the model is frozen, and that the same list is returned always.
+     */
+    @Test
+    public void testFreezeCalculatesPoints() {
+        Model model = new Model();
+        Service root = createService(model, "System");
+        Service vms = createService(model, "Vms");
+        createLocator(root, "Vms", vms);
+        Method list = createMethod(vms, "List");
+        model.setRoot(root);
+
+        model.freeze();
+        List<Point> points = model.getPoints();
+        assertSame(points, model.getPoints());
+        assertEquals(1, points.size());
+        assertSame(list, points.get(0).getMethod());
+        checkUnmodifiable(points);
+    }
+
+    /**
+     * Checks that the copy of a frozen model isn't frozen, so that it can be modified.
+     */
+    @Test
+    public void testCopyOfFrozenModelIsModifiable() {
+        Model model = new Model();
+        createStruct(model, "Vm");
+        model.freeze();
+        Model copy = model.copy();
+        assertFalse(copy.isFrozen());
+        assertFalse(copy.getType(NameParser.parseUsingCase("Vm")).isFrozen());
+        createStruct(copy, "Disk");
+        assertEquals(model.getTypes().size() + 1, copy.getTypes().size());
+    }
+
+    private static void checkUnmodifiable(List<?> list) {
+        try {
+            list.clear();
+            throw new AssertionError("The list should be unmodifiable");
+        }
+        catch (UnsupportedOperationException expected) {
+        }
+    }
+}
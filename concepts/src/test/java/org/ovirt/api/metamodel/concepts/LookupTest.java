@@ -0,0 +1,115 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createAttribute;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createMethod;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createService;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createStruct;
+
+import org.junit.Test;
+
+/**
+ * Tests for the methods that find concepts by name.
+ */
+public class LookupTest {
+    /**
+     * Checks that types can be found by name, and that a leading underscore in the searched name is ignored.
+     */
+    @Test
+    public void testGetType() {
+        Model model = new Model();
+        StructType vm = createStruct("Vm");
+        model.addType(vm);
+        assertSame(vm, model.getType(NameParser.parseUsingCase("Vm")));
+        assertSame(vm, model.getType(new Name("_vm")));
+        assertSame(model.getStringType(), model.getType(NameParser.parseUsingCase("String")));
+        assertNull(model.getType(NameParser.parseUsingCase("Disk")));
+    }
+
+    /**
+     * Checks that if several types have the same name the first one is returned.
+     */
+    @Test
+    public void testGetTypeReturnsFirst() {
+        Model model = new Model();
+        StructType first = createStruct("Vm");
+        StructType second = createStruct("Vm");
+        model.addType(first);
+        model.addType(second);
+        assertSame(first, model.getType(NameParser.parseUsingCase("Vm")));
+    }
+
+    /**
+     * Checks that the anonymous module is returned when searching for a module without name.
+     */
+    @Test
+    public void testGetAnonymousModule() {
+        Model model = new Model();
+        Module module = new Module();
+        module.setName(NameParser.parseUsingCase("Types"));
+        model.addModule(module);
+        assertSame(model.getModules().get(0), model.getModule(null));
+        assertSame(module, model.getModule(NameParser.parseUsingCase("Types")));
+    }
+
+    /**
+     * Checks that members are found in the type and in its base types, and that the ones declared in the type have
+     * preference.
+     */
+    @Test
+    public void testGetMemberIncludesBase() {
+        StructType base = createStruct("Identified");
+        Attribute baseId = createAttribute(base, "Id");
+        Attribute baseName = createAttribute(base, "Name");
+        Link baseParent = new Link();
+        baseParent.setName(NameParser.parseUsingCase("Parent"));
+        base.addLink(baseParent);
+        StructType vm = createStruct("Vm");
+        vm.setBase(base);
+        Attribute vmName = createAttribute(vm, "Name");
+        assertSame(baseId, vm.getAttribute(NameParser.parseUsingCase("Id")).get());
+        assertSame(vmName, vm.getAttribute(NameParser.parseUsingCase("Name")).get());
+        assertSame(baseName, base.getAttribute(NameParser.parseUsingCase("Name")).get());
+        assertSame(baseParent, vm.getLink(NameParser.parseUsingCase("Parent")).get());
+        assertSame(baseParent, vm.getMember(NameParser.parseUsingCase("Parent")).get());
+        assertSame(vmName, vm.getMember(NameParser.parseUsingCase("Name")).get());
+        assertFalse(vm.getLink(NameParser.parseUsingCase("Name")).isPresent());
+        assertFalse(vm.getMember(NameParser.parseUsingCase("Memory")).isPresent());
+    }
+
+    /**
+     * Checks that methods are found in the service and in its base services.
+     */
+    @Test
+    public void testGetMethodIncludesBase() {
+        Service base = createService("Base");
+        Method get = createMethod(base, "Get");
+        Service vm = createService("Vm");
+        vm.setBase(base);
+        Method start = createMethod(vm, "Start");
+        assertSame(get, vm.getMethod(NameParser.parseUsingCase("Get")));
+        assertSame(start, vm.getMethod(NameParser.parseUsingCase("Start")));
+        assertNull(base.getMethod(NameParser.parseUsingCase("Start")));
+        assertTrue(vm.hasMethod(NameParser.parseUsingCase("Get")));
+        assertFalse(vm.hasMethod(NameParser.parseUsingCase("Stop")));
+    }
+}
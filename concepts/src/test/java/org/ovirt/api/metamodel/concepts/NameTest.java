@@ -17,6 +17,8 @@ limitations under the License.
 package org.ovirt.api.metamodel.concepts;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -63,6 +65,64 @@ public class NameTest {
         testCompare("Aa", "AaBb", -1);
     }
 
+    /**
+     * Check that interning names with the same words returns the same object, and that it is equal to the original
+     * mutable names.
+     */
+    @Test
+    public void testInternReturnsSameObject() {
+        Name first = NameParser.parseUsingCase("MyFavoriteFruit");
+        Name second = NameParser.parseUsingSeparator("my_favorite_fruit", '_');
+        ImmutableName interned = NameParser.intern(first);
+        assertNotSame(first, interned);
+        assertSame(interned, NameParser.intern(second));
+        assertSame(interned, NameParser.internUsingCase("MyFavoriteFruit"));
+        assertSame(interned, NameParser.intern(interned));
+        assertEquals(first, interned);
+        assertEquals(interned, first);
+        assertEquals(first.hashCode(), interned.hashCode());
+    }
+
+    /**
+     * Check that interned names can't be modified, but that mutable copies can.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInternedNameCantBeModified() {
+        ImmutableName interned = NameParser.internUsingCase("MyFavoriteFruit");
+        Name copy = new Name(interned);
+        copy.addWord("juice");
+        assertEquals("my_favorite_fruit_juice", copy.toString());
+        assertEquals("my_favorite_fruit", interned.toString());
+        interned.addWord("juice");
+    }
+
+    /**
+     * Check that the cached hash code is updated when a mutable name is modified.
+     */
+    @Test
+    public void testHashCodeChangesWhenModified() {
+        Name name = NameParser.parseUsingCase("MyFavorite");
+        int before = name.hashCode();
+        name.addWord("fruit");
+        assertEquals(NameParser.parseUsingCase("MyFavoriteFruit").hashCode(), name.hashCode());
+        assertEquals(false, before == name.hashCode());
+    }
+
+    /**
+     * Check the rendered forms of mutable and interned names.
+     */
+    @Test
+    public void testRenderedForms() {
+        Name mutable = NameParser.parseUsingCase("MyFavoriteFruit");
+        Name interned = NameParser.intern(mutable);
+        for (Name name : new Name[] { mutable, interned, interned }) {
+            assertEquals("MyFavoriteFruit", name.getCapitalized());
+            assertEquals("my_favorite_fruit", name.getLowerJoined("_"));
+            assertEquals("myfavoritefruit", name.getLowerJoined(""));
+            assertEquals("MY_FAVORITE_FRUIT", name.getUpperJoined("_"));
+        }
+    }
+
     /**
      * Converts the given strings to names and compares the result of comparing them with the given expected result.
      *
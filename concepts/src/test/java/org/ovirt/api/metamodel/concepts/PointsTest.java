@@ -0,0 +1,223 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.concepts;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.addIdParameter;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createLocator;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createMethod;
+import static org.ovirt.api.metamodel.concepts.ConceptFactory.createService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the calculation of the points of the model, for the queries that find them, and for the router that
+ * finds them from HTTP requests.
+ */
+public class PointsTest {
+    private Model model;
+    private Service vmsService;
+    private Service vmService;
+    private Service disksService;
+    private Locator vmsLocator;
+    private Locator vmLocator;
+    private Locator disksLocator;
+    private Method listVms;
+    private Method addVm;
+    private Method getVm;
+    private Method startVm;
+    private Method listDisks;
+
+    /**
+     * Creates a model with the following services, each with the methods indicated in brackets:
+     *
+     * <pre>
+     * system
+     *   vms [list, add]
+     *     vm [get, start]
+     *       disks [list]
+     * </pre>
+     */
+    @Before
+    public void createModel() {
+        model = new Model();
+        Service systemService = createService(model, "System");
+        vmsService = createService(model, "Vms");
+        vmService = createService(model, "Vm");
+        disksService = createService(model, "Disks");
+        vmsLocator = createLocator(systemService, "Vms", vmsService);
+        vmLocator = createLocator(vmsService, "Vm", vmService);
+        disksLocator = createLocator(vmService, "Disks", disksService);
+        addIdParameter(vmLocator);
+        listVms = createMethod(vmsService, "List");
+        addVm = createMethod(vmsService, "Add");
+        getVm = createMethod(vmService, "Get");
+        startVm = createMethod(vmService, "Start");
+        listDisks = createMethod(disksService, "List");
+        model.setRoot(systemService);
+    }
+
+    /**
+     * Checks that the points are generated breadth first, and that each point has the complete path.
+     */
+    @Test
+    public void testPoints() {
+        List<Point> points = model.getPoints();
+        assertEquals(5, points.size());
+        checkPoint(points.get(0), listVms, vmsLocator);
+        checkPoint(points.get(1), addVm, vmsLocator);
+        checkPoint(points.get(2), getVm, vmsLocator, vmLocator);
+        checkPoint(points.get(3), startVm, vmsLocator, vmLocator);
+        checkPoint(points.get(4), listDisks, vmsLocator, vmLocator, disksLocator);
+        assertSame(points, model.getPoints());
+    }
+
+    /**
+     * Checks that the stream generated before calculating the list of points delivers the same points, in the same
+     * order.
+     */
+    @Test
+    public void testLazyStreamMatchesList() {
+        List<Method> streamed = model.points().map(Point::getMethod).collect(toList());
+        List<Method> listed = model.getPoints().stream().map(Point::getMethod).collect(toList());
+        assertEquals(listed, streamed);
+        assertEquals(
+            Arrays.asList(vmsLocator, vmLocator, disksLocator),
+            model.points().reduce((first, second) -> second).get().getPath()
+        );
+    }
+
+    /**
+     * Checks that points are found by the service at the end of their path.
+     */
+    @Test
+    public void testGetPointsByService() {
+        List<Point> points = model.getPointsByService(vmService);
+        assertEquals(2, points.size());
+        assertSame(getVm, points.get(0).getMethod());
+        assertSame(startVm, points.get(1).getMethod());
+        assertTrue(model.getPointsByService(new Service()).isEmpty());
+    }
+
+    /**
+     * Checks that points are found by the name of their method.
+     */
+    @Test
+    public void testGetPointsByMethodName() {
+        List<Point> points = model.getPointsByMethodName(NameParser.parseUsingCase("List"));
+        assertEquals(2, points.size());
+        assertSame(listVms, points.get(0).getMethod());
+        assertSame(listDisks, points.get(1).getMethod());
+        assertTrue(model.getPointsByMethodName(NameParser.parseUsingCase("Stop")).isEmpty());
+    }
+
+    /**
+     * Checks that points are found by the names of the locators at the beginning of their path.
+     */
+    @Test
+    public void testGetPointsByPathPrefix() {
+        List<Point> points = model.getPointsByPathPrefix(names("Vms", "Vm"));
+        assertEquals(3, points.size());
+        assertSame(getVm, points.get(0).getMethod());
+        assertSame(startVm, points.get(1).getMethod());
+        assertSame(listDisks, points.get(2).getMethod());
+        assertEquals(5, model.getPointsByPathPrefix(Collections.emptyList()).size());
+        assertEquals(5, model.getPointsByPathPrefix(names("Vms")).size());
+        assertTrue(model.getPointsByPathPrefix(names("Vm")).isEmpty());
+        assertTrue(model.getPointsByPathPrefix(names("Vms", "Vm", "Nics")).isEmpty());
+    }
+
+    /**
+     * Checks that the router finds the points of collections, entities and actions, and that it extracts the values
+     * of the variable segments.
+     */
+    @Test
+    public void testRouterMatches() {
+        PointRouter router = new PointRouter(model);
+        checkMatch(router.match("GET", "vms"), listVms);
+        checkMatch(router.match("POST", "/vms/"), addVm);
+        checkMatch(router.match("GET", "vms/123"), getVm, "123");
+        checkMatch(router.match("POST", "vms/123/start"), startVm, "123");
+        checkMatch(router.match("GET", "vms/123/disks?max=10"), listDisks, "123");
+        checkMatch(router.match("GET", "vms//456/disks"), listDisks, "456");
+    }
+
+    /**
+     * Checks that the router doesn't return points for paths or methods that don't exist.
+     */
+    @Test
+    public void testRouterRejectsUnknownRequests() {
+        PointRouter router = new PointRouter(model);
+        assertNull(router.match("GET", ""));
+        assertNull(router.match("DELETE", "vms"));
+        assertNull(router.match("GET", "hosts"));
+        assertNull(router.match("GET", "vms/123/nics"));
+        assertNull(router.match("GET", "vms/123/start"));
+        assertNull(router.match("GET", "vms/123/disks/456"));
+    }
+
+    /**
+     * Checks that when a segment matches both a literal and a variable segment the literal one is preferred, but that
+     * the variable one is used when the rest of the path or the HTTP method only match below it.
+     */
+    @Test
+    public void testRouterResolvesLiteralAndVariableCollisions() {
+        // Add an action to the collection, so that "export" collides with the identifier of the virtual machine, and
+        // a locator whose children are variable, so that "exported/disks" collides with "vm/disks":
+        Method exportVms = createMethod(vmsService, "Export");
+        Service exportedService = createService(model, "Exported");
+        Service exportedItemService = createService(model, "ExportedItem");
+        Locator exportedItemLocator = createLocator(exportedService, "Item", exportedItemService);
+        addIdParameter(exportedItemLocator);
+        createLocator(vmsService, "Exported", exportedService);
+        Method getExportedItem = createMethod(exportedItemService, "Get");
+
+        PointRouter router = new PointRouter(model);
+        checkMatch(router.match("POST", "vms/export"), exportVms);
+        checkMatch(router.match("GET", "vms/export"), getVm, "export");
+        checkMatch(router.match("POST", "vms/export/start"), startVm, "export");
+        checkMatch(router.match("GET", "vms/export/disks"), listDisks, "export");
+        checkMatch(router.match("GET", "vms/exported/disks"), getExportedItem, "disks");
+        checkMatch(router.match("GET", "vms/exported/123"), getExportedItem, "123");
+        checkMatch(router.match("POST", "vms/exported/start"), startVm, "exported");
+        assertNull(router.match("POST", "vms/exported/disks"));
+    }
+
+    private static void checkMatch(PointRouter.Match match, Method method, String... values) {
+        assertSame(method, match.getPoint().getMethod());
+        assertEquals(Arrays.asList(values), match.getValues());
+    }
+
+    private static void checkPoint(Point point, Method method, Locator... path) {
+        assertSame(method, point.getMethod());
+        assertEquals(Arrays.asList(path), point.getPath());
+        assertEquals(Arrays.asList(path), point.path().collect(toList()));
+    }
+
+    private static List<Name> names(String... names) {
+        return Arrays.stream(names).map(NameParser::parseUsingCase).collect(toList());
+    }
+}
@@ -25,16 +25,16 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.TimeZone;
 import javax.json.Json;
 import javax.json.JsonException;
 import javax.json.stream.JsonParser;
 
+import org.ovirt.api.metamodel.runtime.util.IsoDateFormat;
+import org.ovirt.api.metamodel.runtime.util.NumberParser;
+
 /**
  * This class wraps the {@link JsonParser} class so that the methods don't send checked exceptions, in order to
  * simplify its usage together with streams and lambdas.
@@ -43,18 +43,6 @@ public class JsonReader implements AutoCloseable {
     // The wrapped JSON parser:
     private JsonParser parser;
 
-    /**
-     * Thread local used to store the date formats.
-     */
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>(){
-        @Override
-        protected SimpleDateFormat initialValue() {
-            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return format;
-        }
-    };
-
     /**
      * Creates a JSON reader that will read from the given stream, using UTF-8 as the encoding.
      *
@@ -140,6 +128,21 @@ public class JsonReader implements AutoCloseable {
         }
     }
 
+    /**
+     * Skips the next value, which may be a simple value, a complete object or a complete array. This is intended for
+     * use after reading the name of a member whose value isn't needed.
+     */
+    public void skipValue() {
+        switch (parser.next()) {
+        case START_ARRAY:
+        case START_OBJECT:
+            skip();
+            break;
+        default:
+            break;
+        }
+    }
+
     /**
      * Reads a boolean value from the JSON parser.
      */
@@ -162,12 +165,65 @@ public class JsonReader implements AutoCloseable {
         JsonParser.Event event = parser.next();
         switch (event) {
         case VALUE_NUMBER:
+            if (parser.isIntegralNumber()) {
+                return NumberParser.parseInteger(parser.getString());
+            }
             return parser.getBigDecimal().toBigInteger();
         default:
             throw new JsonException("Expected integer value");
         }
     }
 
+    /**
+     * Reads a long integer value from the JSON parser. The value is parsed directly from the text of the number,
+     * without creating intermediate {@link BigDecimal} objects.
+     *
+     * @throws JsonException if the value isn't an integer or if it doesn't fit in 64 bits
+     */
+    public long readLong() {
+        JsonParser.Event event = parser.next();
+        switch (event) {
+        case VALUE_NUMBER:
+            String image = parser.getString();
+            try {
+                return NumberParser.parseLong(image);
+            }
+            catch (NumberFormatException exception) {
+                throw new JsonException("The text \"" + image + "\" isn't a valid 64 bits integer", exception);
+            }
+        default:
+            throw new JsonException("Expected integer value");
+        }
+    }
+
+    /**
+     * Reads an integer value from the JSON parser. The value is parsed directly from the text of the number,
+     * without creating intermediate {@link BigDecimal} objects.
+     *
+     * @throws JsonException if the value isn't an integer or if it doesn't fit in 32 bits
+     */
+    public int readInt() {
+        long value = readLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JsonException("The value " + value + " isn't a valid 32 bits integer");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a double precision floating point value from the JSON parser. Simple values are parsed directly from the
+     * text of the number, without creating intermediate {@link BigDecimal} objects.
+     */
+    public double readDouble() {
+        JsonParser.Event event = parser.next();
+        switch (event) {
+        case VALUE_NUMBER:
+            return NumberParser.parseDouble(parser.getString());
+        default:
+            throw new JsonException("Expected decimal value");
+        }
+    }
+
     /**
      * Reads a decimal value from the JSON parser.
      */
@@ -203,9 +259,9 @@ public class JsonReader implements AutoCloseable {
             case VALUE_STRING:
                 String image = parser.getString();
                 try {
-                    return DATE_FORMAT.get().parse(image);
+                    return IsoDateFormat.parse(image);
                 }
-                catch (ParseException exception) {
+                catch (IllegalArgumentException exception) {
                     throw new JsonException("The text \"" + image + "\" isn't a valid date", exception);
                 }
             default:
@@ -250,7 +306,12 @@ public class JsonReader implements AutoCloseable {
             JsonParser.Event next = next();
             switch (next) {
                 case VALUE_NUMBER:
-                    list.add(parser.getBigDecimal().toBigInteger());
+                    if (parser.isIntegralNumber()) {
+                        list.add(NumberParser.parseInteger(parser.getString()));
+                    }
+                    else {
+                        list.add(parser.getBigDecimal().toBigInteger());
+                    }
                     break;
                 case END_ARRAY:
                     listEnd = true;
@@ -298,11 +359,12 @@ public class JsonReader implements AutoCloseable {
                 case VALUE_STRING:
                     String image = parser.getString();
                     try {
-                        list.add(DATE_FORMAT.get().parse(image));
+                        list.add(IsoDateFormat.parse(image));
                     }
-                    catch (ParseException exception) {
+                    catch (IllegalArgumentException exception) {
                         throw new JsonException("The text \"" + image + "\" isn't a valid date", exception);
                     }
+                    break;
                 case END_ARRAY:
                     listEnd = true;
                     break;
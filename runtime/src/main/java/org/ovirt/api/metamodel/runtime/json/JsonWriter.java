@@ -25,17 +25,17 @@ import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TimeZone;
 import javax.json.Json;
 import javax.json.JsonException;
 import javax.json.stream.JsonGenerator;
 import javax.json.stream.JsonGeneratorFactory;
 
+import org.ovirt.api.metamodel.runtime.util.IsoDateFormat;
+
 /**
  * This class wraps the {@link JsonGenerator} class so that the methods don't send checked exceptions, in order to
  * simplify its usage together with streams and lambdas.
@@ -44,18 +44,6 @@ public class JsonWriter implements AutoCloseable {
     // The wrapped JSON generator:
     private JsonGenerator generator;
 
-    /**
-     * Thread local used to store the date formats.
-     */
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>(){
-        @Override
-        protected SimpleDateFormat initialValue() {
-            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return format;
-        }
-    };
-
     /**
      * Creates a JSON writer that will write to the given stream, using UTF-8 as the encoding.
      *
@@ -186,7 +174,7 @@ public class JsonWriter implements AutoCloseable {
      * Writes a date.
      */
     public void writeDate(String name, Date value) {
-        generator.write(name, DATE_FORMAT.get().format(value));
+        generator.write(name, IsoDateFormat.format(value));
     }
 
     /**
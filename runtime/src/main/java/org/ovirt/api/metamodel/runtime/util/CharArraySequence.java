@@ -0,0 +1,54 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.runtime.util;
+
+/**
+ * Lightweight view of a range of an array of characters. It is used to pass the text collected by the readers to the
+ * parsing methods that accept character sequences, without copying the characters. Note that the characters aren't
+ * copied, so changes to the array will be visible through the view.
+ */
+public class CharArraySequence implements CharSequence {
+    private final char[] array;
+    private final int offset;
+    private final int length;
+
+    public CharArraySequence(char[] array, int offset, int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return array[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new CharArraySequence(array, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(array, offset, length);
+    }
+}
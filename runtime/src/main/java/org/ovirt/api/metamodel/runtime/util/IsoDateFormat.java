@@ -0,0 +1,325 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.runtime.util;
+
+import java.util.Date;
+
+/**
+ * This class parses and formats the ISO-8601 date and time representation used by the XML and JSON readers and
+ * writers, for example {@code 2016-01-17T17:18:23.123+01:00}. It replaces the {@link java.text.SimpleDateFormat}
+ * instances that were previously stored in thread locals: it has no state, so it can be used concurrently from any
+ * number of threads, and it works directly on ranges of characters, so it doesn't create intermediate objects.
+ *
+ * The parser accepts years of four or more digits, optionally preceded by a sign, an optional fraction of second of
+ * up to nine digits, and time zone offsets in the {@code Z}, {@code +HH:MM}, {@code +HHMM} and {@code +HH} forms. The
+ * formatter always generates UTC times with millisecond precision, for example {@code 2016-01-17T16:18:23.123Z}.
+ * Dates are always interpreted using the proleptic Gregorian calendar.
+ */
+public class IsoDateFormat {
+    // Number of milliseconds in each unit:
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60L * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60L * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+
+    // Number of days in each month of a non leap year:
+    private static final int[] MONTH_DAYS = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    // The maximum number of characters generated by the formatter, enough for any year that can be represented with
+    // a long number of milliseconds:
+    public static final int MAX_LENGTH = 40;
+
+    private IsoDateFormat() {
+    }
+
+    /**
+     * Parses the given text.
+     *
+     * @param text the text to parse
+     * @return the parsed date
+     * @throws IllegalArgumentException if the text isn't a valid date
+     */
+    public static Date parse(CharSequence text) {
+        return new Date(parseMillis(text, 0, text.length()));
+    }
+
+    /**
+     * Parses the given range of characters.
+     *
+     * @param text the array containing the characters to parse
+     * @param offset the index of the first character to parse
+     * @param length the number of characters to parse
+     * @return the parsed date
+     * @throws IllegalArgumentException if the characters aren't a valid date
+     */
+    public static Date parse(char[] text, int offset, int length) {
+        return new Date(parseMillis(new CharArraySequence(text, offset, length), 0, length));
+    }
+
+    /**
+     * Parses the given range of characters, and returns the number of milliseconds since the epoch.
+     *
+     * @param text the text to parse
+     * @param start the index of the first character to parse
+     * @param end the index of the character after the last one to parse
+     * @return the number of milliseconds since the epoch
+     * @throws IllegalArgumentException if the characters aren't a valid date
+     */
+    public static long parseMillis(CharSequence text, int start, int end) {
+        int i = start;
+
+        // Year, with optional sign and at least four digits:
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        int yearStart = i;
+        long year = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            year = year * 10 + (text.charAt(i) - '0');
+            if (year > Integer.MAX_VALUE) {
+                throw invalid(text, start, end);
+            }
+            i++;
+        }
+        if (i - yearStart < 4) {
+            throw invalid(text, start, end);
+        }
+        if (negative) {
+            year = -year;
+        }
+
+        // Month and day:
+        i = expect(text, start, end, i, '-');
+        int month = parseTwoDigits(text, start, end, i);
+        i = expect(text, start, end, i + 2, '-');
+        int day = parseTwoDigits(text, start, end, i);
+        i += 2;
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            throw invalid(text, start, end);
+        }
+
+        // Time:
+        i = expect(text, start, end, i, 'T');
+        int hour = parseTwoDigits(text, start, end, i);
+        i = expect(text, start, end, i + 2, ':');
+        int minute = parseTwoDigits(text, start, end, i);
+        i = expect(text, start, end, i + 2, ':');
+        int second = parseTwoDigits(text, start, end, i);
+        i += 2;
+        if (hour > 23 || minute > 59 || second > 59) {
+            throw invalid(text, start, end);
+        }
+
+        // Optional fraction of second, only the first three digits are significant:
+        int millis = 0;
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            int fractionStart = i;
+            int scale = 100;
+            while (i < end && isDigit(text.charAt(i))) {
+                millis += (text.charAt(i) - '0') * scale;
+                scale /= 10;
+                i++;
+            }
+            int digits = i - fractionStart;
+            if (digits < 1 || digits > 9) {
+                throw invalid(text, start, end);
+            }
+        }
+
+        // Time zone offset:
+        if (i >= end) {
+            throw invalid(text, start, end);
+        }
+        long offset;
+        char c = text.charAt(i);
+        if (c == 'Z') {
+            offset = 0;
+            i++;
+        }
+        else if (c == '+' || c == '-') {
+            i++;
+            int offsetHours = parseTwoDigits(text, start, end, i);
+            i += 2;
+            int offsetMinutes = 0;
+            if (i < end) {
+                if (text.charAt(i) == ':') {
+                    i++;
+                }
+                offsetMinutes = parseTwoDigits(text, start, end, i);
+                i += 2;
+            }
+            if (offsetHours > 18 || offsetMinutes > 59) {
+                throw invalid(text, start, end);
+            }
+            offset = offsetHours * MILLIS_PER_HOUR + offsetMinutes * MILLIS_PER_MINUTE;
+            if (c == '-') {
+                offset = -offset;
+            }
+        }
+        else {
+            throw invalid(text, start, end);
+        }
+        if (i != end) {
+            throw invalid(text, start, end);
+        }
+
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+            + hour * MILLIS_PER_HOUR
+            + minute * MILLIS_PER_MINUTE
+            + second * MILLIS_PER_SECOND
+            + millis
+            - offset;
+    }
+
+    /**
+     * Formats the given date.
+     *
+     * @param date the date to format
+     * @return the text representation of the date, in UTC
+     */
+    public static String format(Date date) {
+        char[] buffer = new char[MAX_LENGTH];
+        int length = format(date.getTime(), buffer, 0);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Formats the given number of milliseconds since the epoch into the given array of characters. The array must
+     * have at least {@link #MAX_LENGTH} characters available after the offset.
+     *
+     * @param time the number of milliseconds since the epoch
+     * @param buffer the array where the characters will be written
+     * @param offset the index of the array where the first character will be written
+     * @return the number of characters written
+     */
+    public static int format(long time, char[] buffer, int offset) {
+        long days = floorDiv(time, MILLIS_PER_DAY);
+        int remainder = (int) (time - days * MILLIS_PER_DAY);
+
+        // Convert the number of days to year, month and day, using the algorithm described by Howard Hinnant in
+        // http://howardhinnant.github.io/date_algorithms.html:
+        long z = days + 719468;
+        long era = floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        int i = offset;
+        if (year < 0) {
+            buffer[i++] = '-';
+            year = -year;
+        }
+        if (year < 10000) {
+            i = writeDigits(buffer, i, (int) year, 4);
+        }
+        else {
+            String image = Long.toString(year);
+            image.getChars(0, image.length(), buffer, i);
+            i += image.length();
+        }
+        buffer[i++] = '-';
+        i = writeDigits(buffer, i, month, 2);
+        buffer[i++] = '-';
+        i = writeDigits(buffer, i, day, 2);
+        buffer[i++] = 'T';
+        i = writeDigits(buffer, i, (int) (remainder / MILLIS_PER_HOUR), 2);
+        buffer[i++] = ':';
+        i = writeDigits(buffer, i, (int) (remainder / MILLIS_PER_MINUTE % 60), 2);
+        buffer[i++] = ':';
+        i = writeDigits(buffer, i, (int) (remainder / MILLIS_PER_SECOND % 60), 2);
+        buffer[i++] = '.';
+        i = writeDigits(buffer, i, (int) (remainder % MILLIS_PER_SECOND), 3);
+        buffer[i++] = 'Z';
+        return i - offset;
+    }
+
+    /**
+     * Calculates the number of days since the epoch of the given date, using the algorithm described by Howard
+     * Hinnant in http://howardhinnant.github.io/date_algorithms.html.
+     */
+    private static long daysFromCivil(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    private static int daysInMonth(long year, int month) {
+        if (month == 2 && isLeapYear(year)) {
+            return 29;
+        }
+        return MONTH_DAYS[month - 1];
+    }
+
+    private static boolean isLeapYear(long year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int parseTwoDigits(CharSequence text, int start, int end, int i) {
+        if (i + 2 > end) {
+            throw invalid(text, start, end);
+        }
+        char high = text.charAt(i);
+        char low = text.charAt(i + 1);
+        if (!isDigit(high) || !isDigit(low)) {
+            throw invalid(text, start, end);
+        }
+        return (high - '0') * 10 + (low - '0');
+    }
+
+    private static int expect(CharSequence text, int start, int end, int i, char c) {
+        if (i >= end || text.charAt(i) != c) {
+            throw invalid(text, start, end);
+        }
+        return i + 1;
+    }
+
+    private static int writeDigits(char[] buffer, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence text, int start, int end) {
+        return new IllegalArgumentException(
+            "The text \"" + text.subSequence(start, end) + "\" isn't a valid date value"
+        );
+    }
+}
@@ -0,0 +1,212 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.runtime.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * This class contains methods to parse the numbers that appear in XML and JSON documents directly from ranges of
+ * characters. Most of the values that appear in those documents, like sizes and counts, fit in a {@code long}, so the
+ * methods first try to parse the value into a {@code long}, and only create a {@link BigInteger} or
+ * {@link BigDecimal} from a string when the value doesn't fit.
+ */
+public class NumberParser {
+    // Powers of ten that can be represented exactly as doubles:
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Largest integer that can be represented exactly as a double:
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    // Maximum number of digits that always fit in a long:
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private NumberParser() {
+    }
+
+    /**
+     * Parses a long integer, with an optional sign.
+     *
+     * @param text the text to parse
+     * @return the parsed value
+     * @throws NumberFormatException if the text isn't a valid integer or if it doesn't fit in a {@code long}
+     */
+    public static long parseLong(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0) {
+            char first = text.charAt(0);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                i++;
+            }
+        }
+        if (i == length) {
+            throw invalid(text, "integer");
+        }
+
+        // Accumulate as a negative number, so that the minimum value can also be represented:
+        long limit = negative? Long.MIN_VALUE: -Long.MAX_VALUE;
+        long multiplicationLimit = limit / 10;
+        long result = 0;
+        while (i < length) {
+            int digit = text.charAt(i++) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(text, "integer");
+            }
+            if (result < multiplicationLimit) {
+                throw overflow(text);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw overflow(text);
+            }
+            result -= digit;
+        }
+        return negative? result: -result;
+    }
+
+    /**
+     * Parses an integer, with an optional sign, of arbitrary size.
+     *
+     * @param text the text to parse
+     * @return the parsed value
+     * @throws NumberFormatException if the text isn't a valid integer
+     */
+    public static BigInteger parseInteger(CharSequence text) {
+        if (text.length() <= MAX_LONG_DIGITS) {
+            return BigInteger.valueOf(parseLong(text));
+        }
+        return new BigInteger(text.toString());
+    }
+
+    /**
+     * Parses a decimal number. Numbers without exponent and with less than nineteen digits are parsed directly,
+     * other numbers are parsed using the {@link BigDecimal#BigDecimal(String)} constructor.
+     *
+     * @param text the text to parse
+     * @return the parsed value
+     * @throws NumberFormatException if the text isn't a valid decimal number
+     */
+    public static BigDecimal parseDecimal(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0) {
+            char first = text.charAt(0);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                i++;
+            }
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        while (i < length) {
+            char c = text.charAt(i++);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            }
+            else if (c == '.' && scale < 0) {
+                scale = 0;
+            }
+            else {
+                digits = Integer.MAX_VALUE;
+                break;
+            }
+        }
+        if (digits == 0) {
+            throw invalid(text, "decimal");
+        }
+        if (digits > MAX_LONG_DIGITS) {
+            return new BigDecimal(text.toString());
+        }
+        return BigDecimal.valueOf(negative? -unscaled: unscaled, scale < 0? 0: scale);
+    }
+
+    /**
+     * Parses a double precision floating point number. Numbers without exponent, with less than sixteen significant
+     * digits and less than twenty three decimal digits are converted directly, as the result of dividing two values
+     * that are represented exactly is correctly rounded. Other numbers are parsed using the
+     * {@link Double#parseDouble(String)} method.
+     *
+     * @param text the text to parse
+     * @return the parsed value
+     * @throws NumberFormatException if the text isn't a valid number
+     */
+    public static double parseDouble(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0) {
+            char first = text.charAt(0);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                i++;
+            }
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        boolean simple = true;
+        while (i < length) {
+            char c = text.charAt(i++);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+                if (mantissa > MAX_EXACT_DOUBLE || digits > MAX_LONG_DIGITS) {
+                    simple = false;
+                    break;
+                }
+            }
+            else if (c == '.' && scale < 0) {
+                scale = 0;
+            }
+            else {
+                simple = false;
+                break;
+            }
+        }
+        if (simple && digits > 0 && scale < POWERS_OF_TEN.length) {
+            double value = (double) mantissa;
+            if (scale > 0) {
+                value /= POWERS_OF_TEN[scale];
+            }
+            return negative? -value: value;
+        }
+        return Double.parseDouble(text.toString());
+    }
+
+    private static NumberFormatException invalid(CharSequence text, String kind) {
+        return new NumberFormatException("The text \"" + text + "\" isn't a valid " + kind + " value");
+    }
+
+    private static NumberFormatException overflow(CharSequence text) {
+        return new NumberFormatException("The integer value " + text + " doesn't fit in 64 bits");
+    }
+}
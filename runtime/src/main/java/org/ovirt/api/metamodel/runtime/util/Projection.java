@@ -0,0 +1,138 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.runtime.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class describes the subset of the members of an object that should be read by the generated readers. It is
+ * built from a list of member paths, where each path is the sequence of names of the members separated by dots. The
+ * names are the ones used in the XML and JSON documents. For example, to read only the identifier and the name of a
+ * virtual machine, and the alias of its disks:
+ *
+ * <pre>
+ * Projection projection = Projection.of("id", "name", "disks.alias");
+ * List&lt;Vm&gt; vms = XmlVmReader.readMany(reader, projection);
+ * </pre>
+ *
+ * Members that aren't part of the projection are skipped by the readers, without creating any object for them.
+ * Projections are immutable, so they should be created once and then reused for all the documents.
+ */
+public class Projection {
+    // The selected members, and for each of them the projection that applies to it, or null if it is completely
+    // selected:
+    private final Map<String, Projection> members;
+
+    private Projection(Map<String, Projection> members) {
+        this.members = members;
+    }
+
+    /**
+     * Creates a projection from the given member paths.
+     *
+     * @param paths the paths of the members to select, for example {@code name} or {@code disks.alias}
+     */
+    public static Projection of(String... paths) {
+        return of(Arrays.asList(paths));
+    }
+
+    /**
+     * Creates a projection from the given member paths.
+     *
+     * @param paths the paths of the members to select, for example {@code name} or {@code disks.alias}
+     */
+    public static Projection of(Collection<String> paths) {
+        Node root = new Node();
+        for (String path : paths) {
+            if (path == null || path.isEmpty()) {
+                throw new IllegalArgumentException("The path of a member can't be empty");
+            }
+            Node node = root;
+            for (String name : path.split("\\.", -1)) {
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("The path \"" + path + "\" contains an empty member name");
+                }
+                if (node.children == null) {
+                    // The parent has already been completely selected, so there is no need to go deeper:
+                    break;
+                }
+                Node child = node.children.get(name);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(name, child);
+                }
+                node = child;
+            }
+            node.children = null;
+        }
+        return root.compile();
+    }
+
+    /**
+     * Checks if the given member is selected, either completely or partially.
+     *
+     * @param member the name of the member
+     */
+    public boolean includes(String member) {
+        return members.containsKey(member);
+    }
+
+    /**
+     * Returns the projection that should be applied to the given member.
+     *
+     * @param member the name of the member
+     * @return the projection that applies to the member, or {@code null} if the member is selected completely or
+     *     isn't selected at all
+     */
+    public Projection get(String member) {
+        return members.get(member);
+    }
+
+    /**
+     * Returns the names of the selected members.
+     */
+    public Set<String> getMembers() {
+        return members.keySet();
+    }
+
+    @Override
+    public String toString() {
+        return members.toString();
+    }
+
+    /**
+     * Mutable tree used while building the projection. A node without children map represents a member that is
+     * selected completely.
+     */
+    private static class Node {
+        private Map<String, Node> children = new HashMap<>();
+
+        private Projection compile() {
+            Map<String, Projection> members = new HashMap<>();
+            for (Map.Entry<String, Node> entry : children.entrySet()) {
+                Node child = entry.getValue();
+                members.put(entry.getKey(), child.children != null? child.compile(): null);
+            }
+            return new Projection(Collections.unmodifiableMap(members));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is an input stream that reads the remaining bytes of a buffer, without copying them. It is used to pass
+ * byte buffers, including memory mapped files, directly to the XML parser.
+ */
+class ByteBufferInputStream extends InputStream {
+    // The buffer, a duplicate of the one given by the caller, so that its position isn't modified:
+    private ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        return buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int remaining = buffer.remaining();
+        if (remaining == 0) {
+            return -1;
+        }
+        int count = Math.min(length, remaining);
+        buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long count) {
+        int skipped = (int) Math.min(Math.max(count, 0), buffer.remaining());
+        // The cast is needed so that the code compiled with newer JDKs doesn't use the covariant overload of the
+        // method, which doesn't exist in Java 7 and 8:
+        ((Buffer) buffer).position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
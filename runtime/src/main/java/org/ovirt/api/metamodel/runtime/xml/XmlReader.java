@@ -16,27 +16,32 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.runtime.xml;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Enumeration;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
-import java.util.TimeZone;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
@@ -45,6 +50,9 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 
+import org.ovirt.api.metamodel.runtime.util.CharArraySequence;
+import org.ovirt.api.metamodel.runtime.util.IsoDateFormat;
+import org.ovirt.api.metamodel.runtime.util.NumberParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,56 +67,124 @@ public class XmlReader implements AutoCloseable {
     /**
      * This dictionary stores for each known tag a reference to the method that read the object corresponding for that
      * tag. For example, for the {@code vm} tag it will contain a reference to the {@code VmReader.readOne} method,
-     * and for the {@code vms} tag it will contain a reference to the {@code VmReader.readMany} method.
+     * and for the {@code vms} tag it will contain a reference to the {@code VmReader.readMany} method. It contains the
+     * methods explicitly registered, and the methods from the {@code methods.properties} file that have already been
+     * resolved.
      */
-    private static Map<String, Method> readers = new HashMap<>();
+    private static final ConcurrentMap<String, Method> readers = new ConcurrentHashMap<>();
 
     public static final String METHODS_FILE = "methods.properties";
 
     /**
-     * This static block is needed to initialize with proper data the {@code readers} variable. Those data are stored
-     * in @{code methods.properties} of the result .jar file and should be of the following format:
+     * Reference to the generated registry of readers, or {@code null} if there is no such registry in the class path.
+     * When it is available it is used to select the reader for each tag without using reflection, and the
+     * {@code methods.properties} file is ignored.
+     */
+    private static final XmlReaderRegistry registry = loadRegistry();
+
+    /**
+     * This class holds the contents of the {@code methods.properties} file. It is a separate class so that the file
+     * is loaded only the first time that it is needed, which will never happen if the generated registry is
+     * available.
+     */
+    private static class MethodNames {
+        static final Properties PROPERTIES = loadMethodNames();
+    }
+
+    /**
+     * Locates the generated registry of readers, using the {@link ServiceLoader} mechanism.
+     */
+    private static XmlReaderRegistry loadRegistry() {
+        try {
+            Iterator<XmlReaderRegistry> iterator = ServiceLoader.load(
+                XmlReaderRegistry.class,
+                XmlReader.class.getClassLoader()
+            ).iterator();
+            if (iterator.hasNext()) {
+                return iterator.next();
+            }
+        }
+        catch (ServiceConfigurationError error) {
+            log.error("Can't load the XML reader registry: {}", error.getMessage());
+            log.debug("Exception:", error);
+        }
+        return null;
+    }
+
+    /**
+     * Loads the names of the reader methods from the {@code methods.properties} of the result .jar file. The file
+     * should be of the following format:
      *   tag=Full.Class.Name.methodName
-     * This block parses the properties values of the properties file and store them in the {@code readers} variable.
+     * Note that the classes aren't loaded here, that is done by the {@link #resolveMethod(String)} method only for
+     * the tags that are actually used.
      */
-    static {
+    private static Properties loadMethodNames() {
+        Properties props = new Properties();
         try (
             InputStream in = XmlReader.class.getResourceAsStream(METHODS_FILE);
             java.io.Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)
         ) {
-            Properties props = new Properties();
             props.load(reader);
-
-            Enumeration propertiesEnumeration = props.propertyNames();
-            while (propertiesEnumeration.hasMoreElements()) {
-                String key = (String) propertiesEnumeration.nextElement();
-                String value = props.getProperty(key);
-                String className = value.substring(0, value.lastIndexOf("."));
-                String methodName = value.substring(value.lastIndexOf(".") + 1);
-
-                Class<?> clazz = Class.forName(className);
-                register(key, clazz.getDeclaredMethod(methodName, XmlReader.class));
-            }
-        } catch (Exception e) {
+        }
+        catch (Exception e) {
             log.error("methods.properties file wasn't found: {}", e.getMessage());
             log.debug("Exception:", e);
         }
+        return props;
     }
 
-    // The wrapped XML reader:
-    private XMLStreamReader reader;
-
     /**
-     * Thread local used to store the date formats.
+     * Finds the method that reads the object corresponding to the given tag. The method is first searched in the
+     * already registered methods, and if it isn't there then it is resolved using the {@code methods.properties}
+     * file, and remembered for later uses.
+     *
+     * @param tag the tag name
+     * @return the method, or {@code null} if there is no method for the given tag
      */
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>(){
-        @Override
-        protected SimpleDateFormat initialValue() {
-            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return format;
+    private static Method resolveMethod(String tag) {
+        Method method = readers.get(tag);
+        if (method != null) {
+            return method;
+        }
+        String value = MethodNames.PROPERTIES.getProperty(tag);
+        if (value == null) {
+            return null;
+        }
+        String className = value.substring(0, value.lastIndexOf("."));
+        String methodName = value.substring(value.lastIndexOf(".") + 1);
+        try {
+            Class<?> clazz = Class.forName(className);
+            method = clazz.getDeclaredMethod(methodName, XmlReader.class);
         }
-    };
+        catch (ClassNotFoundException | NoSuchMethodException exception) {
+            throw new XmlException(
+                String.format("Can't find method '%1$s' to read element for tag '%2$s'", value, tag),
+                exception
+            );
+        }
+        Method existing = readers.putIfAbsent(tag, method);
+        return existing != null? existing: method;
+    }
+
+    /**
+     * The factory shared by all the readers. It is created lazily, the first time that it is needed, using the
+     * configuration passed to the {@link #configure(XmlReaderConfig)} method, or the default configuration if that
+     * method hasn't been called.
+     */
+    private static volatile XMLInputFactory factory;
+
+    // The size of the buffer used when reading files:
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    // The wrapped XML reader:
+    private XMLStreamReader reader;
+
+    // The stream opened by this reader, if any, which needs to be closed when the reader is closed:
+    private InputStream owned;
+
+    // Buffer used to collect the text of elements that are parsed directly, without creating a string:
+    private char[] text = new char[64];
+    private int textLength;
 
     /**
      * Creates an XML reader that will read from the given source.
@@ -120,14 +196,43 @@ public class XmlReader implements AutoCloseable {
     }
 
     /**
-     * Creates an XML reader that will read from the given stream, using UTF-8 as the encoding.
+     * Creates an XML reader that will read from the given stream, using UTF-8 as the encoding. The bytes are passed
+     * directly to the XML parser, so that it can decode them using its own UTF-8 scanner.
      *
      * @param in the stream where the document will be read from
      */
     public XmlReader(InputStream in) {
-        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
-        Source source = new StreamSource(reader);
-        init(source);
+        init(in);
+    }
+
+    /**
+     * Creates an XML reader that will read from the given array of bytes, using UTF-8 as the encoding.
+     *
+     * @param bytes the array containing the document
+     */
+    public XmlReader(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Creates an XML reader that will read from a range of the given array of bytes, using UTF-8 as the encoding.
+     *
+     * @param bytes the array containing the document
+     * @param offset the index of the first byte of the document
+     * @param length the number of bytes of the document
+     */
+    public XmlReader(byte[] bytes, int offset, int length) {
+        init(new ByteArrayInputStream(bytes, offset, length));
+    }
+
+    /**
+     * Creates an XML reader that will read from the remaining bytes of the given buffer, using UTF-8 as the encoding.
+     * The position of the buffer isn't modified.
+     *
+     * @param buffer the buffer containing the document
+     */
+    public XmlReader(ByteBuffer buffer) {
+        init(new ByteBufferInputStream(buffer));
     }
 
     /**
@@ -141,26 +246,89 @@ public class XmlReader implements AutoCloseable {
     }
 
     /**
-     * Creates a reader that will read from the given file, using UTF-8 as the encoding.
+     * Creates a reader that will read from the given file, using UTF-8 as the encoding. The file will be closed when
+     * the reader is closed.
      *
      * @param file the file where the document will be written
      */
     public XmlReader(File file) {
         try {
-            InputStream in = new FileInputStream(file);
-            Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
-            Source source = new StreamSource(reader);
-            init(source);
+            owned = new FileInputStream(file);
         }
         catch (IOException exception) {
             throw new XmlException("Can't open file \"" + file.getAbsolutePath() + "\" for reading", exception);
         }
+        try {
+            init(new BufferedInputStream(owned, FILE_BUFFER_SIZE));
+        }
+        catch (RuntimeException exception) {
+            // The caller never gets the reader, so it can't close the file:
+            try {
+                owned.close();
+            }
+            catch (IOException closeException) {
+                exception.addSuppressed(closeException);
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Creates a reader that will read from the given file, mapping it into memory instead of reading it with a
+     * stream. This is convenient for large documents that are read from the local disk, as it avoids copying the
+     * content to intermediate buffers. The encoding is assumed to be UTF-8.
+     *
+     * @param file the file where the document will be read from
+     */
+    public static XmlReader map(File file) {
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new XmlReader(buffer);
+        }
+        catch (IOException exception) {
+            throw new XmlException("Can't map file \"" + file.getAbsolutePath() + "\" for reading", exception);
+        }
+    }
+
+    /**
+     * Replaces the factory shared by all the readers with a new one created using the given configuration. Readers
+     * that have already been created aren't affected.
+     *
+     * @param config the configuration of the factory
+     */
+    public static void configure(XmlReaderConfig config) {
+        factory = config.createFactory();
+    }
+
+    /**
+     * Returns the factory shared by all the readers, creating it with the default configuration if needed.
+     */
+    private static XMLInputFactory getFactory() {
+        XMLInputFactory result = factory;
+        if (result == null) {
+            synchronized (XmlReader.class) {
+                result = factory;
+                if (result == null) {
+                    result = new XmlReaderConfig().createFactory();
+                    factory = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void init(InputStream in) {
+        try {
+            reader = getFactory().createXMLStreamReader(in, StandardCharsets.UTF_8.name());
+        }
+        catch (XMLStreamException exception) {
+            throw new XmlException("Can't create XML reader", exception);
+        }
     }
 
     private void init(Source source) {
         try {
-            XMLInputFactory factory = XMLInputFactory.newFactory();
-            reader = factory.createXMLStreamReader(source);
+            reader = getFactory().createXMLStreamReader(source);
         }
         catch (XMLStreamException exception) {
             throw new XmlException("Can't create XML reader", exception);
@@ -300,7 +468,69 @@ public class XmlReader implements AutoCloseable {
      * element that contains the value of the integer.
      */
     public BigInteger readInteger() {
-        return parseInteger(readString());
+        CharSequence image = readTextSequence();
+        try {
+            return NumberParser.parseInteger(image);
+        }
+        catch (NumberFormatException exception) {
+            throw new XmlException("The text \"" + image + "\" isn't a valid integer value");
+        }
+    }
+
+    /**
+     * Reads a long integer value from the given XML reader, assuming that the cursor is positioned at the start
+     * element that contains the value of the integer. The value is parsed directly from the text of the element,
+     * without creating intermediate objects.
+     *
+     * @throws XmlException if the text isn't a valid integer or if it doesn't fit in 64 bits
+     */
+    public long readLong() {
+        CharSequence image = readTextSequence();
+        try {
+            return NumberParser.parseLong(image);
+        }
+        catch (NumberFormatException exception) {
+            throw new XmlException("The text \"" + image + "\" isn't a valid 64 bits integer value");
+        }
+    }
+
+    /**
+     * Reads an integer value from the given XML reader, assuming that the cursor is positioned at the start
+     * element that contains the value of the integer. The value is parsed directly from the text of the element,
+     * without creating intermediate objects.
+     *
+     * @throws XmlException if the text isn't a valid integer or if it doesn't fit in 32 bits
+     */
+    public int readInt() {
+        CharSequence image = readTextSequence();
+        long value;
+        try {
+            value = NumberParser.parseLong(image);
+        }
+        catch (NumberFormatException exception) {
+            // The message of the exception already tells apart texts that aren't integers from values that don't fit
+            // in 64 bits, and so neither in 32 bits:
+            throw new XmlException(exception.getMessage(), exception);
+        }
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new XmlException("The text \"" + image + "\" isn't a valid 32 bits integer value");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a double precision floating point value from the given XML reader, assuming that the cursor is
+     * positioned at the start element that contains the value of the decimal. Simple values are parsed directly from
+     * the text of the element, without creating intermediate objects.
+     */
+    public double readDouble() {
+        CharSequence image = readTextSequence();
+        try {
+            return NumberParser.parseDouble(image);
+        }
+        catch (NumberFormatException exception) {
+            throw new XmlException("The text \"" + image + "\" isn't a valid decimal value");
+        }
     }
 
     /**
@@ -308,7 +538,13 @@ public class XmlReader implements AutoCloseable {
      * element that contains the value of the decimal.
      */
     public BigDecimal readDecimal() {
-        return parseDecimal(readString());
+        CharSequence image = readTextSequence();
+        try {
+            return NumberParser.parseDecimal(image).stripTrailingZeros();
+        }
+        catch (NumberFormatException exception) {
+            throw new XmlException("The text \"" + image + "\" isn't a valid decimal value");
+        }
     }
 
     /**
@@ -337,7 +573,68 @@ public class XmlReader implements AutoCloseable {
      * element that contains the value of the date.
      */
     public Date readDate() {
-        return parseDate(readString());
+        readText();
+        try {
+            return IsoDateFormat.parse(text, 0, textLength);
+        }
+        catch (IllegalArgumentException exception) {
+            throw new XmlException(exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Reads the text of the element where the cursor is positioned into the internal buffer, and moves the cursor
+     * after the end of that element.
+     */
+    private void readText() {
+        textLength = 0;
+        try {
+            while (true) {
+                int event = reader.next();
+                switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    appendText(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    String replacement = reader.getText();
+                    appendText(replacement.toCharArray(), 0, replacement.length());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    reader.next();
+                    return;
+                default:
+                    throw new XmlException("Unexpected event " + event + " while reading element text");
+                }
+            }
+        }
+        catch (XMLStreamException exception) {
+            throw new XmlException("Can't get element text", exception);
+        }
+    }
+
+    /**
+     * Reads the text of the element where the cursor is positioned, and returns a view of the internal buffer that
+     * contains it. Note that the view is only valid till the next call to this method.
+     */
+    private CharSequence readTextSequence() {
+        readText();
+        return new CharArraySequence(text, 0, textLength);
+    }
+
+    private void appendText(char[] chars, int start, int length) {
+        int required = textLength + length;
+        if (required > text.length) {
+            char[] larger = new char[Math.max(required, text.length * 2)];
+            System.arraycopy(text, 0, larger, 0, textLength);
+            text = larger;
+        }
+        System.arraycopy(chars, start, text, textLength, length);
+        textLength = required;
     }
 
     /**
@@ -421,7 +718,7 @@ public class XmlReader implements AutoCloseable {
 
     public BigInteger parseInteger(String image) {
         try {
-            return new BigInteger(image);
+            return NumberParser.parseInteger(image);
         }
         catch (NumberFormatException exception) {
             throw new XmlException("The text \"" + image + "\" isn't a valid integer value");
@@ -430,7 +727,7 @@ public class XmlReader implements AutoCloseable {
 
     public BigDecimal parseDecimal(String image) {
         try {
-            return new BigDecimal(image).stripTrailingZeros();
+            return NumberParser.parseDecimal(image).stripTrailingZeros();
         }
         catch (NumberFormatException exception) {
             throw new XmlException("The text \"" + image + "\" isn't a valid decimal value");
@@ -439,10 +736,10 @@ public class XmlReader implements AutoCloseable {
 
     public Date parseDate(String image) {
         try {
-            return DATE_FORMAT.get().parse(image);
+            return IsoDateFormat.parse(image);
         }
-        catch(ParseException exception) {
-            throw new XmlException("The text \"" + image + "\" isn't a valid date value");
+        catch (IllegalArgumentException exception) {
+            throw new XmlException(exception.getMessage(), exception);
         }
     }
 
@@ -468,6 +765,17 @@ public class XmlReader implements AutoCloseable {
         catch (XMLStreamException exception) {
             throw new XmlException("Can't close", exception);
         }
+        finally {
+            if (owned != null) {
+                try {
+                    owned.close();
+                }
+                catch (IOException exception) {
+                    log.debug("Can't close input stream", exception);
+                }
+                owned = null;
+            }
+        }
     }
 
 
@@ -497,8 +805,19 @@ public class XmlReader implements AutoCloseable {
                 return null;
             }
 
+            // Methods explicitly registered take precedence, then the generated registry is used, and if it isn't
+            // available then the reflective methods loaded from the properties file:
             tag = getLocalName();
             method = readers.get(tag);
+            if (method == null && registry != null) {
+                Object result = registry.read(tag, this);
+                if (result != null) {
+                    return result;
+                }
+            }
+            if (method == null) {
+                method = resolveMethod(tag);
+            }
 
             // Select the specific reader according to the tag:
             if (method == null) {
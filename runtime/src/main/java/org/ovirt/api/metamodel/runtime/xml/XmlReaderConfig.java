@@ -0,0 +1,163 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class contains the configuration of the StAX factory used by the {@link XmlReader} class. For example, to use
+ * the Woodstox implementation, if it is available in the class path, and to enable coalescing of text:
+ *
+ * <pre>
+ * XmlReaderConfig config = new XmlReaderConfig();
+ * config.addFactoryClassName(XmlReaderConfig.WOODSTOX);
+ * config.setCoalescing(true);
+ * XmlReader.configure(config);
+ * </pre>
+ *
+ * Note that the factory is shared by all the readers, so the configuration should be done once, before starting to
+ * read documents.
+ */
+public class XmlReaderConfig {
+    private static final Logger log = LoggerFactory.getLogger(XmlReaderConfig.class);
+
+    /**
+     * The name of the factory class of the implementation included in the JDK.
+     */
+    public static final String JDK = "com.sun.xml.internal.stream.XMLInputFactoryImpl";
+
+    /**
+     * The name of the factory class of the Woodstox implementation.
+     */
+    public static final String WOODSTOX = "com.ctc.wstx.stax.WstxInputFactory";
+
+    /**
+     * The name of the factory class of the Aalto implementation.
+     */
+    public static final String AALTO = "com.fasterxml.aalto.stax.InputFactoryImpl";
+
+    /**
+     * The name of the Stax2 property that enables interning of names.
+     */
+    public static final String INTERN_NAMES = "org.codehaus.stax2.internNames";
+
+    // The names of the candidate factory classes, in order of preference:
+    private List<String> factoryClassNames = new ArrayList<>();
+
+    // The properties that will be set in the factory:
+    private Map<String, Object> properties = new LinkedHashMap<>();
+
+    /**
+     * Adds the name of a class that will be used as the factory if it is available in the class path. If multiple
+     * names are added the first one that is available will be used. If none is available then the default factory
+     * of the platform will be used.
+     *
+     * @param factoryClassName the fully qualified name of a class that extends {@link XMLInputFactory}
+     */
+    public void addFactoryClassName(String factoryClassName) {
+        factoryClassNames.add(factoryClassName);
+    }
+
+    /**
+     * Returns the list of names of the candidate factory classes. The returned list is a copy of the one used
+     * internally, so it is safe to modify it.
+     */
+    public List<String> getFactoryClassNames() {
+        return new ArrayList<>(factoryClassNames);
+    }
+
+    /**
+     * Sets a property that will be passed to the {@link XMLInputFactory#setProperty(String, Object)} method. If the
+     * factory doesn't support the property it will be ignored.
+     *
+     * @param name the name of the property
+     * @param value the value of the property
+     */
+    public void setProperty(String name, Object value) {
+        properties.put(name, value);
+    }
+
+    /**
+     * Returns the value of the given property, or {@code null} if it hasn't been set.
+     */
+    public Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Enables or disables coalescing of adjacent text events.
+     */
+    public void setCoalescing(boolean coalescing) {
+        setProperty(XMLInputFactory.IS_COALESCING, coalescing);
+    }
+
+    /**
+     * Enables or disables interning of element and attribute names. This is only supported by implementations of the
+     * Stax2 API, like Woodstox and Aalto.
+     */
+    public void setInterning(boolean interning) {
+        setProperty(INTERN_NAMES, interning);
+    }
+
+    /**
+     * Creates a new factory using this configuration.
+     */
+    public XMLInputFactory createFactory() {
+        XMLInputFactory factory = null;
+        for (String factoryClassName : factoryClassNames) {
+            factory = instantiateFactory(factoryClassName);
+            if (factory != null) {
+                break;
+            }
+        }
+        if (factory == null) {
+            factory = XMLInputFactory.newFactory();
+        }
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            String name = property.getKey();
+            Object value = property.getValue();
+            if (factory.isPropertySupported(name)) {
+                factory.setProperty(name, value);
+            }
+            else {
+                log.debug("Property '{}' isn't supported by factory '{}'", name, factory.getClass().getName());
+            }
+        }
+        return factory;
+    }
+
+    private XMLInputFactory instantiateFactory(String factoryClassName) {
+        try {
+            Class<?> factoryClass = Class.forName(factoryClassName, true, XmlReaderConfig.class.getClassLoader());
+            return (XMLInputFactory) factoryClass.newInstance();
+        }
+        catch (ClassNotFoundException | NoClassDefFoundError exception) {
+            log.debug("Factory class '{}' isn't available", factoryClassName);
+            return null;
+        }
+        catch (InstantiationException | IllegalAccessException | ClassCastException exception) {
+            throw new XmlException("Can't create XML factory of class '" + factoryClassName + "'", exception);
+        }
+    }
+}
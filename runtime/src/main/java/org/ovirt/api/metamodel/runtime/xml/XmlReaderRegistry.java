@@ -0,0 +1,36 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+/**
+ * This interface is implemented by the generated class that knows how to select the reader for each tag of the model.
+ * The implementation is located using the {@link java.util.ServiceLoader} mechanism, so the generated code also
+ * contains the corresponding {@code META-INF/services} file. It is used by the {@link XmlReader#read()} method in
+ * order to avoid the use of reflection.
+ */
+public interface XmlReaderRegistry {
+    /**
+     * Reads one object, using the reader that corresponds to the given tag. For example, for the {@code vm} tag it
+     * will call the {@code VmReader.readOne} method, and for the {@code vms} tag it will call the
+     * {@code VmReader.readMany} method.
+     *
+     * @param tag the name of the element where the reader is positioned
+     * @param reader the XML reader
+     * @return the object that has been read, or {@code null} if there is no reader for the given tag
+     */
+    Object read(String tag, XmlReader reader);
+}
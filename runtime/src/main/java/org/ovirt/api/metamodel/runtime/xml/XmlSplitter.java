@@ -0,0 +1,340 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class splits a document containing a collection, for example a large {@code vms} or {@code events} document,
+ * into multiple smaller documents that can be parsed independently, typically in parallel. It scans the bytes of the
+ * document looking for the boundaries of the elements that are direct children of the root element, without parsing
+ * them, and then groups those elements into ranges of approximately the same size. Each range is returned as an
+ * independent {@link XmlReader} that sees a document containing a copy of the start tag of the root element, the
+ * bytes of the range, and the end tag of the root element. For example, to read a large list of virtual machines
+ * using all the available processors:
+ *
+ * <pre>
+ * int parts = Runtime.getRuntime().availableProcessors();
+ * List&lt;XmlReader&gt; readers = XmlSplitter.split(new File("vms.xml"), parts);
+ * List&lt;Vm&gt; vms = readers.parallelStream()
+ *     .flatMap(reader -&gt; XmlVmReader.readMany(reader).stream())
+ *     .collect(toList());
+ * </pre>
+ *
+ * The order of the returned readers is the order of the elements in the original document. The bytes of the
+ * document aren't copied, and are assumed to be encoded using UTF-8, or any other encoding compatible with ASCII.
+ */
+public class XmlSplitter {
+    private XmlSplitter() {
+    }
+
+    /**
+     * Splits the document contained in the given file, mapping it into memory.
+     *
+     * @param file the file containing the document
+     * @param parts the maximum number of parts
+     * @return the list of readers, one for each part
+     */
+    public static List<XmlReader> split(File file, int parts) {
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return split(buffer, parts);
+        }
+        catch (IOException exception) {
+            throw new XmlException("Can't map file \"" + file.getAbsolutePath() + "\" for reading", exception);
+        }
+    }
+
+    /**
+     * Splits the document contained in the given array of bytes.
+     *
+     * @param bytes the array containing the document
+     * @param parts the maximum number of parts
+     * @return the list of readers, one for each part
+     */
+    public static List<XmlReader> split(byte[] bytes, int parts) {
+        return split(ByteBuffer.wrap(bytes), parts);
+    }
+
+    /**
+     * Splits the document contained in the remaining bytes of the given buffer. The position of the buffer isn't
+     * modified.
+     *
+     * @param buffer the buffer containing the document
+     * @param parts the maximum number of parts
+     * @return the list of readers, one for each part
+     */
+    public static List<XmlReader> split(ByteBuffer buffer, int parts) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("The number of parts must be at least one, but it is " + parts);
+        }
+        Scanner scanner = new Scanner(buffer);
+        scanner.scan();
+
+        // If the root element has no children then there is nothing to split:
+        if (scanner.count == 0) {
+            return Collections.singletonList(new XmlReader(buffer));
+        }
+
+        // Prepare the start and end tags that will be added to each part:
+        byte[] startTag = new byte[scanner.rootEnd - scanner.rootStart];
+        ByteBuffer source = buffer.duplicate();
+        ((Buffer) source).position(scanner.rootStart);
+        source.get(startTag);
+        byte[] endTag = ("</" + scanner.rootName + ">").getBytes(StandardCharsets.UTF_8);
+
+        // Group the children in ranges of approximately the same size:
+        int first = scanner.children[0];
+        int last = scanner.contentEnd;
+        long target = ((long) last - first + parts - 1) / parts;
+        List<XmlReader> readers = new ArrayList<>(Math.min(parts, scanner.count));
+        int rangeStart = first;
+        for (int i = 1; i < scanner.count; i++) {
+            int child = scanner.children[i];
+            if (child - rangeStart >= target) {
+                readers.add(createReader(buffer, startTag, rangeStart, child, endTag));
+                rangeStart = child;
+            }
+        }
+        readers.add(createReader(buffer, startTag, rangeStart, last, endTag));
+        return readers;
+    }
+
+    private static XmlReader createReader(ByteBuffer buffer, byte[] startTag, int start, int end, byte[] endTag) {
+        // The casts are needed so that the code compiled with newer JDKs doesn't use the covariant overloads of the
+        // methods, which don't exist in Java 7 and 8:
+        ByteBuffer range = buffer.duplicate();
+        ((Buffer) range).limit(end);
+        ((Buffer) range).position(start);
+        List<InputStream> streams = Arrays.<InputStream>asList(
+            new ByteArrayInputStream(startTag),
+            new ByteBufferInputStream(range),
+            new ByteArrayInputStream(endTag)
+        );
+        return new XmlReader(new SequenceInputStream(Collections.enumeration(streams)));
+    }
+
+    /**
+     * This class scans the bytes of the document and finds the root element and the positions where its children
+     * start. It only understands the lexical structure of the document needed to track the depth of the elements:
+     * tags, quoted attribute values, comments, processing instructions, {@code CDATA} sections and the document type
+     * declaration.
+     */
+    private static class Scanner {
+        private final ByteBuffer buffer;
+        private int position;
+        private final int limit;
+
+        // The positions of the start tag of the root element, and its name:
+        private int rootStart = -1;
+        private int rootEnd = -1;
+        private String rootName;
+
+        // The positions where the children of the root element start, and the position where its content ends:
+        private int[] children = new int[1024];
+        private int count;
+        private int contentEnd = -1;
+
+        Scanner(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.position = buffer.position();
+            this.limit = buffer.limit();
+        }
+
+        void scan() {
+            int depth = 0;
+            while (true) {
+                position = indexOf((byte) '<', position);
+                if (position < 0) {
+                    throw new XmlException("Unexpected end of document while looking for the end of the root element");
+                }
+                int start = position;
+                byte next = byteAt(start + 1);
+                if (next == '?') {
+                    position = indexOf("?>", start + 2) + 2;
+                }
+                else if (next == '!') {
+                    if (startsWith("<!--", start)) {
+                        position = indexOf("-->", start + 4) + 3;
+                    }
+                    else if (startsWith("<![CDATA[", start)) {
+                        position = indexOf("]]>", start + 9) + 3;
+                    }
+                    else {
+                        skipDeclaration(start + 2);
+                    }
+                }
+                else if (next == '/') {
+                    if (depth == 0) {
+                        throw new XmlException("Unexpected end tag before the root element");
+                    }
+                    depth--;
+                    if (depth == 0) {
+                        contentEnd = start;
+                        return;
+                    }
+                    position = indexOf(">", start + 2) + 1;
+                }
+                else {
+                    skipTag(start + 1);
+                    boolean empty = byteAt(position - 2) == '/';
+                    if (depth == 0) {
+                        rootStart = start;
+                        rootEnd = position;
+                        rootName = readName(start + 1);
+                        if (empty) {
+                            return;
+                        }
+                    }
+                    else if (depth == 1) {
+                        addChild(start);
+                    }
+                    if (!empty) {
+                        depth++;
+                    }
+                }
+            }
+        }
+
+        private void addChild(int start) {
+            if (count == children.length) {
+                children = Arrays.copyOf(children, count * 2);
+            }
+            children[count++] = start;
+        }
+
+        private void skipTag(int from) {
+            int i = from;
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (b == '"' || b == '\'') {
+                    i = indexOf(b, i + 1);
+                    if (i < 0) {
+                        break;
+                    }
+                }
+                else if (b == '>') {
+                    position = i + 1;
+                    return;
+                }
+                i++;
+            }
+            throw new XmlException("Unexpected end of document inside a tag");
+        }
+
+        private void skipDeclaration(int from) {
+            // Declarations like DOCTYPE may contain an internal subset enclosed in square brackets, which may contain
+            // other declarations:
+            int nesting = 0;
+            int i = from;
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (b == '"' || b == '\'') {
+                    i = indexOf(b, i + 1);
+                    if (i < 0) {
+                        break;
+                    }
+                }
+                else if (b == '[') {
+                    nesting++;
+                }
+                else if (b == ']') {
+                    nesting--;
+                }
+                else if (b == '>' && nesting == 0) {
+                    position = i + 1;
+                    return;
+                }
+                i++;
+            }
+            throw new XmlException("Unexpected end of document inside a declaration");
+        }
+
+        private String readName(int from) {
+            int i = from;
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    break;
+                }
+                i++;
+            }
+            byte[] name = new byte[i - from];
+            for (int j = 0; j < name.length; j++) {
+                name[j] = buffer.get(from + j);
+            }
+            return new String(name, StandardCharsets.UTF_8);
+        }
+
+        private byte byteAt(int index) {
+            if (index >= limit) {
+                throw new XmlException("Unexpected end of document");
+            }
+            return buffer.get(index);
+        }
+
+        private boolean startsWith(String prefix, int from) {
+            if (from + prefix.length() > limit) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (buffer.get(from + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int indexOf(byte b, int from) {
+            for (int i = from; i < limit; i++) {
+                if (buffer.get(i) == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int indexOf(String text, int from) {
+            byte first = (byte) text.charAt(0);
+            int i = from;
+            while (true) {
+                i = indexOf(first, i);
+                if (i < 0) {
+                    throw new XmlException("Unexpected end of document while looking for \"" + text + "\"");
+                }
+                if (startsWith(text, i)) {
+                    return i;
+                }
+                i++;
+            }
+        }
+    }
+}
@@ -25,16 +25,16 @@ import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
-import java.util.TimeZone;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
 import javax.xml.transform.stream.StreamResult;
 
+import org.ovirt.api.metamodel.runtime.util.IsoDateFormat;
+
 /**
  * This class wraps the {@link XMLStreamWriter} class so that the methods don't send checked exceptions, in order to
  * simplify its usage together with streams and lambdas.
@@ -43,17 +43,8 @@ public class XmlWriter implements AutoCloseable {
     // The wrapped XML writer:
     private XMLStreamWriter writer;
 
-    /**
-     * Thread local used to store the date formats.
-     */
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>(){
-        @Override
-        protected SimpleDateFormat initialValue() {
-            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return format;
-        }
-    };
+    // Buffer used to format dates without creating intermediate strings:
+    private final char[] dateBuffer = new char[IsoDateFormat.MAX_LENGTH];
 
     /**
      * Creates an XML writer that will write to the given result, using UTF-8 as the encoding.
@@ -301,7 +292,15 @@ public class XmlWriter implements AutoCloseable {
      * Writes a date.
      */
     public void writeDate(String name, Date value) {
-        writeElement(name, renderDate(value));
+        int length = IsoDateFormat.format(value.getTime(), dateBuffer, 0);
+        writeStartElement(name);
+        try {
+            writer.writeCharacters(dateBuffer, 0, length);
+        }
+        catch (XMLStreamException exception) {
+            throw new XmlException("Can't write date for tag \"" + name + "\"", exception);
+        }
+        writeEndElement();
     }
 
     /**
@@ -388,7 +387,7 @@ public class XmlWriter implements AutoCloseable {
      * Render a string representation of Date value
      */
     public static String renderDate(Date value) {
-        return DATE_FORMAT.get().format(value);
+        return IsoDateFormat.format(value);
     }
 
     /**
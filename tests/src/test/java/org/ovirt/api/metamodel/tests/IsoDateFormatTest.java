@@ -0,0 +1,184 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.util.IsoDateFormat;
+
+/**
+ * Tests for the {@link IsoDateFormat} class.
+ */
+public class IsoDateFormatTest {
+    /**
+     * Checks that a date in UTC is parsed correctly.
+     */
+    @Test
+    public void testParseUtc() {
+        assertEquals(1453047503123L, IsoDateFormat.parse("2016-01-17T16:18:23.123Z").getTime());
+    }
+
+    /**
+     * Checks that the different forms of time zone offsets are accepted.
+     */
+    @Test
+    public void testParseOffsets() {
+        assertEquals(1453047503123L, IsoDateFormat.parse("2016-01-17T17:18:23.123+01:00").getTime());
+        assertEquals(1453047503123L, IsoDateFormat.parse("2016-01-17T17:18:23.123+0100").getTime());
+        assertEquals(1453047503123L, IsoDateFormat.parse("2016-01-17T17:18:23.123+01").getTime());
+        assertEquals(1453047503123L, IsoDateFormat.parse("2016-01-17T11:48:23.123-04:30").getTime());
+    }
+
+    /**
+     * Checks that the fraction of second is optional, and that it is interpreted as a decimal fraction.
+     */
+    @Test
+    public void testParseFraction() {
+        assertEquals(1453047503000L, IsoDateFormat.parse("2016-01-17T16:18:23Z").getTime());
+        assertEquals(1453047503100L, IsoDateFormat.parse("2016-01-17T16:18:23.1Z").getTime());
+        assertEquals(1453047503123L, IsoDateFormat.parse("2016-01-17T16:18:23.123456789Z").getTime());
+    }
+
+    /**
+     * Checks that a range of an array of characters can be parsed.
+     */
+    @Test
+    public void testParseRange() {
+        char[] text = "xx2016-01-17T16:18:23.123Zxx".toCharArray();
+        assertEquals(1453047503123L, IsoDateFormat.parse(text, 2, 24).getTime());
+    }
+
+    /**
+     * Checks that the 29th of February is accepted only in leap years.
+     */
+    @Test
+    public void testParseLeapDay() {
+        assertEquals(951782400000L, IsoDateFormat.parse("2000-02-29T00:00:00.000Z").getTime());
+    }
+
+    /**
+     * Checks that invalid texts are rejected.
+     */
+    @Test
+    public void testParseInvalid() {
+        String[] images = {
+            "",
+            "junk",
+            "16-01-17T16:18:23.123Z",
+            "2016-01-17",
+            "2016-01-17 16:18:23.123Z",
+            "2016-13-17T16:18:23.123Z",
+            "2016-01-32T16:18:23.123Z",
+            "2015-02-29T16:18:23.123Z",
+            "2016-01-17T24:18:23.123Z",
+            "2016-01-17T16:60:23.123Z",
+            "2016-01-17T16:18:23.Z",
+            "2016-01-17T16:18:23.123",
+            "2016-01-17T16:18:23.123+1",
+            "2016-01-17T16:18:23.123Zjunk",
+        };
+        for (String image : images) {
+            try {
+                IsoDateFormat.parse(image);
+                throw new AssertionError("The text \"" + image + "\" should have been rejected");
+            }
+            catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    /**
+     * Checks that dates are formatted in UTC with millisecond precision.
+     */
+    @Test
+    public void testFormat() {
+        assertEquals("2016-01-17T16:18:23.123Z", IsoDateFormat.format(new Date(1453047503123L)));
+        assertEquals("1970-01-01T00:00:00.000Z", IsoDateFormat.format(new Date(0)));
+        assertEquals("1969-12-31T23:59:59.999Z", IsoDateFormat.format(new Date(-1)));
+    }
+
+    /**
+     * Checks that formatting into an array writes the characters at the given offset and returns their number.
+     */
+    @Test
+    public void testFormatIntoArray() {
+        char[] buffer = new char[2 + IsoDateFormat.MAX_LENGTH];
+        int length = IsoDateFormat.format(1453047503123L, buffer, 2);
+        assertEquals(24, length);
+        assertEquals("2016-01-17T16:18:23.123Z", new String(buffer, 2, length));
+    }
+
+    /**
+     * Checks that formatting and then parsing returns the same value, for a wide range of dates.
+     */
+    @Test
+    public void testRoundTrip() {
+        long step = 7919L * 3_600_000L + 123L;
+        for (long time = -10_000L * step; time < 10_000L * step; time += step) {
+            Date date = new Date(time);
+            assertEquals(date, IsoDateFormat.parse(IsoDateFormat.format(date)));
+        }
+    }
+
+    /**
+     * Compares the time that it takes to parse and format dates with this class and with the
+     * {@link SimpleDateFormat} class that was used previously. Note that the test is currently disabled because its
+     * results depend on the load of the machine, but it is still useful to run it manually, so please don't remove
+     * it.
+     */
+    @Test
+    @Ignore
+    public void testPerformance() throws ParseException {
+        int count = 5_000_000;
+        String image = "2016-01-17T17:18:23.123+01:00";
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        // Warm up both implementations:
+        for (int i = 0; i < count / 10; i++) {
+            format.format(format.parse(image));
+            IsoDateFormat.format(IsoDateFormat.parse(image));
+        }
+
+        long before = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += format.format(format.parse(image)).length();
+        }
+        long legacy = System.nanoTime() - before;
+
+        before = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            sum += IsoDateFormat.format(IsoDateFormat.parse(image)).length();
+        }
+        long current = System.nanoTime() - before;
+
+        System.out.printf(
+            "SimpleDateFormat: %d ns/op, IsoDateFormat: %d ns/op (%d)%n",
+            legacy / count,
+            current / count,
+            sum
+        );
+    }
+}
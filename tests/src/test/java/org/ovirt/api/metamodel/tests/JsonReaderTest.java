@@ -34,9 +34,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+
 import org.junit.Ignore;
 import org.junit.Test;
 import org.ovirt.api.metamodel.runtime.json.JsonReader;
+import org.ovirt.api.metamodel.runtime.util.Projection;
 import org.ovirt.engine.api.json.V4JsonVmReader;
 import org.ovirt.engine.api.types.V4Disk;
 import org.ovirt.engine.api.types.V4Vm;
@@ -363,6 +367,131 @@ public class JsonReaderTest {
         }
     }
 
+    /**
+     * Checks that calling {@code hasNext} multiple times doesn't consume elements.
+     */
+    @Test
+    public void testHasNextIsIdempotent() {
+        String text = "[{\"id\":\"123\"},{\"id\":\"456\"}]";
+        try (StringReader buffer = new StringReader(text); JsonReader reader = new JsonReader(buffer)) {
+            Iterator<V4Vm> iterator = V4JsonVmReader.iterateMany(reader);
+            assertTrue(iterator.hasNext());
+            assertTrue(iterator.hasNext());
+            assertEquals("123", iterator.next().id());
+            assertTrue(iterator.hasNext());
+            assertTrue(iterator.hasNext());
+            assertEquals("456", iterator.next().id());
+            assertFalse(iterator.hasNext());
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    /**
+     * Checks that iterators can be used calling {@code next} without calling {@code hasNext} first.
+     */
+    @Test
+    public void testNextWithoutHasNext() {
+        String text = "[{\"id\":\"123\"},{\"id\":\"456\"}]";
+        try (StringReader buffer = new StringReader(text); JsonReader reader = new JsonReader(buffer)) {
+            Iterator<V4Vm> iterator = V4JsonVmReader.iterateMany(reader);
+            assertEquals("123", iterator.next().id());
+            assertEquals("456", iterator.next().id());
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    /**
+     * Checks that values of the array that aren't objects are ignored.
+     */
+    @Test
+    public void testIteratorSkipsNonObjects() {
+        String text = "[null,{\"id\":\"123\"},[1,[2]],\"junk\",{\"id\":\"456\"}]";
+        try (StringReader buffer = new StringReader(text); JsonReader reader = new JsonReader(buffer)) {
+            Iterator<V4Vm> iterator = V4JsonVmReader.iterateMany(reader);
+            assertEquals("123", iterator.next().id());
+            assertEquals("456", iterator.next().id());
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    /**
+     * Checks that the primitive reading methods parse numbers correctly.
+     */
+    @Test
+    public void testReadPrimitives() {
+        String text = "[9223372036854775807, -2147483648, 0.1, 1.5e300]";
+        try (StringReader buffer = new StringReader(text); JsonReader reader = new JsonReader(buffer)) {
+            reader.expect(JsonParser.Event.START_ARRAY);
+            assertEquals(Long.MAX_VALUE, reader.readLong());
+            assertEquals(Integer.MIN_VALUE, reader.readInt());
+            assertEquals(0.1, reader.readDouble(), 0.0);
+            assertEquals(1.5e300, reader.readDouble(), 0.0);
+        }
+    }
+
+    /**
+     * Checks that {@code readLong} rejects values that don't fit in a {@code long}.
+     */
+    @Test(expected = JsonException.class)
+    public void testReadLongOverflowThrowsException() {
+        String text = "[9223372036854775808]";
+        try (StringReader buffer = new StringReader(text); JsonReader reader = new JsonReader(buffer)) {
+            reader.expect(JsonParser.Event.START_ARRAY);
+            reader.readLong();
+        }
+    }
+
+    /**
+     * Checks that integers that don't fit in a {@code long} are still read correctly.
+     */
+    @Test
+    public void testVeryLongInteger() {
+        V4Vm object = objectFromJson("{'memory':92233720368547758070}");
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TEN), object.memory());
+    }
+
+    /**
+     * Checks that when a projection is used only the selected members are read, and that the values of the other
+     * members, including objects and arrays, are skipped.
+     */
+    @Test
+    public void testProjection() {
+        String text =
+            "[" +
+              "{'id':'123','cpu':{'x':{'y':[]}},'name':'vm1','memory':1024," +
+              "'disks':[{'id':'456','alias':'disk1'}],'properties':['a','b'],'fqdn':'vm1.example.com'}," +
+              "{'id':'789','name':'vm2'}" +
+            "]";
+        text = text.replace('\'', '\"');
+        Projection projection = Projection.of("name", "disks.alias", "fqdn");
+        List<V4Vm> objects;
+        try (StringReader buffer = new StringReader(text); JsonReader reader = new JsonReader(buffer)) {
+            objects = V4JsonVmReader.readMany(reader, projection);
+        }
+        assertEquals(2, objects.size());
+        V4Vm object = objects.get(0);
+        assertNull(object.id());
+        assertNull(object.cpu());
+        assertNull(object.memory());
+        assertEquals("vm1", object.name());
+        assertEquals("vm1.example.com", object.fqdn());
+        assertEquals(1, object.disks().size());
+        assertNull(object.disks().get(0).id());
+        assertEquals("disk1", object.disks().get(0).alias());
+        assertEquals(0, object.properties().size());
+        assertEquals("vm2", objects.get(1).name());
+    }
+
+    /**
+     * Checks that unknown members are ignored, without affecting the members that come after them.
+     */
+    @Test
+    public void testUnknownMembersAreIgnored() {
+        V4Vm object = objectFromJson("{'junk':'x','more':{'a':[1,2]},'name':'myvm','other':[{}],'id':'123'}");
+        assertEquals("myvm", object.name());
+        assertEquals("123", object.id());
+    }
+
     /**
      * Converts the given JSON text to an object. Single quotes in the JSON text are replaced by double quotes before
      * performing the conversion, to simplify writing and reading the strings used by the texts.
@@ -0,0 +1,123 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.json.JsonReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.engine.api.json.V4JsonVmReader;
+import org.ovirt.engine.api.xml.V4XmlVmReader;
+
+/**
+ * Measures the time that the generated XML and JSON readers take to read documents containing many virtual machines
+ * with most of their members populated, which is dominated by the translation of the names of the members into the
+ * code that reads them.
+ */
+public class MemberDispatchPerformanceTest {
+    // The number of virtual machines in each document:
+    private static final int COUNT = 200_000;
+
+    // The number of times that each document will be read:
+    private static final int RUNS = 10;
+
+    /**
+     * Measures the time to read a large XML document. Note that the test is currently disabled because its results
+     * depend on the load of the machine, but it is still useful to run it manually, so please don't remove it.
+     */
+    @Test
+    @Ignore
+    public void testXml() {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("<vms>");
+        for (int i = 0; i < COUNT; i++) {
+            buffer.append("<vm id=\"").append(i).append("\">");
+            buffer.append("<name>vm").append(i).append("</name>");
+            buffer.append("<fqdn>vm").append(i).append(".example.com</fqdn>");
+            buffer.append("<memory>1073741824</memory>");
+            buffer.append("<creation_time>2016-01-17T17:18:23.123+01:00</creation_time>");
+            buffer.append("<delete_protected>false</delete_protected>");
+            buffer.append("<type>server</type>");
+            buffer.append("<run_once>true</run_once>");
+            buffer.append("<display_types><display_type>vnc</display_type></display_types>");
+            buffer.append("<properties><property>a</property><property>b</property></properties>");
+            buffer.append("<disks>");
+            buffer.append("<disk id=\"").append(i).append("\"><alias>disk1</alias></disk>");
+            buffer.append("</disks>");
+            buffer.append("<link rel=\"permissions\" href=\"/vms/").append(i).append("/permissions\"/>");
+            buffer.append("<link rel=\"tags\" href=\"/vms/").append(i).append("/tags\"/>");
+            buffer.append("</vm>");
+        }
+        buffer.append("</vms>");
+        byte[] document = buffer.toString().getBytes(StandardCharsets.UTF_8);
+
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long before = System.nanoTime();
+            try (XmlReader reader = new XmlReader(new ByteArrayInputStream(document))) {
+                assertEquals(COUNT, V4XmlVmReader.readMany(reader).size());
+            }
+            best = Math.min(best, System.nanoTime() - before);
+        }
+        System.out.printf("XML: %d ms, %d ns/vm%n", best / 1_000_000, best / COUNT);
+    }
+
+    /**
+     * Measures the time to read a large JSON document. Note that the test is currently disabled because its results
+     * depend on the load of the machine, but it is still useful to run it manually, so please don't remove it.
+     */
+    @Test
+    @Ignore
+    public void testJson() {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("[");
+        for (int i = 0; i < COUNT; i++) {
+            if (i > 0) {
+                buffer.append(",");
+            }
+            buffer.append("{");
+            buffer.append("'id':'").append(i).append("',");
+            buffer.append("'name':'vm").append(i).append("',");
+            buffer.append("'fqdn':'vm").append(i).append(".example.com',");
+            buffer.append("'memory':1073741824,");
+            buffer.append("'creation_time':'2016-01-17T17:18:23.123+01:00',");
+            buffer.append("'delete_protected':false,");
+            buffer.append("'type':'server',");
+            buffer.append("'run_once':true,");
+            buffer.append("'properties':['a','b'],");
+            buffer.append("'disks':[{'id':'").append(i).append("','alias':'disk1'}]");
+            buffer.append("}");
+        }
+        buffer.append("]");
+        byte[] document = buffer.toString().replace('\'', '"').getBytes(StandardCharsets.UTF_8);
+
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long before = System.nanoTime();
+            try (JsonReader reader = new JsonReader(new ByteArrayInputStream(document))) {
+                assertEquals(COUNT, V4JsonVmReader.readMany(reader).size());
+            }
+            best = Math.min(best, System.nanoTime() - before);
+        }
+        System.out.printf("JSON: %d ms, %d ns/vm%n", best / 1_000_000, best / COUNT);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import javax.xml.stream.XMLInputFactory;
+
+import org.junit.After;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlReaderConfig;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.xml.V4XmlVmReader;
+
+/**
+ * Tests for the configuration of the factory used by the XML reader.
+ */
+public class XmlReaderConfigTest {
+    // The document used for the tests:
+    private static final String VM =
+        "<vm id=\"123\">" +
+          "<name>myvm</name>" +
+          "<memory>1073741824</memory>" +
+          "<creation_time>2016-01-17T17:18:23.123+01:00</creation_time>" +
+          "<cpu><name>mycpu</name></cpu>" +
+          "<disks>" +
+            "<disk id=\"456\"><alias>disk1</alias></disk>" +
+            "<disk id=\"789\"><alias>disk2</alias></disk>" +
+          "</disks>" +
+          "<link rel=\"permissions\" href=\"/vms/123/permissions\"/>" +
+          "<link rel=\"tags\" href=\"/vms/123/tags\"/>" +
+        "</vm>";
+
+    /**
+     * Restores the default configuration, as the factory is shared by all the tests.
+     */
+    @After
+    public void restoreDefaults() {
+        XmlReader.configure(new XmlReaderConfig());
+    }
+
+    /**
+     * Checks that the first available factory class is used.
+     */
+    @Test
+    public void testFirstAvailableFactoryIsUsed() {
+        XmlReaderConfig config = new XmlReaderConfig();
+        config.addFactoryClassName("com.example.Missing");
+        config.addFactoryClassName(XmlReaderConfig.JDK);
+        XMLInputFactory factory = config.createFactory();
+        assertEquals(XmlReaderConfig.JDK, factory.getClass().getName());
+    }
+
+    /**
+     * Checks that if none of the factory classes is available the default factory is used.
+     */
+    @Test
+    public void testDefaultFactoryIsUsedIfNoneAvailable() {
+        XmlReaderConfig config = new XmlReaderConfig();
+        config.addFactoryClassName("com.example.Missing");
+        XMLInputFactory factory = config.createFactory();
+        assertNotNull(factory);
+    }
+
+    /**
+     * Checks that the properties are copied to the factory.
+     */
+    @Test
+    public void testPropertiesAreCopied() {
+        XmlReaderConfig config = new XmlReaderConfig();
+        config.addFactoryClassName(XmlReaderConfig.JDK);
+        config.setCoalescing(true);
+        XMLInputFactory factory = config.createFactory();
+        assertEquals(Boolean.TRUE, factory.getProperty(XMLInputFactory.IS_COALESCING));
+    }
+
+    /**
+     * Checks that properties not supported by the factory are ignored.
+     */
+    @Test
+    public void testUnsupportedPropertiesAreIgnored() {
+        XmlReaderConfig config = new XmlReaderConfig();
+        config.addFactoryClassName(XmlReaderConfig.JDK);
+        config.setProperty("com.example.junk", Boolean.TRUE);
+        assertNotNull(config.createFactory());
+    }
+
+    /**
+     * Checks that documents are read correctly with a configured factory.
+     */
+    @Test
+    public void testReadWithConfiguredFactory() {
+        XmlReaderConfig config = new XmlReaderConfig();
+        config.addFactoryClassName(XmlReaderConfig.JDK);
+        config.setCoalescing(true);
+        XmlReader.configure(config);
+        V4Vm vm = readVm();
+        assertEquals("123", vm.id());
+        assertEquals("myvm", vm.name());
+        assertEquals(2, vm.disks().size());
+        assertEquals("disk2", vm.disks().get(1).alias());
+    }
+
+    /**
+     * Compares the throughput of the implementation included in the JDK with the throughput of the Woodstox or Aalto
+     * implementations, if they are available in the class path. Note that the test is currently disabled because its
+     * results depend on the load of the machine and on the class path, but it is still useful to run it manually, so
+     * please don't remove it.
+     */
+    @Test
+    @Ignore
+    public void testThroughput() {
+        XmlReaderConfig jdkConfig = new XmlReaderConfig();
+        jdkConfig.addFactoryClassName(XmlReaderConfig.JDK);
+        XmlReaderConfig fastConfig = new XmlReaderConfig();
+        fastConfig.addFactoryClassName(XmlReaderConfig.AALTO);
+        fastConfig.addFactoryClassName(XmlReaderConfig.WOODSTOX);
+        fastConfig.setInterning(true);
+        String fastName = fastConfig.createFactory().getClass().getName();
+
+        // Run each configuration twice, and use only the second run, so that the first one warms up the virtual
+        // machine:
+        long jdkRate = 0;
+        long fastRate = 0;
+        for (int i = 0; i < 2; i++) {
+            XmlReader.configure(jdkConfig);
+            jdkRate = measureThroughput();
+            XmlReader.configure(fastConfig);
+            fastRate = measureThroughput();
+        }
+        System.out.printf("JDK: %d documents/s, %s: %d documents/s%n", jdkRate, fastName, fastRate);
+        assertTrue(jdkRate > 0 && fastRate > 0);
+    }
+
+    /**
+     * Reads the test document repeatedly during a fixed time and returns the number of documents read per second.
+     */
+    private long measureThroughput() {
+        long count = 0;
+        long before = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 1000; i++) {
+                readVm();
+            }
+            count += 1000;
+            elapsed = System.nanoTime() - before;
+        } while (elapsed < 5_000_000_000L);
+        return count * 1_000_000_000L / elapsed;
+    }
+
+    private V4Vm readVm() {
+        try (XmlReader reader = new XmlReader(new StringReader(VM))) {
+            return V4XmlVmReader.readOne(reader);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.engine.api.types.V4Vm;
+
+/**
+ * Measures the time that it takes to read the first {@code vm} document in a new virtual machine, which is dominated
+ * by the loading of the classes of the runtime and of the generated readers. Each measurement is done running the
+ * {@link #main(String[])} method of this class in a separate process, so that nothing is already loaded.
+ */
+public class XmlReaderStartupTest {
+    // The document that will be read:
+    private static final String VM =
+        "<vm id=\"123\">" +
+          "<name>myvm</name>" +
+          "<memory>1073741824</memory>" +
+          "<creation_time>2016-01-17T17:18:23.123+01:00</creation_time>" +
+          "<cpu><name>mycpu</name></cpu>" +
+          "<disks>" +
+            "<disk id=\"456\"><alias>disk1</alias></disk>" +
+          "</disks>" +
+          "<link rel=\"permissions\" href=\"/vms/123/permissions\"/>" +
+          "<link rel=\"tags\" href=\"/vms/123/tags\"/>" +
+        "</vm>";
+
+    // The number of processes that will be started:
+    private static final int RUNS = 10;
+
+    /**
+     * Reads the document and writes to the standard output the number of nanoseconds that it took.
+     */
+    public static void main(String[] args) {
+        long before = System.nanoTime();
+        V4Vm vm;
+        try (XmlReader reader = new XmlReader(new StringReader(VM))) {
+            vm = (V4Vm) reader.read();
+        }
+        long after = System.nanoTime();
+        if (!"myvm".equals(vm.name())) {
+            throw new IllegalStateException("Unexpected name \"" + vm.name() + "\"");
+        }
+        System.out.println(after - before);
+    }
+
+    /**
+     * Checks that the first document is read in a reasonable time. Note that the test is currently disabled because
+     * it starts multiple processes and its results depend on the load of the machine, but it is still useful to run
+     * it manually, so please don't remove it.
+     */
+    @Test
+    @Ignore
+    public void testTimeToFirstVm() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("java.class.path");
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", classPath, XmlReaderStartupTest.class.getName());
+            builder.redirectErrorStream(true);
+            Process process = builder.start();
+            String last = null;
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    last = line;
+                }
+            }
+            assertEquals(0, process.waitFor());
+            times[i] = Long.parseLong(last.trim());
+        }
+        Arrays.sort(times);
+        long min = times[0] / 1_000_000;
+        long median = times[RUNS / 2] / 1_000_000;
+        long max = times[RUNS - 1] / 1_000_000;
+        System.out.printf("Time to first vm: min %d ms, median %d ms, max %d ms%n", min, median, max);
+
+        // It should take much less, approx 100 ms, but lets be conservative:
+        assertTrue(median < 5_000);
+    }
+}
@@ -21,13 +21,21 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PipedReader;
 import java.io.PipedWriter;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
@@ -39,6 +47,7 @@ import javax.xml.stream.XMLStreamConstants;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.ovirt.api.metamodel.runtime.util.ListWithHref;
+import org.ovirt.api.metamodel.runtime.util.Projection;
 import org.ovirt.api.metamodel.runtime.xml.XmlException;
 import org.ovirt.api.metamodel.runtime.xml.XmlReader;
 import org.ovirt.engine.api.types.V4Disk;
@@ -360,6 +369,100 @@ public class XmlReaderTest {
         reader.readDecimal();
     }
 
+    /**
+     * Checks that the {@code readLong} method parses the extreme values of the {@code long} type.
+     */
+    @Test
+    public void testReadLong() {
+        assertEquals(Long.MAX_VALUE, openReader("<value>9223372036854775807</value>").readLong());
+        assertEquals(Long.MIN_VALUE, openReader("<value>-9223372036854775808</value>").readLong());
+        assertEquals(1073741824L, openReader("<value>+1073741824</value>").readLong());
+    }
+
+    /**
+     * Checks that the {@code readLong} method rejects values that don't fit in a {@code long}.
+     */
+    @Test(expected = XmlException.class)
+    public void testReadLongOverflowThrowsException() {
+        XmlReader reader = openReader("<value>9223372036854775808</value>");
+        reader.readLong();
+    }
+
+    /**
+     * Checks that {@code readLong} leaves the cursor positioned at the end element that contains the value.
+     */
+    @Test
+    public void testReadLongPositionsCursorAtEndTag() {
+        XmlReader reader = openReader("<root><value>0</value><next/></root>");
+        reader.next();
+        reader.readLong();
+        assertEquals(XMLStreamConstants.START_ELEMENT, reader.getEventType());
+        assertEquals("next", reader.getLocalName());
+    }
+
+    /**
+     * Checks that the {@code readInt} method parses values and rejects those that don't fit in an {@code int}.
+     */
+    @Test
+    public void testReadInt() {
+        assertEquals(Integer.MIN_VALUE, openReader("<value>-2147483648</value>").readInt());
+        try {
+            openReader("<value>2147483648</value>").readInt();
+            fail("Expected an exception");
+        }
+        catch (XmlException expected) {
+        }
+    }
+
+    /**
+     * Checks that the {@code readInt} method reports texts that aren't integers differently than integers that don't
+     * fit in an {@code int}.
+     */
+    @Test
+    public void testReadIntReportsInvalidText() {
+        try {
+            openReader("<value>abc</value>").readInt();
+            fail("Expected an exception");
+        }
+        catch (XmlException expected) {
+            assertEquals("The text \"abc\" isn't a valid integer value", expected.getMessage());
+        }
+        try {
+            openReader("<value>2147483648</value>").readInt();
+            fail("Expected an exception");
+        }
+        catch (XmlException expected) {
+            assertEquals("The text \"2147483648\" isn't a valid 32 bits integer value", expected.getMessage());
+        }
+        try {
+            openReader("<value>9223372036854775808</value>").readInt();
+            fail("Expected an exception");
+        }
+        catch (XmlException expected) {
+            assertEquals("The integer value 9223372036854775808 doesn't fit in 64 bits", expected.getMessage());
+        }
+    }
+
+    /**
+     * Checks that the {@code readDouble} method parses simple and complex values.
+     */
+    @Test
+    public void testReadDouble() {
+        assertEquals(0.1, openReader("<value>0.1</value>").readDouble(), 0.0);
+        assertEquals(-1.5, openReader("<value>-1.5</value>").readDouble(), 0.0);
+        assertEquals(1.5e300, openReader("<value>1.5e300</value>").readDouble(), 0.0);
+        assertEquals(3.141592653589793, openReader("<value>3.14159265358979323846</value>").readDouble(), 0.0);
+    }
+
+    /**
+     * Checks that given an invalid decimal value the {@code readDouble} method throws an exception.
+     */
+    @Test(expected = XmlException.class)
+    public void testReadDoubleInvalidValueThrowsException() {
+        XmlReader reader = openReader("<value>ugly</value>");
+        reader.readDouble();
+    }
+
     /**
      * Checks that {@code readString} methods returns an empty string for an empty tag.
      */
@@ -881,6 +984,21 @@ public class XmlReaderTest {
         assertEquals("456", vm.permissions().get(0).id());
     }
 
+    /**
+     * Checks that the 'href' of a link is preserved when the link appears before the element that contains the values.
+     */
+    @Test
+    public void testLinkHrefAttributeBeforeElement() {
+        V4Vm vm = objectFromXml(
+            "<vm><link rel=\"permissions\" href=\"123\"/><permissions><permission id=\"456\"/></permissions></vm>"
+        );
+        assertNotNull(vm);
+        assertTrue(vm.permissions() instanceof ListWithHref);
+        assertEquals("123", ((ListWithHref) vm.permissions()).href());
+        assertEquals(1, vm.permissions().size());
+        assertEquals("456", vm.permissions().get(0).id());
+    }
+
     /**
      * Checks that link element is read correctly if href is not present
      */
@@ -1023,6 +1141,205 @@ public class XmlReaderTest {
         }
     }
 
+    /**
+     * Checks that the generic {@code read} method selects the reader of a single object using the tag name.
+     */
+    @Test
+    public void testReadSelectsReaderForSingularTag() {
+        XmlReader reader = new XmlReader(new StringReader("<vm><name>myvm</name></vm>"));
+        Object result = reader.read();
+        assertTrue(result instanceof V4Vm);
+        assertEquals("myvm", ((V4Vm) result).name());
+    }
+
+    /**
+     * Checks that the generic {@code read} method selects the reader of a list of objects using the tag name.
+     */
+    @Test
+    public void testReadSelectsReaderForPluralTag() {
+        XmlReader reader = new XmlReader(new StringReader("<vms><vm id=\"123\"/><vm id=\"456\"/></vms>"));
+        Object result = reader.read();
+        assertTrue(result instanceof List);
+        List<?> list = (List<?>) result;
+        assertEquals(2, list.size());
+        assertEquals("123", ((V4Vm) list.get(0)).id());
+        assertEquals("456", ((V4Vm) list.get(1)).id());
+    }
+
+    /**
+     * Checks that the generic {@code read} method fails if there is no reader for the tag.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testReadFailsForUnknownTag() {
+        XmlReader reader = new XmlReader(new StringReader("<junk/>"));
+        reader.read();
+    }
+
+    /**
+     * Checks that a document is read correctly from an input stream, including non ASCII characters.
+     */
+    @Test
+    public void testReadFromInputStream() {
+        byte[] bytes = "<vm><name>m\u00e1quina</name></vm>".getBytes(StandardCharsets.UTF_8);
+        try (XmlReader reader = new XmlReader(new ByteArrayInputStream(bytes))) {
+            V4Vm vm = V4XmlVmReader.readOne(reader);
+            assertEquals("m\u00e1quina", vm.name());
+        }
+    }
+
+    /**
+     * Checks that a document is read correctly from a range of an array of bytes.
+     */
+    @Test
+    public void testReadFromByteArrayRange() {
+        byte[] bytes = "junk<vm><name>myvm</name></vm>junk".getBytes(StandardCharsets.UTF_8);
+        try (XmlReader reader = new XmlReader(bytes, 4, bytes.length - 8)) {
+            V4Vm vm = V4XmlVmReader.readOne(reader);
+            assertEquals("myvm", vm.name());
+        }
+    }
+
+    /**
+     * Checks that a document is read correctly from a byte buffer, and that the position of the buffer isn't
+     * modified.
+     */
+    @Test
+    public void testReadFromByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("<vm><name>myvm</name></vm>".getBytes(StandardCharsets.UTF_8));
+        try (XmlReader reader = new XmlReader(buffer)) {
+            V4Vm vm = V4XmlVmReader.readOne(reader);
+            assertEquals("myvm", vm.name());
+        }
+        assertEquals(0, buffer.position());
+    }
+
+    /**
+     * Checks that a document is read correctly from a file.
+     */
+    @Test
+    public void testReadFromFile() throws IOException {
+        File file = createTempFile("<vms><vm><name>myvm</name></vm></vms>");
+        try (XmlReader reader = new XmlReader(file)) {
+            List<V4Vm> vms = V4XmlVmReader.readMany(reader);
+            assertEquals(1, vms.size());
+            assertEquals("myvm", vms.get(0).name());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Checks that when the reader can't be created, for example because the prolog of the document is rejected, the
+     * file is closed. The open files are counted using the {@code /proc/self/fd} directory, so the test is skipped
+     * when it isn't available.
+     */
+    @Test
+    public void testFailedReadFromFileClosesFile() throws IOException {
+        File fdDir = new File("/proc/self/fd");
+        assumeTrue(fdDir.isDirectory());
+        File file = createTempFile("<?xml version=\"9.9\"?><vms/>");
+        try {
+            int before = fdDir.list().length;
+            for (int i = 0; i < 100; i++) {
+                try {
+                    new XmlReader(file);
+                    fail("Expected an exception");
+                }
+                catch (XmlException expected) {
+                }
+            }
+            int after = fdDir.list().length;
+            assertTrue(after - before < 10);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Checks that a document is read correctly from a memory mapped file.
+     */
+    @Test
+    public void testReadFromMappedFile() throws IOException {
+        File file = createTempFile("<vms><vm><name>myvm</name></vm><vm><name>yourvm</name></vm></vms>");
+        try (XmlReader reader = XmlReader.map(file)) {
+            List<V4Vm> vms = V4XmlVmReader.readMany(reader);
+            assertEquals(2, vms.size());
+            assertEquals("myvm", vms.get(0).name());
+            assertEquals("yourvm", vms.get(1).name());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Creates a temporary file containing the given text, encoded using UTF-8.
+     */
+    private File createTempFile(String text) throws IOException {
+        File file = File.createTempFile("test", ".xml");
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    /**
+     * Checks that when a projection is used only the selected members are read, including nested members and links.
+     */
+    @Test
+    public void testProjection() {
+        String text =
+            "<vm id=\"123\">" +
+              "<name>myvm</name>" +
+              "<fqdn>myvm.example.com</fqdn>" +
+              "<memory>1024</memory>" +
+              "<cpu/>" +
+              "<disks><disk id=\"456\"><alias>disk1</alias></disk></disks>" +
+              "<link rel=\"permissions\" href=\"/vms/123/permissions\"/>" +
+              "<link rel=\"tags\" href=\"/vms/123/tags\"/>" +
+            "</vm>";
+        Projection projection = Projection.of("id", "name", "disks.alias", "tags");
+        V4Vm object;
+        try (XmlReader reader = new XmlReader(new StringReader(text))) {
+            object = V4XmlVmReader.readOne(reader, projection);
+        }
+        assertEquals("123", object.id());
+        assertEquals("myvm", object.name());
+        assertNull(object.fqdn());
+        assertNull(object.memory());
+        assertNull(object.cpu());
+        assertEquals(1, object.disks().size());
+        assertNull(object.disks().get(0).id());
+        assertEquals("disk1", object.disks().get(0).alias());
+        assertFalse(object.permissionsPresent());
+        assertEquals("/vms/123/tags", ((ListWithHref) object.tags()).href());
+    }
+
+    /**
+     * Checks that the projection is applied to all the elements of a collection.
+     */
+    @Test
+    public void testProjectionMany() {
+        String text =
+            "<vms>" +
+              "<vm id=\"123\"><name>vm1</name><disks><disk id=\"1\"><alias>disk1</alias></disk></disks></vm>" +
+              "<vm id=\"456\"><name>vm2</name><disks><disk id=\"2\"><alias>disk2</alias></disk></disks></vm>" +
+            "</vms>";
+        List<V4Vm> objects;
+        try (XmlReader reader = new XmlReader(new StringReader(text))) {
+            objects = V4XmlVmReader.readMany(reader, Projection.of("disks"));
+        }
+        assertEquals(2, objects.size());
+        assertNull(objects.get(0).id());
+        assertNull(objects.get(0).name());
+        assertEquals("1", objects.get(0).disks().get(0).id());
+        assertEquals("disk1", objects.get(0).disks().get(0).alias());
+        assertEquals("2", objects.get(1).disks().get(0).id());
+        assertEquals("disk2", objects.get(1).disks().get(0).alias());
+    }
+
     /**
      * Opens a cursor for reading the given XML text and positions it in the first event.
      */
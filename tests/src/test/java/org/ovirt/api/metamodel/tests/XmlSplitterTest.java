@@ -0,0 +1,149 @@
+/*
+Copyright (c) 2016 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tests;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.xml.XmlException;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlSplitter;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.xml.V4XmlVmReader;
+
+/**
+ * Tests for the {@link XmlSplitter} class.
+ */
+public class XmlSplitterTest {
+    /**
+     * Checks that splitting a document and reading the parts gives the same objects, in the same order, than reading
+     * the complete document.
+     */
+    @Test
+    public void testSplitPreservesOrder() {
+        byte[] document = createDocument(100);
+        for (int parts = 1; parts <= 8; parts++) {
+            List<XmlReader> readers = XmlSplitter.split(document, parts);
+            assertTrue(readers.size() <= parts);
+            List<String> names = readNames(readers);
+            assertEquals(100, names.size());
+            for (int i = 0; i < names.size(); i++) {
+                assertEquals("vm" + i, names.get(i));
+            }
+        }
+    }
+
+    /**
+     * Checks that the splitter isn't confused by markup that looks like elements, like comments, processing
+     * instructions, {@code CDATA} sections or attribute values containing greater than signs.
+     */
+    @Test
+    public void testSplitIgnoresMarkupInsideOtherConstructs() {
+        String text =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<!DOCTYPE vms [<!ENTITY x \"y\">]>" +
+            "<!-- <vm><name>comment</name></vm> -->" +
+            "<vms>" +
+              "<vm id=\"a>b\"><name>vm0</name></vm>" +
+              "<!-- <vm> -->" +
+              "<?pi <vm>?>" +
+              "<vm id='c/>'><name><![CDATA[vm1</vm><vm>]]></name></vm>" +
+              "<vm/>" +
+              "<vm><disks><disk><alias>disk</alias></disk></disks><name>vm3</name></vm>" +
+            "</vms>";
+        List<XmlReader> readers = XmlSplitter.split(text.getBytes(StandardCharsets.UTF_8), 4);
+        assertTrue(readers.size() > 1);
+        List<String> names = readNames(readers);
+        assertEquals(4, names.size());
+        assertEquals("vm0", names.get(0));
+        assertEquals("vm1</vm><vm>", names.get(1));
+        assertEquals(null, names.get(2));
+        assertEquals("vm3", names.get(3));
+    }
+
+    /**
+     * Checks that a document without children returns one reader that reads an empty list.
+     */
+    @Test
+    public void testSplitEmptyCollection() {
+        for (String text : new String[] { "<vms/>", "<vms></vms>" }) {
+            List<XmlReader> readers = XmlSplitter.split(text.getBytes(StandardCharsets.UTF_8), 4);
+            assertEquals(1, readers.size());
+            assertEquals(0, readNames(readers).size());
+        }
+    }
+
+    /**
+     * Checks that the position of the buffer isn't modified.
+     */
+    @Test
+    public void testSplitDoesNotModifyBufferPosition() {
+        ByteBuffer buffer = ByteBuffer.wrap(createDocument(10));
+        List<XmlReader> readers = XmlSplitter.split(buffer, 2);
+        assertEquals(0, buffer.position());
+        assertEquals(10, readNames(readers).size());
+    }
+
+    /**
+     * Checks that a truncated document is rejected.
+     */
+    @Test(expected = XmlException.class)
+    public void testSplitTruncatedDocumentThrowsException() {
+        XmlSplitter.split("<vms><vm><name>vm0</name></vm>".getBytes(StandardCharsets.UTF_8), 2);
+    }
+
+    /**
+     * Checks that a document truncated inside the end tag of a child is rejected, instead of scanning it again from
+     * the beginning.
+     */
+    @Test(expected = XmlException.class, timeout = 10_000)
+    public void testSplitTruncatedEndTagThrowsException() {
+        XmlSplitter.split("<vms><vm>x</vm".getBytes(StandardCharsets.UTF_8), 2);
+    }
+
+    private static byte[] createDocument(int count) {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("<vms>\n");
+        for (int i = 0; i < count; i++) {
+            buffer.append("  <vm id=\"").append(i).append("\">");
+            buffer.append("<name>vm").append(i).append("</name>");
+            buffer.append("<memory>1073741824</memory>");
+            buffer.append("<creation_time>2016-01-17T17:18:23.123+01:00</creation_time>");
+            buffer.append("<disks><disk id=\"").append(i).append("\"><alias>disk</alias></disk></disks>");
+            buffer.append("</vm>\n");
+        }
+        buffer.append("</vms>\n");
+        return buffer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readNames(List<XmlReader> readers) {
+        List<String> names = new ArrayList<>();
+        for (XmlReader reader : readers) {
+            try (XmlReader current = reader) {
+                names.addAll(V4XmlVmReader.readMany(current).stream().map(V4Vm::name).collect(toList()));
+            }
+        }
+        return names;
+    }
+}
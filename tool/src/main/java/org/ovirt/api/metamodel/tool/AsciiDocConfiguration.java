@@ -22,7 +22,8 @@ import javax.enterprise.context.ApplicationScoped;
 import org.asciidoctor.Attributes;
 
 /**
- * This class stores the configuration used to generate AsciiDoc text.
+ * This class stores the configuration used to generate AsciiDoc text. The configuration should be completed before
+ * starting the generators, after that it is only read, so it can be used by generators running in different threads.
  */
 @ApplicationScoped
 public class AsciiDocConfiguration {
@@ -40,6 +40,7 @@ public class EnumGenerationToolJaxb {
     private static final String XJC_OPTION = "xjc";
 
     @Inject private EnumGeneratorJaxb enumGenerator;
+    @Inject private GeneratedFiles generatedFiles;
 
     public void run(String[] args) throws Exception {
 
@@ -53,12 +54,15 @@ public class EnumGenerationToolJaxb {
         ModelAnalyzer modelAnalyzer = new ModelAnalyzer();
         modelAnalyzer.setModel(model);
         modelAnalyzer.analyzeSource(modelFile);
+        model.freeze();
 
         // Generate the enums:
         if (xjcDir != null) {
             FileUtils.forceMkdir(xjcDir);
             enumGenerator.setOutDir(xjcDir);
+            generatedFiles.setManifestName(GeneratedFiles.MANIFEST_NAME + "-" + XJC_OPTION);
             enumGenerator.generate(model);
+            generatedFiles.finish();
         }
     }
 
@@ -1,7 +1,6 @@
 package org.ovirt.api.metamodel.tool;
 
 import static java.lang.String.join;
-import static java.util.stream.Collectors.joining;
 
 import java.io.IOException;
 import java.util.Iterator;
@@ -40,7 +39,7 @@ public class EnumGeneratorJaxb extends JavaGenerator {
         javaBuffer.setClassName(enumName);
         generateEnumSource(type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         } catch (IOException exception) {
             exception.printStackTrace();
         }
@@ -155,7 +154,7 @@ public class EnumGeneratorJaxb extends JavaGenerator {
     }
 
     private String getValueText(EnumValue value) {
-        return value.getName().words().map(String::toLowerCase).collect(joining("_"));
+        return value.getName().getLowerJoined("_");
     }
 
     private void writeClassClose() {
@@ -0,0 +1,172 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * This class keeps track of the files generated in each output directory. Files are only written when their content
+ * is different to the content of the existing file, so that the modification time of files that didn't change is
+ * preserved and tools that use it, like incremental compilers, don't process them again. When the generation is
+ * finished the {@link #finish()} method deletes the files that were generated by the previous run but not by this one,
+ * and saves the list of generated files to a manifest file inside each output directory, to be used by the next run.
+ *
+ * Different executions of the tool may share an output directory, for example one that generates the JAX-RS
+ * interfaces and another that generates the types into the same directory. In order to avoid deleting the files
+ * generated by each other they should use different manifest names, see {@link #setManifestName(String)}.
+ *
+ * The methods of this class can be called simultaneously from multiple threads.
+ */
+@ApplicationScoped
+public class GeneratedFiles {
+    /**
+     * The name of the manifest file that contains the list of files generated in an output directory, relative to
+     * that directory.
+     */
+    public static final String MANIFEST_NAME = ".generated-files";
+
+    // The name of the manifest file used by this run:
+    private String manifestName = MANIFEST_NAME;
+
+    // The relative paths of the files generated in each output directory:
+    private final Map<File, Set<String>> paths = new ConcurrentHashMap<>();
+
+    // The counters of files written and skipped because their content didn't change:
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    /**
+     * Sets the name of the manifest file used by this run, relative to each output directory. Only the files listed
+     * in the manifest with this name are deleted, so runs that use different names never delete each other's files.
+     * The default is {@link #MANIFEST_NAME}.
+     *
+     * @param newManifestName the name of the manifest file
+     * @throws IllegalArgumentException if the name is empty or contains a path separator
+     */
+    public void setManifestName(String newManifestName) {
+        if (newManifestName.isEmpty() || newManifestName.contains("/") || newManifestName.contains(File.separator)) {
+            throw new IllegalArgumentException(
+                "The manifest name \"" + newManifestName + "\" should be a non empty file name without directories"
+            );
+        }
+        manifestName = newManifestName;
+    }
+
+    /**
+     * Returns the name of the manifest file used by this run.
+     */
+    public String getManifestName() {
+        return manifestName;
+    }
+
+    /**
+     * Writes a generated file, unless it already exists and has exactly the same content.
+     *
+     * @param outDir the output directory
+     * @param path the path of the file, relative to the output directory, using forward slashes as separators
+     * @param content the content of the file, that will be encoded using UTF-8
+     * @return {@code true} if the file was written, {@code false} if it was skipped because it didn't change
+     * @throws IOException if something fails while reading, creating or writing the file
+     */
+    public boolean write(File outDir, String path, String content) throws IOException {
+        paths.computeIfAbsent(outDir.getAbsoluteFile(), x -> ConcurrentHashMap.newKeySet()).add(path);
+        File file = new File(outDir, path);
+        byte[] bytes = content.getBytes(UTF_8);
+        if (isUnchanged(file, bytes)) {
+            skipped.incrementAndGet();
+            return false;
+        }
+        FileUtils.forceMkdir(file.getParentFile());
+        Files.write(file.toPath(), bytes);
+        written.incrementAndGet();
+        return true;
+    }
+
+    private boolean isUnchanged(File file, byte[] bytes) throws IOException {
+        // Checking the length first avoids reading the file in most cases where it did change:
+        return
+            file.isFile() &&
+            file.length() == bytes.length &&
+            Arrays.equals(Files.readAllBytes(file.toPath()), bytes);
+    }
+
+    /**
+     * Deletes the files that were listed in the manifest of each output directory, with the name set for this run,
+     * but haven't been generated by this run, saves the new manifests, and writes a summary of the results to the
+     * standard output. This should be called once, after all the files have been generated.
+     *
+     * @throws IOException if something fails while reading or writing the manifests
+     */
+    public void finish() throws IOException {
+        int deleted = 0;
+        for (Map.Entry<File, Set<String>> entry : new TreeMap<>(paths).entrySet()) {
+            File outDir = entry.getKey();
+            Set<String> current = new TreeSet<>(entry.getValue());
+            File manifest = new File(outDir, manifestName);
+
+            // Delete the files that were generated previously but not now. Note that only files that appear in the
+            // manifest are deleted, and the manifest only contains files that were generated, so files created by
+            // other means are never deleted.
+            for (String path : readManifest(manifest)) {
+                if (!current.contains(path)) {
+                    File stale = new File(outDir, path);
+                    if (stale.isFile() && stale.delete()) {
+                        deleted++;
+                    }
+                }
+            }
+
+            // Save the new manifest:
+            Files.write(manifest.toPath(), current, UTF_8);
+        }
+        System.out.printf(
+            "Generated files: %d written, %d unchanged, %d deleted.%n",
+            written.get(), skipped.get(), deleted
+        );
+    }
+
+    private List<String> readManifest(File manifest) throws IOException {
+        if (!manifest.isFile()) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest.toPath(), UTF_8)) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+}
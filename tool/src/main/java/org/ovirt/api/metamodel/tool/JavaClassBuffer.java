@@ -17,11 +17,7 @@ limitations under the License.
 package org.ovirt.api.metamodel.tool;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Formatter;
@@ -30,8 +26,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
-import org.apache.commons.io.FileUtils;
-
 /**
  * This class is a buffer intended to simplify generation of Java source code. It stores the name of the package, the
  * list of imports and the rest of the source separately, so that imports can be added on demand while generating the
@@ -243,26 +237,15 @@ public class JavaClassBuffer {
 
     /**
      * Creates a {@code .java} source file for this class taking into account the package name, and writes the source
-     * code of the class to that file. The required intermediate directories will be created if they don't exist.
+     * code of the class to that file, unless it already exists and has the same content. The required intermediate
+     * directories will be created if they don't exist.
      *
      * @param outDir the base directory for the source code
+     * @param files the object that keeps track of the generated files
      * @throws IOException if something fails while creating or writing the file
      */
-    public void write(File outDir) throws IOException {
-        // Create the package directory and all its parent if needed:
-        File packageDir = new File(outDir, className.getPackageName().replace('.', File.separatorChar));
-        FileUtils.forceMkdir(packageDir);
-        if (!packageDir.exists()) {
-            if (!packageDir.mkdirs()) {
-                throw new IOException("Can't create directory \"" + packageDir.getAbsolutePath() + "\"");
-            }
-        }
-
-        // Write the class file:
-        File classFile = new File(packageDir, className.getSimpleName() + ".java");
-        System.out.println("Writing class file \"" + classFile.getAbsolutePath() + "\".");
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(classFile), Charset.forName("UTF-8"))) {
-            writer.write(toString());
-        }
+    public void write(File outDir, GeneratedFiles files) throws IOException {
+        String path = className.getPackageName().replace('.', '/') + "/" + className.getSimpleName() + ".java";
+        files.write(outDir, path, toString());
     }
 }
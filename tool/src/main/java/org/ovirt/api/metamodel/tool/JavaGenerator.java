@@ -20,6 +20,8 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
+import javax.inject.Inject;
 
 import org.ovirt.api.metamodel.concepts.Concept;
 import org.ovirt.api.metamodel.concepts.Model;
@@ -37,6 +39,12 @@ public abstract class JavaGenerator {
     // The directory were the resources file will be generated:
     protected File resourcesDir;
 
+    // Indicates if the classes of different concepts of the model can be generated in parallel:
+    protected boolean parallel;
+
+    // Reference to the object that keeps track of the generated files:
+    @Inject protected GeneratedFiles generatedFiles;
+
     /**
      * Set the directory were the output will be generated.
      */
@@ -51,12 +59,33 @@ public abstract class JavaGenerator {
         resourcesDir = newResourcesDir;
     }
 
+    /**
+     * Enables or disables the generation of the classes of different concepts of the model in parallel. Generators
+     * that support it create a new buffer for each class, instead of using the {@link #javaBuffer} field, so that
+     * they can generate multiple classes simultaneously. When enabled the work is done by the fork-join pool of the
+     * calling thread, or by the common pool if the calling thread isn't part of a pool.
+     */
+    public void setParallel(boolean newParallel) {
+        parallel = newParallel;
+    }
+
+    /**
+     * Returns the given stream, converted to a parallel stream if parallel generation is enabled.
+     */
+    protected <T> Stream<T> parallelIfEnabled(Stream<T> stream) {
+        return parallel? stream.parallel(): stream;
+    }
+
     /**
      * Generate the code for the given model.
      */
     public abstract void generate(Model model);
 
     protected void generateDoc(Concept concept) {
+        generateDoc(javaBuffer, concept);
+    }
+
+    protected void generateDoc(JavaClassBuffer javaBuffer, Concept concept) {
         List<String> lines = new ArrayList<>();
         String doc = concept.getDoc();
         if (doc != null) {
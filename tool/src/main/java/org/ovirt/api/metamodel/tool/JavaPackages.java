@@ -26,7 +26,9 @@ import org.ovirt.api.metamodel.concepts.Module;
 import org.ovirt.api.metamodel.concepts.Name;
 
 /**
- * This class contains the rules used to calculate the names of generated Java packages.
+ * This class contains the rules used to calculate the names of generated Java packages. The rules should be
+ * configured before starting the generators, after that they are only read, so this object can be used by generators
+ * running in different threads.
  */
 @ApplicationScoped
 public class JavaPackages {
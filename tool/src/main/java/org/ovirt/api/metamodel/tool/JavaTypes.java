@@ -88,6 +88,11 @@ public interface JavaTypes {
      */
     JavaClassName getXmlReaderName(Type type);
 
+    /**
+     * Calculates the name of the class that selects the XML reader to use for each tag.
+     */
+    JavaClassName getXmlReaderRegistryName();
+
     /**
      * Calculates the name of the base class of all the XML writers.
      */
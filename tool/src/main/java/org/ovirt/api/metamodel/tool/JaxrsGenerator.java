@@ -122,7 +122,7 @@ public class JaxrsGenerator extends JavaGenerator {
         javaBuffer.setClassName(interfaceName);
         generateInterfaceSource(service, interfaceName);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             exception.printStackTrace();
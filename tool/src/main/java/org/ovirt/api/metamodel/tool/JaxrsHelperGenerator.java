@@ -71,7 +71,7 @@ public class JaxrsHelperGenerator extends JavaGenerator {
         serviceMethods.forEach(x -> generateHelperCode(x));
         javaBuffer.addLine("}");
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             exception.printStackTrace();
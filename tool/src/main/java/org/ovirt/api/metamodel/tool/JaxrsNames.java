@@ -16,8 +16,6 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.tool;
 
-import static java.util.stream.Collectors.joining;
-
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -88,7 +86,7 @@ public class JaxrsNames {
      * {@code commitSnapshot} then the returned string will be {@code commitsnapshot}.
      */
     public String getActionPath(Name name) {
-        return name.words().map(String::toLowerCase).collect(joining());
+        return name.getLowerJoined("");
     }
 
     /**
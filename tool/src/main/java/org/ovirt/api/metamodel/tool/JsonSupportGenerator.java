@@ -16,6 +16,8 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.tool;
 
+import static java.util.stream.Collectors.toList;
+
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -35,6 +37,7 @@ import org.ovirt.api.metamodel.concepts.StructType;
 import org.ovirt.api.metamodel.concepts.Type;
 import org.ovirt.api.metamodel.runtime.json.JsonReader;
 import org.ovirt.api.metamodel.runtime.json.JsonWriter;
+import org.ovirt.api.metamodel.runtime.util.Projection;
 
 /**
  * This class generates the XML readers and writers.
@@ -60,15 +63,18 @@ public class JsonSupportGenerator extends JavaGenerator {
     // Reference to the object used to calculate XML schema names:
     @Inject private SchemaNames schemaNames;
 
+    // Reference to the object used to generate the methods that translate names into indexes:
+    @Inject private NameDispatchGenerator nameDispatchGenerator;
+
     public void generate(Model model) {
         // Generate classes for each type:
-        model.types()
+        parallelIfEnabled(model.types())
             .filter(StructType.class::isInstance)
             .map(StructType.class::cast)
             .forEach(this::generateStructSupportClasses);
 
         // Generate classes for each enum type:
-        model.types()
+        parallelIfEnabled(model.types())
             .filter(EnumType.class::isInstance)
             .map(EnumType.class::cast)
             .forEach(this::generateEnumSupportClasses);
@@ -85,34 +91,35 @@ public class JsonSupportGenerator extends JavaGenerator {
     }
 
     private void generateStructReader(StructType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName readerName = javaTypes.getJsonReaderName(type);
         javaBuffer.setClassName(readerName);
-        generateStructReaderSource(type);
+        generateStructReaderSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for JSON reader \"" + readerName + "\"", exception);
         }
     }
 
-    private void generateStructReaderSource(StructType type) {
+    private void generateStructReaderSource(JavaClassBuffer javaBuffer, StructType type) {
         // Begin class:
         JavaClassName readerName = javaTypes.getJsonReaderName(type);
         javaBuffer.addLine("public class %1$s {", readerName.getSimpleName());
         javaBuffer.addLine();
 
         // Generate methods to read one instance and a list of instances:
-        generateStructReadOne(type);
-        generateStructReadMany(type);
+        generateStructReadOne(javaBuffer, type);
+        generateStructReadMany(javaBuffer, type);
+        generateStructIndexOf(javaBuffer, type);
 
         // End class:
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateStructReadOne(StructType type) {
+    private void generateStructReadOne(JavaClassBuffer javaBuffer, StructType type) {
         // Get the type and container name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
         JavaClassName containerName = javaTypes.getContainerName(type);
@@ -122,34 +129,54 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addImport(containerName);
         javaBuffer.addImport(JsonParser.class);
         javaBuffer.addImport(JsonReader.class);
+        javaBuffer.addImport(Projection.class);
 
         // Generate the that assumes that parsing of the object hasn't started yet, so it will expect the start of the
         // object as the first event:
         javaBuffer.addLine("public static %1$s readOne(JsonReader reader) {", typeName.getSimpleName());
-        javaBuffer.addLine(  "return readOne(reader, false);");
+        javaBuffer.addLine(  "return readOne(reader, false, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("public static %1$s readOne(JsonReader reader, Projection projection) {",
+            typeName.getSimpleName());
+        javaBuffer.addLine(  "return readOne(reader, false, projection);");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
         // Generate the method that receives a boolean parameter indicating if parsing of the object has already
         // started. In that case the start event will have been consumed already.
-        List<StructMember> members = new ArrayList<>();
-        members.addAll(type.getAttributes());
-        members.addAll(type.getLinks());
         javaBuffer.addLine("public static %1$s readOne(JsonReader reader, boolean started) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readOne(reader, started, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the method that does the actual work, reading only the members selected by the projection, or all
+        // of them if the projection is null:
+        List<StructMember> members = getMembers(type);
+        javaBuffer.addLine(
+            "public static %1$s readOne(JsonReader reader, boolean started, Projection projection) {",
+            typeName.getSimpleName()
+        );
         javaBuffer.addLine(  "if (!started) {");
         javaBuffer.addLine(    "reader.expect(JsonParser.Event.START_OBJECT);");
         javaBuffer.addLine(  "}");
         javaBuffer.addLine(  "%1$s object = new %1$s();", containerName.getSimpleName());
         javaBuffer.addLine(  "while (reader.next() == JsonParser.Event.KEY_NAME) {");
         if (members.isEmpty()) {
-            javaBuffer.addLine("reader.skip();");
+            javaBuffer.addLine("reader.skipValue();");
         }
         else {
             javaBuffer.addLine("String name = reader.getString();");
-            javaBuffer.addLine("switch (name) {");
-            members.stream().sorted().forEach(this::generateStructReadMember);
+            javaBuffer.addLine("if (projection != null && !projection.includes(name)) {");
+            javaBuffer.addLine(  "reader.skipValue();");
+            javaBuffer.addLine(  "continue;");
+            javaBuffer.addLine("}");
+            javaBuffer.addLine("switch (indexOfMember(name)) {");
+            for (int i = 0; i < members.size(); i++) {
+                generateStructReadMember(javaBuffer, members.get(i), i);
+            }
             javaBuffer.addLine("default:");
-            javaBuffer.addLine(  "reader.skip();");
+            javaBuffer.addLine(  "reader.skipValue();");
             javaBuffer.addLine("}");
         }
         javaBuffer.addLine(  "}");
@@ -158,12 +185,31 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
     }
 
-    private void generateStructReadMember(StructMember member) {
+    private void generateStructIndexOf(JavaClassBuffer javaBuffer, StructType type) {
+        // Generate the method that translates the names of the members into the indexes used in the switch
+        // statement of the readOne method:
+        List<StructMember> members = getMembers(type);
+        if (!members.isEmpty()) {
+            List<String> tags = members.stream()
+                .map(x -> schemaNames.getSchemaTagName(x.getName()))
+                .collect(toList());
+            javaBuffer.addLine();
+            nameDispatchGenerator.generateIndexMethod(javaBuffer, "indexOfMember", tags);
+        }
+    }
+
+    private List<StructMember> getMembers(StructType type) {
+        return Stream.concat(type.attributes(), type.links())
+            .sorted()
+            .collect(toList());
+    }
+
+    private void generateStructReadMember(JavaClassBuffer javaBuffer, StructMember member, int index) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("case \"%1$s\":", tag);
+        javaBuffer.addLine("case %1$d: // %2$s", index, tag);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
             if (type == model.getBooleanType()) {
@@ -182,10 +228,18 @@ public class JsonSupportGenerator extends JavaGenerator {
                 javaBuffer.addLine("object.%1$s(reader.readDate());", field);
             }
             else {
-                javaBuffer.addLine("reader.skip();");
+                javaBuffer.addLine("reader.skipValue();");
             }
         }
-        else if (type instanceof StructType || type instanceof EnumType) {
+        else if (type instanceof StructType) {
+            JavaClassName readerName = javaTypes.getJsonReaderName(type);
+            javaBuffer.addImport(readerName);
+            javaBuffer.addLine(
+                "object.%1$s(%2$s.readOne(reader, projection != null? projection.get(\"%3$s\"): null));",
+                field, readerName.getSimpleName(), tag
+            );
+        }
+        else if (type instanceof EnumType) {
             JavaClassName readerName = javaTypes.getJsonReaderName(type);
             javaBuffer.addImport(readerName);
             javaBuffer.addLine("object.%1$s(%2$s.readOne(reader));", field, readerName.getSimpleName());
@@ -195,7 +249,13 @@ public class JsonSupportGenerator extends JavaGenerator {
             Type elementType = listType.getElementType();
             JavaClassName readerName = javaTypes.getJsonReaderName(elementType);
             javaBuffer.addImport(readerName);
-            if (elementType instanceof StructType || elementType instanceof EnumType) {
+            if (elementType instanceof StructType) {
+                javaBuffer.addLine(
+                    "object.%1$s(%2$s.readMany(reader, projection != null? projection.get(\"%3$s\"): null));",
+                    field, readerName.getSimpleName(), tag
+                );
+            }
+            else if (elementType instanceof EnumType) {
                 javaBuffer.addLine("object.%1$s(%2$s.readMany(reader));", field, readerName.getSimpleName());
             }
             else if(elementType instanceof PrimitiveType) {
@@ -216,17 +276,17 @@ public class JsonSupportGenerator extends JavaGenerator {
                     javaBuffer.addLine("object.%1$s(reader.readDates());", field);
                 }
                 else {
-                    javaBuffer.addLine("reader.skip();");
+                    javaBuffer.addLine("reader.skipValue();");
                 }
             }
         }
         else {
-            javaBuffer.addLine("reader.skip();");
+            javaBuffer.addLine("reader.skipValue();");
         }
         javaBuffer.addLine("break;");
     }
 
-    private void generateStructReadMany(StructType type) {
+    private void generateStructReadMany(JavaClassBuffer javaBuffer, StructType type) {
         // Get the type name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
 
@@ -236,10 +296,25 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addImport(JsonParser.class);
         javaBuffer.addImport(JsonReader.class);
         javaBuffer.addImport(NoSuchElementException.class);
+        javaBuffer.addImport(Projection.class);
         javaBuffer.addLine("public static Iterator<%1$s> iterateMany(JsonReader reader) {",
             typeName.getSimpleName());
+        javaBuffer.addLine(  "return iterateMany(reader, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine(
+            "public static Iterator<%1$s> iterateMany(final JsonReader reader, final Projection projection) {",
+            typeName.getSimpleName()
+        );
         javaBuffer.addLine(  "return new Iterator<%1$s>() {", typeName.getSimpleName());
         javaBuffer.addLine(    "private boolean first = true;");
+        javaBuffer.addLine(    "private boolean pending = false;");
+        javaBuffer.addLine(    "private boolean done = false;");
+        javaBuffer.addLine();
+        javaBuffer.addLine(    "@Override");
+        javaBuffer.addLine(    "public void remove() {");
+        javaBuffer.addLine(      "// Empty on purpose");
+        javaBuffer.addLine(    "}");
         javaBuffer.addLine();
         javaBuffer.addLine(    "@Override");
         javaBuffer.addLine(    "public boolean hasNext() {");
@@ -247,16 +322,27 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addLine(        "reader.expect(JsonParser.Event.START_ARRAY);");
         javaBuffer.addLine(        "first = false;");
         javaBuffer.addLine(      "}");
-        javaBuffer.addLine(      "return reader.next() == JsonParser.Event.START_OBJECT;");
+        javaBuffer.addLine(      "if (!pending && !done) {");
+        javaBuffer.addLine(        "JsonParser.Event event = reader.next();");
+        javaBuffer.addLine(        "while (event != JsonParser.Event.START_OBJECT && event != JsonParser.Event.END_ARRAY) {");
+        javaBuffer.addLine(          "if (event == JsonParser.Event.START_ARRAY) {");
+        javaBuffer.addLine(            "reader.skip();");
+        javaBuffer.addLine(          "}");
+        javaBuffer.addLine(          "event = reader.next();");
+        javaBuffer.addLine(        "}");
+        javaBuffer.addLine(        "pending = event == JsonParser.Event.START_OBJECT;");
+        javaBuffer.addLine(        "done = !pending;");
+        javaBuffer.addLine(      "}");
+        javaBuffer.addLine(      "return pending;");
         javaBuffer.addLine(    "}");
         javaBuffer.addLine();
         javaBuffer.addLine(    "@Override");
         javaBuffer.addLine(    "public %1$s next() {", typeName.getSimpleName());
-        javaBuffer.addLine(      "%1$s next = readOne(reader, true);", typeName.getSimpleName());
-        javaBuffer.addLine(      "if (next == null) {");
+        javaBuffer.addLine(      "if (!hasNext()) {");
         javaBuffer.addLine(        "throw new NoSuchElementException();");
         javaBuffer.addLine(      "}");
-        javaBuffer.addLine(      "return next;");
+        javaBuffer.addLine(      "pending = false;");
+        javaBuffer.addLine(      "return readOne(reader, true, projection);");
         javaBuffer.addLine(    "}");
         javaBuffer.addLine(  "};");
         javaBuffer.addLine("}");
@@ -269,8 +355,13 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addImport(JsonReader.class);
         javaBuffer.addImport(List.class);
         javaBuffer.addLine("public static List<%1$s> readMany(JsonReader reader) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readMany(reader, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("public static List<%1$s> readMany(JsonReader reader, Projection projection) {",
+            typeName.getSimpleName());
         javaBuffer.addLine(  "List<%1$s> list = new ArrayList<>();", typeName.getSimpleName());
-        javaBuffer.addLine(  "Iterator<%1$s> iterator = iterateMany(reader);", typeName.getSimpleName());
+        javaBuffer.addLine(  "Iterator<%1$s> iterator = iterateMany(reader, projection);", typeName.getSimpleName());
         javaBuffer.addLine(  "while (iterator.hasNext()) {");
         javaBuffer.addLine(    "list.add(iterator.next());");
         javaBuffer.addLine(  "}");
@@ -279,7 +370,7 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
     }
 
-    private void generateEnumReadMany(EnumType type) {
+    private void generateEnumReadMany(JavaClassBuffer javaBuffer, EnumType type) {
         // Get the type name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
 
@@ -318,33 +409,33 @@ public class JsonSupportGenerator extends JavaGenerator {
     }
 
     private void generateEnumReader(EnumType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName readerName = javaTypes.getJsonReaderName(type);
         javaBuffer.setClassName(readerName);
-        generateEnumReaderSource(type);
+        generateEnumReaderSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for XML reader \"" + readerName + "\"", exception);
         }
     }
-    private void generateEnumReaderSource(EnumType type) {
+    private void generateEnumReaderSource(JavaClassBuffer javaBuffer, EnumType type) {
         // Begin class:
         JavaClassName readerName = javaTypes.getJsonReaderName(type);
         javaBuffer.addLine("public class %1$s {", readerName.getSimpleName());
         javaBuffer.addLine();
 
         // Generate methods to read one instance and a list of instances:
-        generateEnumReadOne(type);
-        generateEnumReadMany(type);
+        generateEnumReadOne(javaBuffer, type);
+        generateEnumReadMany(javaBuffer, type);
 
         // End class:
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateEnumReadOne(EnumType type) {
+    private void generateEnumReadOne(JavaClassBuffer javaBuffer, EnumType type) {
         // Get the type and container name:
         JavaClassName typeName = javaTypes.getEnumName(type);
 
@@ -359,34 +450,34 @@ public class JsonSupportGenerator extends JavaGenerator {
     }
 
     private void generateStructWriter(StructType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName writerName = javaTypes.getJsonWriterName(type);
         javaBuffer.setClassName(writerName);
-        generateStructWriterSource(type);
+        generateStructWriterSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for JSON writer \"" + writerName + "\"", exception);
         }
     }
 
-    private void generateStructWriterSource(StructType type) {
+    private void generateStructWriterSource(JavaClassBuffer javaBuffer, StructType type) {
         // Begin class:
         JavaClassName writerName = javaTypes.getJsonWriterName(type);
         javaBuffer.addLine("public class %1$s {", writerName.getSimpleName());
         javaBuffer.addLine();
 
         // Generate methods to write one instance and a list of instances:
-        generateStructWriteOne(type);
-        generateStructWriteMany(type);
+        generateStructWriteOne(javaBuffer, type);
+        generateStructWriteMany(javaBuffer, type);
 
         // End class:
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateStructWriteOne(StructType type) {
+    private void generateStructWriteOne(JavaClassBuffer javaBuffer, StructType type) {
         // Calculate the name of the type and the XML tag:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
 
@@ -410,13 +501,13 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addLine(  "else {");
         javaBuffer.addLine(    "writer.writeStartObject();");
         javaBuffer.addLine(  "}");
-        Stream.concat(type.attributes(), type.links()).sorted().forEach(this::generateStructWriteMember);
+        Stream.concat(type.attributes(), type.links()).sorted().forEach(x -> generateStructWriteMember(javaBuffer, x));
         javaBuffer.addLine(  "writer.writeEnd();");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateStructWriteMember(StructMember member) {
+    private void generateStructWriteMember(JavaClassBuffer javaBuffer, StructMember member) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
@@ -482,15 +573,15 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
     }
 
-    private void generateStructWriteMany(StructType type) {
-        generateWriteMany(type);
+    private void generateStructWriteMany(JavaClassBuffer javaBuffer, StructType type) {
+        generateWriteMany(javaBuffer, type);
     }
 
-    private void generateEnumWriteMany(EnumType type) {
-        generateWriteMany(type);
+    private void generateEnumWriteMany(JavaClassBuffer javaBuffer, EnumType type) {
+        generateWriteMany(javaBuffer, type);
     }
 
-    private void generateWriteMany(Type type) {
+    private void generateWriteMany(JavaClassBuffer javaBuffer, Type type) {
         // Get the name of the type and writer:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
         JavaClassName writerName = javaTypes.getJsonWriterName(type);
@@ -527,34 +618,34 @@ public class JsonSupportGenerator extends JavaGenerator {
     }
 
     private void generateEnumWriter(EnumType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName writerName = javaTypes.getJsonWriterName(type);
         javaBuffer.setClassName(writerName);
-        generateEnumWriterSource(type);
+        generateEnumWriterSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for XML writer \"" + writerName + "\"", exception);
         }
     }
 
-    private void generateEnumWriterSource(EnumType type) {
+    private void generateEnumWriterSource(JavaClassBuffer javaBuffer, EnumType type) {
         // Begin class:
         JavaClassName writerName = javaTypes.getJsonWriterName(type);
         javaBuffer.addLine("public class %1$s {", writerName.getSimpleName());
         javaBuffer.addLine();
 
         // Generate methods to write one instance and a list of instances:
-        generateEnumWriteOne(type);
-        generateEnumWriteMany(type);
+        generateEnumWriteOne(javaBuffer, type);
+        generateEnumWriteMany(javaBuffer, type);
 
         // End class:
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateEnumWriteOne(EnumType type) {
+    private void generateEnumWriteOne(JavaClassBuffer javaBuffer, EnumType type) {
         // Calculate the name of the type and the XML tag:
         JavaClassName typeName = javaTypes.getEnumName(type);
 
@@ -0,0 +1,142 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tool;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * This class generates methods that translate a name, for example the name of an XML element or of a JSON member,
+ * into its index in a list of names known at generation time. The generated method first selects the candidates with
+ * the same length as the name, then discriminates between them using the characters at the positions that split
+ * them best, and finally checks the only remaining candidate with {@code equals}. For example, for the names
+ * {@code id}, {@code cpu} and {@code name} it generates something like this:
+ *
+ * <pre>
+ * private static int indexOfMember(String name) {
+ *     switch (name.length()) {
+ *     case 2:
+ *         return name.equals("id")? 0: -1;
+ *     case 3:
+ *         return name.equals("cpu")? 1: -1;
+ *     case 4:
+ *         return name.equals("name")? 2: -1;
+ *     default:
+ *         return -1;
+ *     }
+ * }
+ * </pre>
+ *
+ * This avoids computing the hash code of the name, which is what a {@code switch} on strings does, and which isn't
+ * cached when the parser creates a new string for each name.
+ */
+@ApplicationScoped
+public class NameDispatchGenerator {
+    /**
+     * Generates a private static method with the given name that receives a string and returns its index in the
+     * given list of names, or -1 if it isn't in the list.
+     *
+     * @param buffer the buffer where the method will be generated
+     * @param method the name of the generated method
+     * @param names the list of names, which must not contain duplicates
+     * @throws IllegalArgumentException if the list of names contains duplicates
+     */
+    public void generateIndexMethod(JavaClassBuffer buffer, String method, List<String> names) {
+        // The discrimination needs a character that differentiates every pair of candidates, so duplicated names
+        // would make it recurse forever:
+        Set<String> seen = new HashSet<>();
+        for (String name : names) {
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException(
+                    "Can't generate method \"" + method + "\" because the name \"" + name + "\" appears more " +
+                    "than once"
+                );
+            }
+        }
+
+        buffer.addLine("private static int %1$s(String name) {", method);
+        Map<Integer, List<String>> byLength = names.stream()
+            .collect(groupingBy(String::length, TreeMap::new, toList()));
+        if (byLength.isEmpty()) {
+            buffer.addLine("return -1;");
+        }
+        else {
+            buffer.addLine("switch (name.length()) {");
+            byLength.forEach((length, candidates) -> {
+                buffer.addLine("case %1$d:", length);
+                generateDiscrimination(buffer, names, candidates);
+            });
+            buffer.addLine("default:");
+            buffer.addLine(  "return -1;");
+            buffer.addLine("}");
+        }
+        buffer.addLine("}");
+        buffer.addLine();
+    }
+
+    private void generateDiscrimination(JavaClassBuffer buffer, List<String> names, List<String> candidates) {
+        // If there is only one candidate then the only thing left is to check that it is really equal:
+        if (candidates.size() == 1) {
+            String candidate = candidates.get(0);
+            buffer.addLine("return name.equals(\"%1$s\")? %2$d: -1;", candidate, names.indexOf(candidate));
+            return;
+        }
+
+        // Find the position of the character that splits the candidates in more groups, all the candidates have the
+        // same length and are different, so there is always at least one position that splits them:
+        int length = candidates.get(0).length();
+        int best = -1;
+        Map<Character, List<String>> bestGroups = null;
+        for (int position = 0; position < length; position++) {
+            int current = position;
+            Map<Character, List<String>> groups = candidates.stream()
+                .collect(groupingBy(x -> x.charAt(current), TreeMap::new, toList()));
+            if (bestGroups == null || groups.size() > bestGroups.size()) {
+                best = position;
+                bestGroups = groups;
+            }
+        }
+
+        // Generate the switch for that position, and then recursively for each group:
+        buffer.addLine("switch (name.charAt(%1$d)) {", best);
+        bestGroups.forEach((c, group) -> {
+            buffer.addLine("case '%1$s':", escape(c));
+            generateDiscrimination(buffer, names, group);
+        });
+        buffer.addLine("default:");
+        buffer.addLine(  "return -1;");
+        buffer.addLine("}");
+    }
+
+    private String escape(char c) {
+        switch (c) {
+        case '\'':
+            return "\\'";
+        case '\\':
+            return "\\\\";
+        default:
+            return String.valueOf(c);
+        }
+    }
+}
@@ -16,13 +16,13 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.tool;
 
-import static java.util.stream.Collectors.joining;
-
 import java.util.List;
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.NameParser;
 
 /**
  * This class contains methods useful to do computations with names.
@@ -31,41 +31,71 @@ import org.ovirt.api.metamodel.concepts.Name;
 public class Names {
     @Inject Words words;
 
+    // Reference to the object used to create the caches:
+    @Inject private RenderingCaches caches;
+
+    // The caches of plurals, singulars and capitalized names:
+    private RenderingCache<Name, Name> pluralsCache;
+    private RenderingCache<Name, Name> singularsCache;
+    private RenderingCache<Name, String> capitalizedCache;
+
+    @PostConstruct
+    private void init() {
+        pluralsCache = caches.createForNames("plural names", this::calculatePlural);
+        singularsCache = caches.createForNames("singular names", this::calculateSingular);
+        capitalizedCache = caches.createForNames("capitalized names", Name::getCapitalized);
+    }
+
+    /**
+     * Returns the plural of the given name, replacing its last word with its plural. The returned name is immutable.
+     */
     public Name getPlural(Name singular) {
+        return pluralsCache.get(singular);
+    }
+
+    /**
+     * Returns the singular of the given name, replacing its last word with its singular. The returned name is
+     * immutable.
+     */
+    public Name getSingular(Name plural) {
+        return singularsCache.get(plural);
+    }
+
+    private Name calculatePlural(Name singular) {
         List<String> all = singular.getWords();
         String last = all.get(all.size() - 1);
         last = words.getPlural(last);
         all.set(all.size() - 1, last);
-        return new Name(all);
+        return NameParser.intern(new Name(all));
     }
 
-    public Name getSingular(Name plural) {
+    private Name calculateSingular(Name plural) {
         List<String> all = plural.getWords();
         String last = all.get(all.size() - 1);
         last = words.getSingular(last);
         all.set(all.size() - 1, last);
-        return new Name(all);
+        return NameParser.intern(new Name(all));
     }
 
     /**
      * Capitalizes the words of the name and joins them together.
      */
     public String getCapitalized(Name name) {
-        return name.words().map(words::capitalize).collect(joining());
+        return capitalizedCache.get(name);
     }
 
     /**
      * Converts the words of the given name to upper case and joins them using the given separator.
      */
     public String getUpperJoined(Name name, String separator) {
-        return name.words().map(String::toUpperCase).collect(joining(separator));
+        return name.getUpperJoined(separator);
     }
 
     /**
      * Converts the words of the given name to lower case and joins them using the given separator.
      */
     public String getLowerJoined(Name name, String separator) {
-        return name.words().map(String::toLowerCase).collect(joining(separator));
+        return name.getLowerJoined(separator);
     }
 
     /**
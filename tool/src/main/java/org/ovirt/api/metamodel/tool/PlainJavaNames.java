@@ -16,9 +16,8 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.tool;
 
-import static java.util.stream.Collectors.joining;
-
 import java.util.Set;
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Default;
 import javax.inject.Inject;
@@ -41,12 +40,25 @@ public class PlainJavaNames implements JavaNames {
     @ReservedWords(language = "java")
     private Set<String> javaReservedWords;
 
+    // Reference to the object used to create the caches:
+    @Inject private RenderingCaches caches;
+
+    // The caches of class and member style names:
+    private RenderingCache<Name, String> classStyleCache;
+    private RenderingCache<Name, String> memberStyleCache;
+
+    @PostConstruct
+    private void init() {
+        classStyleCache = caches.createForNames("plain Java class style names", Name::getCapitalized);
+        memberStyleCache = caches.createForNames("plain Java member style names", this::calculateJavaMemberStyleName);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public String getJavaClassStyleName(Name name) {
-        return name.words().map(words::capitalize).collect(joining());
+        return classStyleCache.get(name);
     }
 
     /**
@@ -54,6 +66,10 @@ public class PlainJavaNames implements JavaNames {
      */
     @Override
     public String getJavaMemberStyleName(Name name) {
+        return memberStyleCache.get(name);
+    }
+
+    private String calculateJavaMemberStyleName(Name name) {
         StringBuilder buffer = new StringBuilder();
         name.words().findFirst().map(String::toLowerCase).ifPresent(buffer::append);
         name.words().skip(1).map(words::capitalize).forEach(buffer::append);
@@ -77,7 +93,7 @@ public class PlainJavaNames implements JavaNames {
      */
     @Override
     public String getJavaConstantStyleName(Name name) {
-        return name.words().map(String::toUpperCase).collect(joining("_"));
+        return name.getUpperJoined("_");
     }
 }
 
@@ -42,6 +42,7 @@ public class PlainJavaTypes implements JavaTypes {
     private static final Name BUILDER_NAME = NameParser.parseUsingCase("Builder");
     private static final Name READER_NAME = NameParser.parseUsingCase("Reader");
     private static final Name WRITER_NAME = NameParser.parseUsingCase("Writer");
+    private static final Name READER_REGISTRY_NAME = NameParser.parseUsingCase("ReaderRegistry");
 
     // Prefixes for the XML and JSON readers and writers:
     private static final Name XML_PREFIX = NameParser.parseUsingCase("Xml");
@@ -131,6 +132,14 @@ public class PlainJavaTypes implements JavaTypes {
         return getTypeName(type, javaPackages.getXmlPackageName(), XML_PREFIX, READER_NAME);
     }
 
+    @Override
+    public JavaClassName getXmlReaderRegistryName() {
+        JavaClassName name = new JavaClassName();
+        name.setPackageName(javaPackages.getXmlPackageName());
+        name.setSimpleName(javaNames.getJavaClassStyleName(decorateName(READER_REGISTRY_NAME, XML_PREFIX, null)));
+        return name;
+    }
+
     @Override
     public JavaClassName getBaseXmlWriterName() {
         JavaClassName name = new JavaClassName();
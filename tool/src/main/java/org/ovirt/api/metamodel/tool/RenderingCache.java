@@ -0,0 +1,113 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tool;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * This class remembers the results of a function that renders names or words, so that each one is calculated only
+ * once. The number of results stored is limited: when the cache is full new results are calculated but not stored.
+ * This is enough for the names of a model, as they are a small set that is used over and over, and it avoids the cost
+ * of evicting entries. Caches are created with the {@link RenderingCaches#create(String, Function)} and
+ * {@link RenderingCaches#createForNames(String, Function)} methods.
+ *
+ * The methods of this class can be called simultaneously from multiple threads.
+ *
+ * @param <K> the type of the values passed to the function
+ * @param <V> the type of the results of the function
+ */
+public class RenderingCache<K, V> {
+    // The description of the cache, used when reporting the statistics:
+    private final String description;
+
+    // The maximum number of results stored:
+    private final int capacity;
+
+    // The function that calculates the results:
+    private final Function<K, V> function;
+
+    // The function used to obtain the key that is stored, needed when the values passed can be modified later:
+    private final UnaryOperator<K> keyCopier;
+
+    // The stored results:
+    private final ConcurrentMap<K, V> results = new ConcurrentHashMap<>();
+
+    // The number of calls that found and didn't find the result already stored:
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    RenderingCache(String description, int capacity, Function<K, V> function, UnaryOperator<K> keyCopier) {
+        this.description = description;
+        this.capacity = capacity;
+        this.function = function;
+        this.keyCopier = keyCopier;
+    }
+
+    /**
+     * Returns the result of applying the function to the given value, calculating it only if it isn't stored yet.
+     * Null values and results aren't stored.
+     */
+    public V get(K key) {
+        if (key == null) {
+            return function.apply(null);
+        }
+        V result = results.get(key);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = function.apply(key);
+        if (result != null && results.size() < capacity) {
+            results.putIfAbsent(keyCopier.apply(key), result);
+        }
+        return result;
+    }
+
+    /**
+     * Discards all the stored results, for example when the behaviour of the function changes. The counters aren't
+     * modified.
+     */
+    public void clear() {
+        results.clear();
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getSize() {
+        return results.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d hits, %d misses, %d stored", description, getHits(), getMisses(), getSize());
+    }
+}
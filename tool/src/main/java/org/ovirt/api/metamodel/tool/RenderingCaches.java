@@ -0,0 +1,86 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.NameParser;
+
+/**
+ * This class creates the caches used by the objects that render names, like {@link Names} or {@link JavaNames}, and
+ * keeps track of them, so that their hit and miss counters can be reported when the generation is finished.
+ */
+@ApplicationScoped
+public class RenderingCaches {
+    /**
+     * The maximum number of results stored by each cache. The models contain a few thousands of different names, so
+     * this is enough to store all of them.
+     */
+    public static final int CAPACITY = 10_000;
+
+    // The caches created so far:
+    private final List<RenderingCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new cache for the given function. The values passed to the function are stored as keys, so they
+     * must not be modified later.
+     *
+     * @param description the description of the cache, used when reporting statistics
+     * @param function the function whose results will be stored
+     */
+    public <K, V> RenderingCache<K, V> create(String description, Function<K, V> function) {
+        return register(new RenderingCache<>(description, CAPACITY, function, UnaryOperator.identity()));
+    }
+
+    /**
+     * Creates a new cache for a function that receives names. As names can be modified by their users the keys stored
+     * are the interned immutable versions of the names.
+     *
+     * @param description the description of the cache, used when reporting statistics
+     * @param function the function whose results will be stored
+     */
+    public <V> RenderingCache<Name, V> createForNames(String description, Function<Name, V> function) {
+        return register(new RenderingCache<>(description, CAPACITY, function, NameParser::intern));
+    }
+
+    private <K, V> RenderingCache<K, V> register(RenderingCache<K, V> cache) {
+        caches.add(cache);
+        return cache;
+    }
+
+    /**
+     * Returns the list of caches created so far.
+     */
+    public List<RenderingCache<?, ?>> getCaches() {
+        return new ArrayList<>(caches);
+    }
+
+    /**
+     * Prints the hit and miss counters of all the caches.
+     */
+    public void printStatistics() {
+        for (RenderingCache<?, ?> cache : caches) {
+            System.out.println("Rendering cache " + cache + ".");
+        }
+    }
+}
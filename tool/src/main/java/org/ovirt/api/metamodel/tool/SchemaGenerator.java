@@ -17,7 +17,6 @@ limitations under the License.
 package org.ovirt.api.metamodel.tool;
 
 import static java.util.Comparator.comparing;
-import static java.util.stream.Collectors.joining;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -623,11 +622,11 @@ public class SchemaGenerator {
     }
 
     private String getSchemaEnumValueName(EnumValue value) {
-        return value.getName().words().map(String::toLowerCase).collect(joining("_"));
+        return value.getName().getLowerJoined("_");
     }
 
     private String getJavaEnumValueName(EnumValue value) {
-        return value.getName().words().map(String::toUpperCase).collect(joining("_"));
+        return value.getName().getUpperJoined("_");
     }
 }
 
@@ -16,13 +16,12 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.tool;
 
-import static java.util.stream.Collectors.joining;
-
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -102,6 +101,17 @@ public class SchemaNames {
     @Inject JavaNames javaNames;
     @Inject JavaPackages javaPackages;
 
+    // Reference to the object used to create the caches:
+    @Inject private RenderingCaches caches;
+
+    // The cache of tag names:
+    private RenderingCache<Name, String> tagNamesCache;
+
+    @PostConstruct
+    private void init() {
+        tagNamesCache = caches.createForNames("schema tag names", this::calculateSchemaTagName);
+    }
+
     public JavaTypeReference getXjcTypeReference(Type type) {
         if (type instanceof PrimitiveType) {
             return getXjcPrimitiveTypeReference((PrimitiveType) type);
@@ -197,7 +207,11 @@ public class SchemaNames {
     }
 
     public String getSchemaTagName(Name name) {
-        String result = name.words().map(String::toLowerCase).collect(joining("_"));
+        return tagNamesCache.get(name);
+    }
+
+    private String calculateSchemaTagName(Name name) {
+        String result = name.getLowerJoined("_");
         String exception = TAG_NAME_EXCEPTIONS.get(result);
         if (exception != null) {
             result = exception;
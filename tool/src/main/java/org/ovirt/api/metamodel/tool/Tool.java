@@ -17,6 +17,13 @@ limitations under the License.
 package org.ovirt.api.metamodel.tool;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.enterprise.context.ApplicationScoped;
@@ -31,6 +38,7 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.io.FileUtils;
 import org.ovirt.api.metamodel.analyzer.ModelAnalyzer;
+import org.ovirt.api.metamodel.analyzer.ModelCache;
 import org.ovirt.api.metamodel.concepts.Model;
 
 @ApplicationScoped
@@ -62,8 +70,15 @@ public class Tool {
     // Reference to the object used to add built-in types to the model:
     @Inject private BuiltinTypes builtinTypes;
 
+    // Reference to the object that keeps track of the generated files:
+    @Inject private GeneratedFiles generatedFiles;
+
+    // Reference to the object that keeps track of the caches used to render names:
+    @Inject private RenderingCaches renderingCaches;
+
     // The names of the command line options:
     private static final String MODEL_OPTION = "model";
+    private static final String MODEL_CACHE_OPTION = "model-cache";
     private static final String IN_SCHEMA_OPTION = "in-schema";
     private static final String OUT_SCHEMA_OPTION = "out-schema";
     private static final String XML_DESCRIPTION_OPTION = "xml-description";
@@ -76,6 +91,8 @@ public class Tool {
     private static final String ADOC_ATTRIBUTE_OPTION = "adoc-attribute";
     private static final String ADOC_SEPARATOR_OPTION = "adoc-separator";
     private static final String RESOURCES_OPTION = "resources";
+    private static final String THREADS_OPTION = "threads";
+    private static final String CACHE_STATISTICS_OPTION = "cache-statistics";
 
     // Names of options for Java package names:
     private static final String JAXRS_PACKAGE_OPTION = "jaxrs-package";
@@ -100,6 +117,18 @@ public class Tool {
             .argName("DIRECTORY|JAR")
             .build()
         );
+        options.addOption(Option.builder()
+            .longOpt(MODEL_CACHE_OPTION)
+            .desc(
+                "The file where the analyzed model will be cached. If the model source files haven't changed since " +
+                "the file was created the model will be loaded from it instead of analyzing the source files again."
+            )
+            .type(File.class)
+            .required(false)
+            .hasArg(true)
+            .argName("FILE")
+            .build()
+        );
 
         // Options for the location of the generated XML and JSON model representations:
         options.addOption(Option.builder()
@@ -280,6 +309,31 @@ public class Tool {
             .build()
         );
 
+        // Options for the execution of the generators:
+        options.addOption(Option.builder()
+            .longOpt(THREADS_OPTION)
+            .desc(
+                "The number of threads used to parse the model source files and to run the generators. If not " +
+                "specified the number of available processors will be used. If the value is 1 the files will be " +
+                "parsed and the generators will run one after the other in the calling thread."
+            )
+            .type(Number.class)
+            .required(false)
+            .hasArg(true)
+            .argName("COUNT")
+            .build()
+        );
+        options.addOption(Option.builder()
+            .longOpt(CACHE_STATISTICS_OPTION)
+            .desc(
+                "Print the hit and miss counters of the caches used to render names when the generation is " +
+                "finished."
+            )
+            .required(false)
+            .hasArg(false)
+            .build()
+        );
+
         // Parse the command line:
         CommandLineParser parser = new DefaultParser();
         CommandLine line = null;
@@ -296,6 +350,7 @@ public class Tool {
 
         // Extract the locations of files and directories from the command line:
         File modelFile = (File) line.getParsedOptionValue(MODEL_OPTION);
+        File modelCacheFile = (File) line.getParsedOptionValue(MODEL_CACHE_OPTION);
         File xmlFile = (File) line.getParsedOptionValue(XML_DESCRIPTION_OPTION);
         File jsonFile = (File) line.getParsedOptionValue(JSON_DESCRIPTION_OPTION);
         File inSchemaFile = (File) line.getParsedOptionValue(IN_SCHEMA_OPTION);
@@ -306,15 +361,28 @@ public class Tool {
         File reportFile = (File) line.getParsedOptionValue(REPORT_OPTION);
         File resourcesDir = (File) line.getParsedOptionValue(RESOURCES_OPTION);
 
+        // Extract the number of threads from the command line:
+        int threads = Runtime.getRuntime().availableProcessors();
+        Number threadsValue = (Number) line.getParsedOptionValue(THREADS_OPTION);
+        if (threadsValue != null) {
+            threads = threadsValue.intValue();
+            if (threads < 1) {
+                throw new IllegalArgumentException(
+                    "The number of threads should be at least 1, but it is " + threads + "."
+                );
+            }
+        }
+
         // Analyze the model files:
-        Model model = new Model();
-        ModelAnalyzer modelAnalyzer = new ModelAnalyzer();
-        modelAnalyzer.setModel(model);
-        modelAnalyzer.analyzeSource(modelFile);
+        Model model = analyzeModel(modelFile, modelCacheFile, threads);
 
         // Add the built-in types to the model:
         builtinTypes.addBuiltinTypes(model);
 
+        // The model is now complete, so freeze it, in order to calculate the lists of members only once instead of
+        // every time that the generators ask for them:
+        model.freeze();
+
         // Extract the version prefix from the command line and copy it to the object that manages names:
         String versionPrefix = line.getOptionValue(VERSION_PREFIX_OPTION);
         if (versionPrefix != null) {
@@ -376,60 +444,190 @@ public class Tool {
             adocConfiguration.setSeparator(adocSeparator);
         }
 
+        // The manifest of generated files depends on the generators that write them, so that executions of the tool
+        // that enable different generators and share an output directory don't delete each other's files:
+        List<String> manifestKeys = new ArrayList<>();
+        if (jaxrsDir != null) {
+            manifestKeys.add(JAXRS_OPTION);
+        }
+        if (javaDir != null) {
+            manifestKeys.add(JAVA_OPTION);
+        }
+        if (!manifestKeys.isEmpty()) {
+            generatedFiles.setManifestName(GeneratedFiles.MANIFEST_NAME + "-" + String.join("-", manifestKeys));
+        }
+
+        // Prepare the tasks that generate the different outputs. Note that from this point on the model, the
+        // configuration of the generators and the objects that calculate names aren't modified, they are only read,
+        // so the tasks can safely run concurrently. Each task uses its own generators, and no generator is used by
+        // more than one task.
+        List<Task> tasks = new ArrayList<>();
+
         // Generate the XML representation of the model:
         if (xmlFile != null) {
-            File xmlDir = xmlFile.getParentFile();
-            FileUtils.forceMkdir(xmlDir);
-            xmlDescriptionGenerator.generate(model, xmlFile);
+            tasks.add(() -> {
+                File xmlDir = xmlFile.getParentFile();
+                FileUtils.forceMkdir(xmlDir);
+                xmlDescriptionGenerator.generate(model, xmlFile);
+            });
         }
 
         // Generate the JSON representation of the model:
         if (jsonFile != null) {
-            File jsonDir = jsonFile.getParentFile();
-            FileUtils.forceMkdir(jsonDir);
-            jsonDescriptionGenerator.generate(model, jsonFile);
+            tasks.add(() -> {
+                File jsonDir = jsonFile.getParentFile();
+                FileUtils.forceMkdir(jsonDir);
+                jsonDescriptionGenerator.generate(model, jsonFile);
+            });
         }
 
         // Generate the XML schema:
         if (inSchemaFile != null && outSchemaFile != null) {
             schemaGenerator.setInFile(inSchemaFile);
             schemaGenerator.setOutFile(outSchemaFile);
-            schemaGenerator.generate(model);
+            tasks.add(() -> schemaGenerator.generate(model));
         }
 
         // Generate the JAX-RS source:
         if (jaxrsDir != null) {
             FileUtils.forceMkdir(jaxrsDir);
             jaxrsGenerator.setOutDir(jaxrsDir);
-            jaxrsGenerator.generate(model);
+            tasks.add(() -> jaxrsGenerator.generate(model));
+
             // Generate the JAX-RS helper classes):
             jaxrsHelperGenerator.setOutDir(jaxrsDir);
-            jaxrsHelperGenerator.generate(model);
+            tasks.add(() -> jaxrsHelperGenerator.generate(model));
         }
 
         // Generate the Java source:
         if (javaDir != null) {
             typesGenerator.setOutDir(javaDir);
-            typesGenerator.generate(model);
+            typesGenerator.setParallel(threads > 1);
+            tasks.add(() -> typesGenerator.generate(model));
 
             // Generate JSON support classes:
             jsonSupportGenerator.setOutDir(javaDir);
-            jsonSupportGenerator.generate(model);
+            jsonSupportGenerator.setParallel(threads > 1);
+            tasks.add(() -> jsonSupportGenerator.generate(model));
 
             // Generate XML support classes:
             xmlSupportGenerator.setOutDir(javaDir);
             xmlSupportGenerator.setResourcesDir(resourcesDir);
-            xmlSupportGenerator.generate(model);
+            xmlSupportGenerator.setParallel(threads > 1);
+            tasks.add(() -> xmlSupportGenerator.generate(model));
         }
 
         // Generate the documentation:
         if (docsDir != null) {
             docGenerator.setOutDir(docsDir);
-            docGenerator.generate(model);
+            tasks.add(() -> docGenerator.generate(model));
         }
         if (reportFile != null) {
             reportGenerator.setOutFile(reportFile);
-            reportGenerator.generate(model);
+            tasks.add(() -> reportGenerator.generate(model));
+        }
+
+        // Run the tasks, and then delete the files that are no longer generated:
+        runTasks(tasks, threads);
+        generatedFiles.finish();
+        if (line.hasOption(CACHE_STATISTICS_OPTION)) {
+            renderingCaches.printStatistics();
+        }
+    }
+
+    /**
+     * Analyzes the model source files. If a cache file is given and it was created from the same source files then
+     * the model is loaded from it, otherwise the source files are parsed using the given number of threads, analyzed,
+     * and the result is saved to the cache file.
+     */
+    private Model analyzeModel(File modelFile, File modelCacheFile, int threads) throws IOException {
+        ModelCache modelCache = null;
+        if (modelCacheFile != null) {
+            modelCache = new ModelCache(modelCacheFile, modelFile);
+            Model model = modelCache.load();
+            if (model != null) {
+                return model;
+            }
         }
+        Model model = new Model();
+        ModelAnalyzer modelAnalyzer = new ModelAnalyzer();
+        modelAnalyzer.setModel(model);
+        modelAnalyzer.setThreads(threads);
+        modelAnalyzer.analyzeSource(modelFile);
+        if (modelCache != null) {
+            modelCache.save(model);
+        }
+        return model;
+    }
+
+    /**
+     * Runs the given tasks using the given number of threads. If the number of threads is 1 the tasks are executed
+     * in the calling thread, in the given order. Otherwise they are executed concurrently, and this method waits
+     * till all of them have finished. If any of the tasks fails the exception is thrown after waiting for the rest.
+     * Note that the generators that generate classes in parallel use the same pool that runs the tasks, so the
+     * total number of threads never exceeds the given one.
+     */
+    private void runTasks(List<Task> tasks, int threads) throws Exception {
+        // Run in the calling thread if parallelism is disabled:
+        if (threads == 1) {
+            for (Task task : tasks) {
+                task.run();
+            }
+            return;
+        }
+
+        // Create the pool, making sure that the threads use the same class loader than the calling thread, as the
+        // code generators need it to find resources:
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool pool = new ForkJoinPool(
+            threads,
+            x -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(x);
+                thread.setContextClassLoader(loader);
+                return thread;
+            },
+            null,
+            false
+        );
+        try {
+            // Submit all the tasks:
+            List<ForkJoinTask<Void>> futures = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                futures.add(pool.submit(() -> {
+                    task.run();
+                    return null;
+                }));
+            }
+
+            // Wait for all the tasks, and remember the first failure:
+            Throwable failure = null;
+            for (ForkJoinTask<Void> future : futures) {
+                try {
+                    future.get();
+                }
+                catch (ExecutionException exception) {
+                    if (failure == null) {
+                        failure = exception.getCause();
+                    }
+                }
+            }
+            if (failure instanceof Exception) {
+                throw (Exception) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Represents one of the steps of the generation of the outputs.
+     */
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
     }
 }
@@ -57,13 +57,16 @@ public class TypesGenerator extends JavaGenerator {
 
     public void generate(Model model) {
         // Generate classes for each enum type:
-        model.types()
+        parallelIfEnabled(model.types())
             .filter(EnumType.class::isInstance)
             .map(EnumType.class::cast)
             .forEach(this::generateEnum);
 
+        // Generate the base class for all the containers:
+        generateBaseContainer();
+
         // Generate classes for each struct type:
-        model.types()
+        parallelIfEnabled(model.types())
             .filter(StructType.class::isInstance)
             .map(StructType.class::cast)
             .forEach(this::generateClasses);
@@ -73,28 +76,28 @@ public class TypesGenerator extends JavaGenerator {
     }
 
     private void generateEnum(EnumType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName enumName = javaTypes.getEnumName(type);
         javaBuffer.setClassName(enumName);
-        generateEnumSource(type);
+        generateEnumSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for enum \"" + enumName + "\"", exception);
         }
     }
 
-    private void generateEnumSource(EnumType type) {
+    private void generateEnumSource(JavaClassBuffer javaBuffer, EnumType type) {
         // Generate the documentation:
-        generateDoc(type);
+        generateDoc(javaBuffer, type);
 
         // Begin enum:
         JavaClassName enumName = javaTypes.getEnumName(type);
         javaBuffer.addLine("public enum %1$s {", enumName.getSimpleName());
 
         // Generate the declarations of the values:
-        type.values().sorted().forEach(this::generateEnumValue);
+        type.values().sorted().forEach(x -> generateEnumValue(javaBuffer, x));
         javaBuffer.addLine(";");
         javaBuffer.addLine();
 
@@ -161,9 +164,9 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine();
     }
 
-    private void generateEnumValue(EnumValue value) {
+    private void generateEnumValue(JavaClassBuffer javaBuffer, EnumValue value) {
         // Generate the documentation:
-        generateDoc(value);
+        generateDoc(javaBuffer, value);
 
         // Generate the declaration of the value:
         javaBuffer.addLine("%1$s(\"%2$s\"),", getEnumValueName(value), getEnumValueImage(value));
@@ -179,27 +182,26 @@ public class TypesGenerator extends JavaGenerator {
 
     private void generateClasses(StructType type) {
         generateInterface(type);
-        generateBaseContainer();
         generateContainer(type);
         generateBuilder(type);
     }
 
     private void generateInterface(StructType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName typeName = javaTypes.getInterfaceName(type);
         javaBuffer.setClassName(typeName);
-        generateInterfaceSource(type);
+        generateInterfaceSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for interface \"" + typeName + "\"", exception);
         }
     }
 
-    private void generateInterfaceSource(StructType type) {
+    private void generateInterfaceSource(JavaClassBuffer javaBuffer, StructType type) {
         // Generate the documentation:
-        generateDoc(type);
+        generateDoc(javaBuffer, type);
 
         // Begin class:
         JavaClassName interfaceName = javaTypes.getInterfaceName(type);
@@ -218,14 +220,14 @@ public class TypesGenerator extends JavaGenerator {
         }
 
         // Attributes and links:
-        type.declaredAttributes().sorted().forEach(this::generateInterfaceMembers);
-        type.declaredLinks().sorted().forEach(this::generateInterfaceMembers);
+        type.declaredAttributes().sorted().forEach(x -> generateInterfaceMembers(javaBuffer, x));
+        type.declaredLinks().sorted().forEach(x -> generateInterfaceMembers(javaBuffer, x));
 
         // End class:
         javaBuffer.addLine("}");
     }
 
-    private void generateInterfaceMembers(StructMember member) {
+    private void generateInterfaceMembers(JavaClassBuffer javaBuffer, StructMember member) {
         // Get the name of the property:
         Name name = member.getName();
         Type type = member.getType();
@@ -252,19 +254,19 @@ public class TypesGenerator extends JavaGenerator {
     }
 
     private void generateBaseContainer() {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName containerName = javaTypes.getBaseContainerName();
         javaBuffer.setClassName(containerName);
-        generateBaseContainerSource();
+        generateBaseContainerSource(javaBuffer);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for base container \"" + containerName + "\"", exception);
         }
     }
 
-    private void generateBaseContainerSource() {
+    private void generateBaseContainerSource(JavaClassBuffer javaBuffer) {
         // Imports:
         javaBuffer.addImport(ArrayList.class);
         javaBuffer.addImport(ArrayListWithHref.class);
@@ -385,19 +387,19 @@ public class TypesGenerator extends JavaGenerator {
     }
 
     private void generateContainer(StructType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName containerName = javaTypes.getContainerName(type);
         javaBuffer.setClassName(containerName);
-        generateContainerSource(type);
+        generateContainerSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for container \"" + containerName + "\"", exception);
         }
     }
 
-    private void generateContainerSource(StructType type) {
+    private void generateContainerSource(JavaClassBuffer javaBuffer, StructType type) {
         // Begin class:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
         JavaClassName containerName = javaTypes.getContainerName(type);
@@ -409,19 +411,19 @@ public class TypesGenerator extends JavaGenerator {
             containerName.getSimpleName(), baseName.getSimpleName(), typeName.getSimpleName());
 
         // Fields for attributes and links:
-        type.declaredAttributes().sorted().forEach(this::generateContainerFields);
-        type.declaredLinks().sorted().forEach(this::generateContainerFields);
+        type.declaredAttributes().sorted().forEach(x -> generateContainerFields(javaBuffer, x));
+        type.declaredLinks().sorted().forEach(x -> generateContainerFields(javaBuffer, x));
         javaBuffer.addLine();
 
         // Methods for attributes and links:
-        type.declaredAttributes().sorted().forEach(this::generateContainerMethods);
-        type.declaredLinks().sorted().forEach(this::generateContainerMethods);
+        type.declaredAttributes().sorted().forEach(x -> generateContainerMethods(javaBuffer, x));
+        type.declaredLinks().sorted().forEach(x -> generateContainerMethods(javaBuffer, x));
 
         // End class:
         javaBuffer.addLine("}");
     }
 
-    private void generateContainerFields(StructMember member) {
+    private void generateContainerFields(JavaClassBuffer javaBuffer, StructMember member) {
         // Get the name of the field:
         Name name = member.getName();
         String field = javaNames.getJavaMemberStyleName(name);
@@ -435,7 +437,7 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine("private %1$s %2$s;", typeReference.getText(), field);
     }
 
-    private void generateContainerMethods(StructMember member) {
+    private void generateContainerMethods(JavaClassBuffer javaBuffer, StructMember member) {
         // Get the name of the field:
         Name name = member.getName();
         Type type = member.getType();
@@ -562,31 +564,31 @@ public class TypesGenerator extends JavaGenerator {
     }
 
     private void generateBuilder(StructType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName containerName = javaTypes.getBuilderName(type);
         javaBuffer.setClassName(containerName);
-        generateBuilderSource(type);
+        generateBuilderSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for container \"" + containerName + "\"", exception);
         }
     }
 
-    private void generateBuilderSource(StructType type) {
+    private void generateBuilderSource(JavaClassBuffer javaBuffer, StructType type) {
         // Begin class:
         JavaClassName builderName = javaTypes.getBuilderName(type);
         javaBuffer.addLine("public class %1$s {", builderName.getSimpleName());
 
         // Generate the fields for attributes and links:
-        Stream.concat(type.attributes(), type.links()).sorted().forEach(this::generateBuilderFields);
+        Stream.concat(type.attributes(), type.links()).sorted().forEach(x -> generateBuilderFields(javaBuffer, x));
         javaBuffer.addLine();
 
         // Generate the methods for attributes and links:
         Stream.concat(type.attributes(), type.links())
             .sorted()
-            .forEach(member -> generateBuilderMethods(type, member));
+            .forEach(member -> generateBuilderMethods(javaBuffer, type, member));
 
         // Generate the "build" method:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
@@ -607,7 +609,7 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
     }
 
-    private void generateBuilderFields(StructMember member) {
+    private void generateBuilderFields(JavaClassBuffer javaBuffer, StructMember member) {
         // Get the name of the property:
         Name name = member.getName();
         String field = javaNames.getJavaMemberStyleName(name);
@@ -621,7 +623,7 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine("private %1$s %2$s;", typeReference.getText(), field);
     }
 
-    private void generateBuilderMethods(StructType struct, StructMember member) {
+    private void generateBuilderMethods(JavaClassBuffer javaBuffer, StructType struct, StructMember member) {
         // Get the name of the property:
         Name name = member.getName();
         String field = javaNames.getJavaMemberStyleName(name);
@@ -874,21 +876,21 @@ public class TypesGenerator extends JavaGenerator {
 
     private void generateBuildersFactory(Model model) {
         Name name = NameParser.parseUsingCase("Builders");
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName factoryName = new JavaClassName();
         factoryName.setPackageName(javaPackages.getBuildersPackageName());
         factoryName.setSimpleName(javaNames.getJavaClassStyleName(name));
         javaBuffer.setClassName(factoryName);
-        generateBuildersFactorySource(model);
+        generateBuildersFactorySource(javaBuffer, model);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for builder factory \"" + factoryName + "\"", exception);
         }
     }
 
-    private void generateBuildersFactorySource(Model model) {
+    private void generateBuildersFactorySource(JavaClassBuffer javaBuffer, Model model) {
         // Begin class:
         javaBuffer.addLine("public class %1$s {", javaBuffer.getClassName().getSimpleName());
         javaBuffer.addLine();
@@ -898,13 +900,13 @@ public class TypesGenerator extends JavaGenerator {
             .filter(StructType.class::isInstance)
             .map(StructType.class::cast)
             .sorted()
-            .forEach(this::generateBuilderFactoryMethods);
+            .forEach(x -> generateBuilderFactoryMethods(javaBuffer, x));
 
         // End class:
         javaBuffer.addLine("}");
     }
 
-    private void generateBuilderFactoryMethods(StructType type) {
+    private void generateBuilderFactoryMethods(JavaClassBuffer javaBuffer, StructType type) {
         JavaClassName builderName = javaTypes.getBuilderName(type);
         javaBuffer.addImport(builderName);
         String methodName = javaNames.getJavaMemberStyleName(type.getName());
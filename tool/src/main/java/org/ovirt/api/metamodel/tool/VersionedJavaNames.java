@@ -17,6 +17,7 @@ limitations under the License.
 package org.ovirt.api.metamodel.tool;
 
 import java.util.List;
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -24,7 +25,8 @@ import org.ovirt.api.metamodel.concepts.Name;
 
 /**
  * This class contains the rules used to calculate the names of generated Java concepts taking into account the
- * version prefix.
+ * version prefix. The version prefix should be set before starting the generators, after that this object is only
+ * read, so it can be used by generators running in different threads.
  */
 @ApplicationScoped
 @Style("versioned")
@@ -41,6 +43,25 @@ public class VersionedJavaNames implements JavaNames {
      */
     private String versionPrefix;
 
+    // Reference to the object used to create the caches:
+    @Inject private RenderingCaches caches;
+
+    // The caches of class and constant style names, that depend on the version prefix:
+    private RenderingCache<Name, String> classStyleCache;
+    private RenderingCache<Name, String> constantStyleCache;
+
+    @PostConstruct
+    private void init() {
+        classStyleCache = caches.createForNames(
+            "versioned Java class style names",
+            name -> javaNames.getJavaClassStyleName(addPrefix(name))
+        );
+        constantStyleCache = caches.createForNames(
+            "versioned Java constant style names",
+            name -> javaNames.getJavaConstantStyleName(addPrefix(name))
+        );
+    }
+
     /**
      * Get the version prefix.
      */
@@ -53,6 +74,8 @@ public class VersionedJavaNames implements JavaNames {
      */
     public void setVersionPrefix(String newVersionPrefix) {
         versionPrefix = newVersionPrefix;
+        classStyleCache.clear();
+        constantStyleCache.clear();
     }
 
     /**
@@ -60,7 +83,7 @@ public class VersionedJavaNames implements JavaNames {
      */
     public String getJavaClassStyleName(Name name) {
         // Classes need to have the version prefix.
-        return javaNames.getJavaClassStyleName(addPrefix(name));
+        return classStyleCache.get(name);
     }
 
     /**
@@ -84,7 +107,7 @@ public class VersionedJavaNames implements JavaNames {
      * the words in uppercase and separated by underscores.
      */
     public String getJavaConstantStyleName(Name name) {
-        return javaNames.getJavaConstantStyleName(addPrefix(name));
+        return constantStyleCache.get(name);
     }
 
     /**
@@ -20,12 +20,20 @@ import java.util.HashMap;
 import java.util.Map;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 
 /**
  * This class contains methods useful to do computations with words.
  */
 @ApplicationScoped
 public class Words {
+    // Reference to the object used to create the caches:
+    @Inject private RenderingCaches caches;
+
+    // The caches of plurals and singulars:
+    private RenderingCache<String, String> pluralsCache;
+    private RenderingCache<String, String> singularsCache;
+
     // Exceptions to the rules to calculate plurals and singulars:
     private Map<String, String> plurals = new HashMap<>();
     private Map<String, String> singulars = new HashMap<>();
@@ -39,9 +47,21 @@ public class Words {
 
         // Populate the singulars exceptions:
         singulars.put("errata", "erratum");
+
+        // Create the caches:
+        pluralsCache = caches.create("plural words", this::calculatePlural);
+        singularsCache = caches.create("singular words", this::calculateSingular);
     }
 
     public String getSingular(String plural) {
+        return singularsCache.get(plural);
+    }
+
+    public String getPlural(String singular) {
+        return pluralsCache.get(singular);
+    }
+
+    private String calculateSingular(String plural) {
         String singular = singulars.get(plural);
         if (singular == null) {
             if (plural.endsWith("ies")) {
@@ -57,7 +77,7 @@ public class Words {
         return singular;
     }
 
-    public String getPlural(String singular) {
+    private String calculatePlural(String singular) {
         String plural = plurals.get(singular);
         if (plural == null) {
             if (singular.endsWith("y")) {
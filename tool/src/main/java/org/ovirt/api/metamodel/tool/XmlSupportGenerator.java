@@ -16,7 +16,7 @@ limitations under the License.
 
 package org.ovirt.api.metamodel.tool;
 
-import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 
 import java.io.File;
@@ -41,7 +41,9 @@ import org.ovirt.api.metamodel.concepts.StructType;
 import org.ovirt.api.metamodel.concepts.Type;
 import org.ovirt.api.metamodel.runtime.util.ArrayListWithHref;
 import org.ovirt.api.metamodel.runtime.util.ListWithHref;
+import org.ovirt.api.metamodel.runtime.util.Projection;
 import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlReaderRegistry;
 import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
 
 /**
@@ -68,15 +70,18 @@ public class XmlSupportGenerator extends JavaGenerator {
     // Reference to the object used to calculate XML schema names:
     @Inject private SchemaNames schemaNames;
 
+    // Reference to the object used to generate the methods that translate names into indexes:
+    @Inject private NameDispatchGenerator nameDispatchGenerator;
+
     public void generate(Model model) {
         // Generate classes for each struct type:
-        model.types()
+        parallelIfEnabled(model.types())
             .filter(StructType.class::isInstance)
             .map(StructType.class::cast)
             .forEach(this::generateStructSupportClasses);
 
         // Generate classes for each enum type:
-        model.types()
+        parallelIfEnabled(model.types())
             .filter(EnumType.class::isInstance)
             .map(EnumType.class::cast)
             .forEach(this::generateEnumSupportClasses);
@@ -121,79 +126,173 @@ public class XmlSupportGenerator extends JavaGenerator {
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for XML generic methods reader.", exception);
         }
+
+        // The properties file is only used as a fallback, the reader uses the generated registry when available:
+        generateXmlReaderRegistry(model);
+    }
+
+    private void generateXmlReaderRegistry(Model model) {
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
+        JavaClassName registryName = javaTypes.getXmlReaderRegistryName();
+        javaBuffer.setClassName(registryName);
+        generateXmlReaderRegistrySource(javaBuffer, model);
+        try {
+            javaBuffer.write(outDir, generatedFiles);
+        }
+        catch (IOException exception) {
+            throw new RuntimeException("Can't write file for XML reader registry \"" + registryName + "\"", exception);
+        }
+
+        // Register the class so that it can be located using the service loader mechanism:
+        PropertiesBuffer servicesBuffer = new PropertiesBuffer();
+        servicesBuffer.addLine(registryName.toString());
+        String services = "META-INF/services/" + XmlReaderRegistry.class.getName();
+        try {
+            servicesBuffer.write(new File(resourcesDir, services));
+        }
+        catch (IOException exception) {
+            throw new RuntimeException("Can't write services file for XML reader registry.", exception);
+        }
+    }
+
+    private void generateXmlReaderRegistrySource(JavaClassBuffer javaBuffer, Model model) {
+        // Add the required imports:
+        javaBuffer.addImport(XmlReader.class);
+        javaBuffer.addImport(XmlReaderRegistry.class);
+
+        // Begin class:
+        JavaClassName registryName = javaTypes.getXmlReaderRegistryName();
+        javaBuffer.addLine("public class %1$s implements XmlReaderRegistry {", registryName.getSimpleName());
+        javaBuffer.addLine();
+
+        // Generate the method that selects the reader using the tag:
+        javaBuffer.addLine("@Override");
+        javaBuffer.addLine("public Object read(String tag, XmlReader reader) {");
+        javaBuffer.addLine(  "switch (tag) {");
+        model.types()
+            .filter(StructType.class::isInstance)
+            .map(StructType.class::cast)
+            .sorted()
+            .forEach(type -> {
+                Name typeName = type.getName();
+                String singularTag = schemaNames.getSchemaTagName(typeName);
+                String pluralTag = schemaNames.getSchemaTagName(names.getPlural(typeName));
+                JavaClassName readerName = javaTypes.getXmlReaderName(type);
+                javaBuffer.addImport(readerName);
+                javaBuffer.addLine("case \"%1$s\":", singularTag);
+                javaBuffer.addLine(  "return %1$s.readOne(reader);", readerName.getSimpleName());
+                javaBuffer.addLine("case \"%1$s\":", pluralTag);
+                javaBuffer.addLine(  "return %1$s.readMany(reader);", readerName.getSimpleName());
+            });
+        javaBuffer.addLine(  "default:");
+        javaBuffer.addLine(    "return null;");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // End class:
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
     }
 
     private void generateStructReader(StructType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName readerName = javaTypes.getXmlReaderName(type);
         javaBuffer.setClassName(readerName);
-        generateStructReaderSource(type);
+        generateStructReaderSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for XML reader \"" + readerName + "\"", exception);
         }
     }
 
-    private void generateStructReaderSource(StructType type) {
+    private void generateStructReaderSource(JavaClassBuffer javaBuffer, StructType type) {
         // Begin class:
         JavaClassName readerName = javaTypes.getXmlReaderName(type);
         javaBuffer.addLine("public class %1$s {", readerName.getSimpleName());
         javaBuffer.addLine();
 
         // Generate methods to read one instance and a list of instances:
-        generateStructReadOne(type);
-        generateStructReadMany(type);
-        generateProcessLink(type);
+        generateStructReadOne(javaBuffer, type);
+        generateStructReadMany(javaBuffer, type);
+        generateStructIndexOf(javaBuffer, type);
 
         // End class:
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateProcessLink(StructType type) {
-        // Get the type and container name:
-        JavaClassName containerName = javaTypes.getContainerName(type);
+    private void generateStructIndexOf(JavaClassBuffer javaBuffer, StructType type) {
+        // Generate the methods that translate the names of the attributes and of the inner elements into the indexes
+        // used in the switch statements of the readOne method, the "link" element goes after all the members:
+        List<StructMember> asAttributes = getAttributeMembers(type);
+        List<StructMember> asElements = getElementMembers(type);
+        if (!asAttributes.isEmpty()) {
+            javaBuffer.addLine();
+            nameDispatchGenerator.generateIndexMethod(javaBuffer, "indexOfAttribute", getTags(asAttributes));
+        }
+        if (!asElements.isEmpty()) {
+            List<String> tags = getTags(asElements);
+            if (tags.contains("link")) {
+                throw new IllegalStateException(
+                    "Type \"" + type.getName() + "\" has a member with XML tag \"link\", but that tag is " +
+                    "reserved for the links to other objects"
+                );
+            }
+            tags.add("link");
+            javaBuffer.addLine();
+            nameDispatchGenerator.generateIndexMethod(javaBuffer, "indexOfElement", tags);
+        }
 
-        javaBuffer.addImport(ArrayListWithHref.class);
-        javaBuffer.addImport(ListWithHref.class);
-        javaBuffer.addLine(
-            "private static void processLink(%1$s object, String[] link) {",
-            containerName.getSimpleName()
-        );
-        List<Link> links = type.links()
-            .sorted()
+        // Generate the method that translates the values of the "rel" attributes of the links into indexes:
+        List<Link> links = getListLinks(type);
+        if (!links.isEmpty()) {
+            List<String> rels = links.stream()
+                .map(this::getLinkRel)
+                .collect(toList());
+            javaBuffer.addLine();
+            nameDispatchGenerator.generateIndexMethod(javaBuffer, "indexOfRel", rels);
+        }
+    }
+
+    private List<Link> getListLinks(StructType type) {
+        return type.links()
             .filter(link -> link.getType() instanceof ListType)
+            .sorted()
             .collect(toList());
+    }
 
-        if (!links.isEmpty()) {
-            javaBuffer.addLine("// Process the attributes:");
-            javaBuffer.addLine("ListWithHref list;");
-            javaBuffer.addLine("String rel = link[0];");
-            javaBuffer.addLine("String href = link[1];");
-            javaBuffer.addLine("if (href != null) {");
-            javaBuffer.addLine(  "switch (rel) {");
-            links.forEach(
-                link -> {
-                    String field = javaNames.getJavaMemberStyleName(link.getName());
-                    String rel = link.getName().words().map(String::toLowerCase).collect(joining());
-                    javaBuffer.addLine("case \"%1$s\":", rel);
-                    javaBuffer.addLine("list = new ArrayListWithHref(object.%1$s());", field);
-                    javaBuffer.addLine("list.href(href);");
-                    javaBuffer.addLine("object.%1$s(list);", field);
-                    javaBuffer.addLine("break;");
-                }
-            );
-            javaBuffer.addLine(  "default:");
-            javaBuffer.addLine(    "break;");
-            javaBuffer.addLine(  "}");  // End switch
-            javaBuffer.addLine("}"); // End if
-        }
-        javaBuffer.addLine("}");  // End method
+    private String getLinkRel(Link link) {
+        return link.getName().getLowerJoined("");
+    }
+
+    private String getLinkHrefVariable(Link link) {
+        return javaNames.getJavaMemberStyleName(link.getName()) + "Href";
+    }
+
+    private List<StructMember> getAttributeMembers(StructType type) {
+        return Stream.concat(type.attributes(), type.links())
+            .filter(x -> schemaNames.isRepresentedAsAttribute(x.getName()))
+            .sorted()
+            .collect(toList());
+    }
+
+    private List<StructMember> getElementMembers(StructType type) {
+        return Stream.concat(type.attributes(), type.links())
+            .filter(x -> !schemaNames.isRepresentedAsAttribute(x.getName()))
+            .sorted()
+            .collect(toList());
     }
 
-    private void generateStructReadOne(StructType type) {
+    private List<String> getTags(List<StructMember> members) {
+        return members.stream()
+            .map(x -> schemaNames.getSchemaTagName(x.getName()))
+            .collect(toCollection(ArrayList::new));
+    }
+
+    private void generateStructReadOne(JavaClassBuffer javaBuffer, StructType type) {
         // Get the type and container name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
         JavaClassName containerName = javaTypes.getContainerName(type);
@@ -201,19 +300,23 @@ public class XmlSupportGenerator extends JavaGenerator {
         // Add the required imports:
         javaBuffer.addImport(typeName);
         javaBuffer.addImport(containerName);
+        javaBuffer.addImport(Projection.class);
         javaBuffer.addImport(XmlReader.class);
 
-        // Generate the method:
-        List<StructMember> allMembers = new ArrayList<>();
-        allMembers.addAll(type.getAttributes());
-        allMembers.addAll(type.getLinks());
-        List<StructMember> asAttributes = allMembers.stream()
-            .filter(x -> schemaNames.isRepresentedAsAttribute(x.getName()))
-            .collect(toList());
-        List<StructMember> asElements = allMembers.stream()
-            .filter(x -> !schemaNames.isRepresentedAsAttribute(x.getName()))
-            .collect(toList());
+        // Generate the method that reads all the members:
         javaBuffer.addLine("public static %1$s readOne(XmlReader reader) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readOne(reader, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the method that reads only the members selected by the projection, or all of them if the
+        // projection is null:
+        List<StructMember> asAttributes = getAttributeMembers(type);
+        List<StructMember> asElements = getElementMembers(type);
+        javaBuffer.addLine(
+            "public static %1$s readOne(XmlReader reader, Projection projection) {",
+            typeName.getSimpleName()
+        );
         javaBuffer.addLine(  "// Do nothing if there aren't more tags:");
         javaBuffer.addLine(  "if (!reader.forward()) {");
         javaBuffer.addLine(    "return null;");
@@ -226,34 +329,59 @@ public class XmlSupportGenerator extends JavaGenerator {
             javaBuffer.addLine("// Process the attributes:");
             javaBuffer.addLine("for (int i = 0; i < reader.getAttributeCount(); i++) {");
             javaBuffer.addLine(  "String name = reader.getAttributeLocalName(i);");
+            javaBuffer.addLine(  "if (projection != null && !projection.includes(name)) {");
+            javaBuffer.addLine(    "continue;");
+            javaBuffer.addLine(  "}");
             javaBuffer.addLine(  "String image = reader.getAttributeValue(i);");
-            javaBuffer.addLine(  "switch (name) {");
-            asAttributes.stream()
-                .sorted()
-                .forEach(this::generateStructReadMemberFromAttribute);
+            javaBuffer.addLine(  "switch (indexOfAttribute(name)) {");
+            for (int i = 0; i < asAttributes.size(); i++) {
+                generateStructReadMemberFromAttribute(javaBuffer, asAttributes.get(i), i);
+            }
             javaBuffer.addLine(  "default:");
             javaBuffer.addLine(    "break;");
             javaBuffer.addLine(  "}");
             javaBuffer.addLine("}");
             javaBuffer.addLine();
         }
+        List<Link> links = getListLinks(type);
+        if (!links.isEmpty()) {
+            javaBuffer.addLine("// The \"href\" attributes of the links, applied after the inner elements:");
+            links.forEach(link -> javaBuffer.addLine("String %1$s = null;", getLinkHrefVariable(link)));
+            javaBuffer.addLine();
+        }
         javaBuffer.addLine(  "// Process the inner elements:");
-        javaBuffer.addLine(  "List<String[]> links = new ArrayList<>();");
         javaBuffer.addLine(  "reader.next();");
         javaBuffer.addLine(  "while (reader.forward()) {");
         if (!asElements.isEmpty()) {
             javaBuffer.addLine("String name = reader.getLocalName();");
-            javaBuffer.addLine("switch (name) {");
-            asElements.stream()
-                .sorted()
-                .forEach(this::generateStructReadMemberFromElement);
-            javaBuffer.addLine("case \"link\":");
-            javaBuffer.addLine("// Process the attributes:");
-            javaBuffer.addLine("String rel = reader.getAttributeValue(\"rel\");");
-            javaBuffer.addLine("String href = reader.getAttributeValue(\"href\");");
-            javaBuffer.addLine("if (rel != null && href != null) {");
-            javaBuffer.addLine(  "links.add(new String[]{rel, href});");
+            javaBuffer.addLine("if (projection != null && !projection.includes(name) && !name.equals(\"link\")) {");
+            javaBuffer.addLine(  "reader.skip();");
+            javaBuffer.addLine(  "continue;");
             javaBuffer.addLine("}");
+            javaBuffer.addLine("switch (indexOfElement(name)) {");
+            for (int i = 0; i < asElements.size(); i++) {
+                generateStructReadMemberFromElement(javaBuffer, asElements.get(i), i);
+            }
+            javaBuffer.addLine("case %1$d: // link", asElements.size());
+            if (!links.isEmpty()) {
+                javaBuffer.addLine("String rel = reader.getAttributeValue(\"rel\");");
+                javaBuffer.addLine("String href = reader.getAttributeValue(\"href\");");
+                javaBuffer.addLine("if (rel != null && href != null) {");
+                javaBuffer.addLine(  "switch (indexOfRel(rel)) {");
+                for (int i = 0; i < links.size(); i++) {
+                    Link link = links.get(i);
+                    String tag = schemaNames.getSchemaTagName(link.getName());
+                    javaBuffer.addLine("case %1$d: // %2$s", i, getLinkRel(link));
+                    javaBuffer.addLine("if (projection == null || projection.includes(\"%1$s\")) {", tag);
+                    javaBuffer.addLine(  "%1$s = href;", getLinkHrefVariable(link));
+                    javaBuffer.addLine("}");
+                    javaBuffer.addLine("break;");
+                }
+                javaBuffer.addLine(  "default:");
+                javaBuffer.addLine(    "break;");
+                javaBuffer.addLine(  "}");
+                javaBuffer.addLine("}");
+            }
             javaBuffer.addLine("reader.skip();");
             javaBuffer.addLine("break;");
             javaBuffer.addLine("default:");
@@ -266,12 +394,23 @@ public class XmlSupportGenerator extends JavaGenerator {
         }
         javaBuffer.addLine("}");
 
-        // Process the links:
-        javaBuffer.addLine("if (links != null) {");
-        javaBuffer.addLine(  "for (String[] link : links) {");
-        javaBuffer.addLine(    "processLink(object, link);");
-        javaBuffer.addLine(  "}");
-        javaBuffer.addLine("}");
+        // Apply the links, this is done after processing all the inner elements because the element that contains
+        // the inline list may appear after the link, and it would then replace the list containing the "href":
+        if (!links.isEmpty()) {
+            javaBuffer.addImport(ArrayListWithHref.class);
+            javaBuffer.addImport(ListWithHref.class);
+            javaBuffer.addLine();
+            javaBuffer.addLine("// Apply the links:");
+            links.forEach(link -> {
+                String field = javaNames.getJavaMemberStyleName(link.getName());
+                String variable = getLinkHrefVariable(link);
+                javaBuffer.addLine("if (%1$s != null) {", variable);
+                javaBuffer.addLine(  "ListWithHref %1$sList = new ArrayListWithHref(object.%1$s());", field);
+                javaBuffer.addLine(  "%1$sList.href(%2$s);", field, variable);
+                javaBuffer.addLine(  "object.%1$s(%1$sList);", field);
+                javaBuffer.addLine("}");
+            });
+        }
 
         javaBuffer.addLine();
         javaBuffer.addLine(  "// Discard the end tag:");
@@ -282,12 +421,12 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
     }
 
-    private void generateStructReadMemberFromAttribute(StructMember member) {
+    private void generateStructReadMemberFromAttribute(JavaClassBuffer javaBuffer, StructMember member, int index) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("case \"%1$s\":", tag);
+        javaBuffer.addLine("case %1$d: // %2$s", index, tag);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
             if (type == model.getBooleanType()) {
@@ -316,12 +455,12 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("break;");
     }
 
-    private void generateStructReadMemberFromElement(StructMember member) {
+    private void generateStructReadMemberFromElement(JavaClassBuffer javaBuffer, StructMember member, int index) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("case \"%1$s\":", tag);
+        javaBuffer.addLine("case %1$d: // %2$s", index, tag);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
             if (type == model.getBooleanType()) {
@@ -343,7 +482,15 @@ public class XmlSupportGenerator extends JavaGenerator {
                 javaBuffer.addLine("reader.skip();");
             }
         }
-        else if (type instanceof StructType || type instanceof EnumType) {
+        else if (type instanceof StructType) {
+            JavaClassName readerName = javaTypes.getXmlReaderName(type);
+            javaBuffer.addImport(readerName);
+            javaBuffer.addLine(
+                "object.%1$s(%2$s.readOne(reader, projection != null? projection.get(\"%3$s\"): null));",
+                field, readerName.getSimpleName(), tag
+            );
+        }
+        else if (type instanceof EnumType) {
             JavaClassName readerName = javaTypes.getXmlReaderName(type);
             javaBuffer.addImport(readerName);
             javaBuffer.addLine("object.%1$s(%2$s.readOne(reader));", field, readerName.getSimpleName());
@@ -353,7 +500,13 @@ public class XmlSupportGenerator extends JavaGenerator {
             Type elementType = listType.getElementType();
             JavaClassName readerName = javaTypes.getXmlReaderName(elementType);
             javaBuffer.addImport(readerName);
-            if (elementType instanceof StructType || elementType instanceof EnumType) {
+            if (elementType instanceof StructType) {
+                javaBuffer.addLine(
+                    "object.%1$s(%2$s.readMany(reader, projection != null? projection.get(\"%3$s\"): null));",
+                    field, readerName.getSimpleName(), tag
+                );
+            }
+            else if (elementType instanceof EnumType) {
                 javaBuffer.addLine("object.%1$s(%2$s.readMany(reader));", field, readerName.getSimpleName());
             }
             else if(elementType instanceof PrimitiveType) {
@@ -384,7 +537,7 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("break;");
     }
 
-    private void generateStructReadMany(StructType type) {
+    private void generateStructReadMany(JavaClassBuffer javaBuffer, StructType type) {
         // Get the type name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
 
@@ -396,8 +549,16 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addImport(NoSuchElementException.class);
         javaBuffer.addImport(XmlReader.class);
 
-        // Iterate method:
-        javaBuffer.addLine("public static Iterator<%1$s> iterateMany(final XmlReader reader) {", typeName.getSimpleName());
+        // Iterate methods:
+        javaBuffer.addImport(Projection.class);
+        javaBuffer.addLine("public static Iterator<%1$s> iterateMany(XmlReader reader) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return iterateMany(reader, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine(
+            "public static Iterator<%1$s> iterateMany(final XmlReader reader, final Projection projection) {",
+            typeName.getSimpleName()
+        );
         javaBuffer.addLine(  "return new Iterator<%1$s>() {", typeName.getSimpleName());
         javaBuffer.addLine(    "private boolean first = true;");
         javaBuffer.addLine();
@@ -424,7 +585,7 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
         javaBuffer.addLine(    "@Override");
         javaBuffer.addLine(    "public %1$s next() {", typeName.getSimpleName());
-        javaBuffer.addLine(      "%1$s next = readOne(reader);", typeName.getSimpleName());
+        javaBuffer.addLine(      "%1$s next = readOne(reader, projection);", typeName.getSimpleName());
         javaBuffer.addLine(      "if (next == null) {");
         javaBuffer.addLine(        "throw new NoSuchElementException();");
         javaBuffer.addLine(      "}");
@@ -434,11 +595,16 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
-        // Read method:
+        // Read methods:
         javaBuffer.addLine("public static List<%1$s> readMany(XmlReader reader) {",
             typeName.getSimpleName());
+        javaBuffer.addLine(  "return readMany(reader, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("public static List<%1$s> readMany(XmlReader reader, Projection projection) {",
+            typeName.getSimpleName());
         javaBuffer.addLine(  "List<%1$s> list = new ArrayList<>();", typeName.getSimpleName());
-        javaBuffer.addLine(  "Iterator<%1$s> iterator = iterateMany(reader);", typeName.getSimpleName());
+        javaBuffer.addLine(  "Iterator<%1$s> iterator = iterateMany(reader, projection);", typeName.getSimpleName());
         javaBuffer.addLine(  "while (iterator.hasNext()) {");
         javaBuffer.addLine(    "list.add(iterator.next());");
         javaBuffer.addLine(  "}");
@@ -447,7 +613,7 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
     }
 
-    private void generateEnumReadMany(EnumType type) {
+    private void generateEnumReadMany(JavaClassBuffer javaBuffer, EnumType type) {
         // Get the type name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
 
@@ -478,33 +644,33 @@ public class XmlSupportGenerator extends JavaGenerator {
     }
 
     private void generateEnumReader(EnumType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName readerName = javaTypes.getXmlReaderName(type);
         javaBuffer.setClassName(readerName);
-        generateEnumReaderSource(type);
+        generateEnumReaderSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for XML reader \"" + readerName + "\"", exception);
         }
     }
-    private void generateEnumReaderSource(EnumType type) {
+    private void generateEnumReaderSource(JavaClassBuffer javaBuffer, EnumType type) {
         // Begin class:
         JavaClassName readerName = javaTypes.getXmlReaderName(type);
         javaBuffer.addLine("public class %1$s {", readerName.getSimpleName());
         javaBuffer.addLine();
 
         // Generate methods to read one instance and a list of instances:
-        generateEnumReadOne(type);
-        generateEnumReadMany(type);
+        generateEnumReadOne(javaBuffer, type);
+        generateEnumReadMany(javaBuffer, type);
 
         // End class:
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateEnumReadOne(EnumType type) {
+    private void generateEnumReadOne(JavaClassBuffer javaBuffer, EnumType type) {
         // Get the type and container name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
 
@@ -526,34 +692,34 @@ public class XmlSupportGenerator extends JavaGenerator {
     }
 
     private void generateStructWriter(StructType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName writerName = javaTypes.getXmlWriterName(type);
         javaBuffer.setClassName(writerName);
-        generateStructWriterSource(type);
+        generateStructWriterSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for XML writer \"" + writerName + "\"", exception);
         }
     }
 
-    private void generateStructWriterSource(StructType type) {
+    private void generateStructWriterSource(JavaClassBuffer javaBuffer, StructType type) {
         // Begin class:
         JavaClassName writerName = javaTypes.getXmlWriterName(type);
         javaBuffer.addLine("public class %1$s {", writerName.getSimpleName());
         javaBuffer.addLine();
 
         // Generate methods to write one instance and a list of instances:
-        generateStructWriteOne(type);
-        generateStructWriteMany(type);
+        generateStructWriteOne(javaBuffer, type);
+        generateStructWriteMany(javaBuffer, type);
 
         // End class:
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateStructWriteOne(StructType type) {
+    private void generateStructWriteOne(JavaClassBuffer javaBuffer, StructType type) {
         // Calculate the name of the type and the XML tag:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
         String tag = schemaNames.getSchemaTagName(type.getName());
@@ -575,17 +741,17 @@ public class XmlSupportGenerator extends JavaGenerator {
         Stream.concat(type.attributes(), type.links())
             .filter(x -> schemaNames.isRepresentedAsAttribute(x.getName()))
             .sorted()
-            .forEach(this::generateStructWriteMemberAsAttribute);
+            .forEach(x -> generateStructWriteMemberAsAttribute(javaBuffer, x));
         Stream.concat(type.attributes(), type.links())
             .filter(x -> !schemaNames.isRepresentedAsAttribute(x.getName()))
             .sorted()
-            .forEach(this::generateStructWriteMemberAsElement);
+            .forEach(x -> generateStructWriteMemberAsElement(javaBuffer, x));
         javaBuffer.addLine("writer.writeEndElement();");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateStructWriteMemberAsAttribute(StructMember member) {
+    private void generateStructWriteMemberAsAttribute(JavaClassBuffer javaBuffer, StructMember member) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
@@ -610,7 +776,7 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
     }
 
-    private void generateStructWriteMemberAsElement(StructMember member) {
+    private void generateStructWriteMemberAsElement(JavaClassBuffer javaBuffer, StructMember member) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
@@ -689,15 +855,15 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
     }
 
-    private void generateStructWriteMany(StructType type) {
-        generateWriteMany(type);
+    private void generateStructWriteMany(JavaClassBuffer javaBuffer, StructType type) {
+        generateWriteMany(javaBuffer, type);
     }
 
-    private void generateEnumWriteMany(EnumType type) {
-        generateWriteMany(type);
+    private void generateEnumWriteMany(JavaClassBuffer javaBuffer, EnumType type) {
+        generateWriteMany(javaBuffer, type);
     }
 
-    private void generateWriteMany(Type type) {
+    private void generateWriteMany(JavaClassBuffer javaBuffer, Type type) {
         // Calculate the tag names:
         Name singularName = type.getName();
         Name pluralName = names.getPlural(singularName);
@@ -735,34 +901,34 @@ public class XmlSupportGenerator extends JavaGenerator {
     }
 
     private void generateEnumWriter(EnumType type) {
-        javaBuffer = new JavaClassBuffer();
+        JavaClassBuffer javaBuffer = new JavaClassBuffer();
         JavaClassName writerName = javaTypes.getXmlWriterName(type);
         javaBuffer.setClassName(writerName);
-        generateEnumWriterSource(type);
+        generateEnumWriterSource(javaBuffer, type);
         try {
-            javaBuffer.write(outDir);
+            javaBuffer.write(outDir, generatedFiles);
         }
         catch (IOException exception) {
             throw new RuntimeException("Can't write file for XML writer \"" + writerName + "\"", exception);
         }
     }
 
-    private void generateEnumWriterSource(EnumType type) {
+    private void generateEnumWriterSource(JavaClassBuffer javaBuffer, EnumType type) {
         // Begin class:
         JavaClassName writerName = javaTypes.getXmlWriterName(type);
         javaBuffer.addLine("public class %1$s {", writerName.getSimpleName());
         javaBuffer.addLine();
 
         // Generate methods to write one instance and a list of instances:
-        generateEnumWriteOne(type);
-        generateEnumWriteMany(type);
+        generateEnumWriteOne(javaBuffer, type);
+        generateEnumWriteMany(javaBuffer, type);
 
         // End class:
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
 
-    private void generateEnumWriteOne(EnumType type) {
+    private void generateEnumWriteOne(JavaClassBuffer javaBuffer, EnumType type) {
         // Calculate the name of the type and the XML tag:
         JavaClassName typeName = javaTypes.getEnumName(type);
         String tag = schemaNames.getSchemaTagName(type.getName());
@@ -0,0 +1,133 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the {@link GeneratedFiles} class.
+ */
+public class GeneratedFilesTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // The output directory shared by all the runs:
+    private File outDir;
+
+    @Before
+    public void createOutDir() throws IOException {
+        outDir = folder.newFolder("out");
+    }
+
+    /**
+     * Checks that a file that has the same content isn't written again.
+     */
+    @Test
+    public void testUnchangedFileIsSkipped() throws IOException {
+        GeneratedFiles first = new GeneratedFiles();
+        assertTrue(first.write(outDir, "a/A.java", "class A {}"));
+        first.finish();
+        GeneratedFiles second = new GeneratedFiles();
+        assertFalse(second.write(outDir, "a/A.java", "class A {}"));
+        assertTrue(second.write(outDir, "a/A.java", "class A { int x; }"));
+        second.finish();
+    }
+
+    /**
+     * Checks that the files generated by the previous run but not by the current one are deleted, and that the
+     * manifest is updated.
+     */
+    @Test
+    public void testStaleFileIsDeleted() throws IOException {
+        GeneratedFiles first = new GeneratedFiles();
+        first.write(outDir, "a/A.java", "class A {}");
+        first.write(outDir, "b/B.java", "class B {}");
+        first.finish();
+        GeneratedFiles second = new GeneratedFiles();
+        second.write(outDir, "a/A.java", "class A {}");
+        second.finish();
+        assertTrue(new File(outDir, "a/A.java").isFile());
+        assertFalse(new File(outDir, "b/B.java").exists());
+        assertEquals(Arrays.asList("a/A.java"), readManifest(GeneratedFiles.MANIFEST_NAME));
+    }
+
+    /**
+     * Checks that files that don't appear in the manifest are never deleted.
+     */
+    @Test
+    public void testOtherFilesAreKept() throws IOException {
+        File other = new File(outDir, "c/C.java");
+        FileUtils.writeStringToFile(other, "class C {}", UTF_8);
+        GeneratedFiles first = new GeneratedFiles();
+        first.write(outDir, "a/A.java", "class A {}");
+        first.finish();
+        GeneratedFiles second = new GeneratedFiles();
+        second.write(outDir, "b/B.java", "class B {}");
+        second.finish();
+        assertTrue(other.isFile());
+        assertFalse(new File(outDir, "a/A.java").exists());
+    }
+
+    /**
+     * Checks that two runs that share the output directory but use different manifest names don't delete each
+     * other's files, no matter how many times they run.
+     */
+    @Test
+    public void testRunsWithDifferentManifestsDontDeleteEachOther() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            GeneratedFiles jaxrs = new GeneratedFiles();
+            jaxrs.setManifestName(GeneratedFiles.MANIFEST_NAME + "-jaxrs");
+            jaxrs.write(outDir, "a/A.java", "class A {}");
+            jaxrs.finish();
+            GeneratedFiles java = new GeneratedFiles();
+            java.setManifestName(GeneratedFiles.MANIFEST_NAME + "-java");
+            java.write(outDir, "b/B.java", "class B {}");
+            java.finish();
+            assertTrue(new File(outDir, "a/A.java").isFile());
+            assertTrue(new File(outDir, "b/B.java").isFile());
+        }
+        assertEquals(Arrays.asList("a/A.java"), readManifest(GeneratedFiles.MANIFEST_NAME + "-jaxrs"));
+        assertEquals(Arrays.asList("b/B.java"), readManifest(GeneratedFiles.MANIFEST_NAME + "-java"));
+    }
+
+    /**
+     * Checks that manifest names containing directories are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testManifestNameWithDirectoryIsRejected() {
+        new GeneratedFiles().setManifestName("../manifest");
+    }
+
+    private List<String> readManifest(String name) throws IOException {
+        return Files.readAllLines(new File(outDir, name).toPath(), UTF_8);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+Copyright (c) 2015 Red Hat, Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ovirt.api.metamodel.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.NameParser;
+
+/**
+ * Tests for the {@link RenderingCache} and {@link RenderingCaches} classes.
+ */
+public class RenderingCacheTest {
+    /**
+     * Checks that the function is called only the first time that a value is requested, and that the hits and misses
+     * are counted.
+     */
+    @Test
+    public void testResultIsCalculatedOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        RenderingCache<String, String> cache = new RenderingCache<>(
+            "upper",
+            10,
+            value -> {
+                calls.incrementAndGet();
+                return value.toUpperCase();
+            },
+            UnaryOperator.identity()
+        );
+        assertEquals("VM", cache.get("vm"));
+        assertEquals("VM", cache.get("vm"));
+        assertEquals("DISK", cache.get("disk"));
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getSize());
+        assertEquals("upper: 1 hits, 2 misses, 2 stored", cache.toString());
+    }
+
+    /**
+     * Checks that once the cache is full the results are still calculated, but not stored.
+     */
+    @Test
+    public void testFullCacheDoesNotStore() {
+        RenderingCache<String, String> cache = new RenderingCache<>(
+            "upper",
+            1,
+            String::toUpperCase,
+            UnaryOperator.identity()
+        );
+        assertEquals("VM", cache.get("vm"));
+        assertEquals("DISK", cache.get("disk"));
+        assertEquals("DISK", cache.get("disk"));
+        assertEquals(1, cache.getSize());
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    /**
+     * Checks that null values and results aren't stored.
+     */
+    @Test
+    public void testNullsAreNotStored() {
+        RenderingCache<String, String> cache = new RenderingCache<>(
+            "nulls",
+            10,
+            value -> value == null? "null": null,
+            UnaryOperator.identity()
+        );
+        assertEquals("null", cache.get(null));
+        assertNull(cache.get("vm"));
+        assertNull(cache.get("vm"));
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getHits());
+    }
+
+    /**
+     * Checks that clearing the cache discards the results but keeps the counters.
+     */
+    @Test
+    public void testClearKeepsCounters() {
+        RenderingCache<String, String> cache = new RenderingCache<>(
+            "upper",
+            10,
+            String::toUpperCase,
+            UnaryOperator.identity()
+        );
+        cache.get("vm");
+        cache.get("vm");
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        cache.get("vm");
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Checks that the caches for names store copies of the names, so that modifying a name after using it doesn't
+     * affect the stored results.
+     */
+    @Test
+    public void testNameKeysAreCopied() {
+        RenderingCaches caches = new RenderingCaches();
+        RenderingCache<Name, String> cache = caches.createForNames("joined", name -> name.getLowerJoined("_"));
+        Name name = NameParser.parseUsingCase("DiskAttachment");
+        assertEquals("disk_attachment", cache.get(name));
+        name.setWords(Arrays.asList("vm"));
+        assertEquals("vm", cache.get(name));
+        assertEquals("disk_attachment", cache.get(NameParser.parseUsingCase("DiskAttachment")));
+        assertEquals(1, cache.getHits());
+    }
+
+    /**
+     * Checks that the caches created are tracked, so that their statistics can be reported.
+     */
+    @Test
+    public void testCreatedCachesAreTracked() {
+        RenderingCaches caches = new RenderingCaches();
+        RenderingCache<String, String> first = caches.create("first", Function.identity());
+        RenderingCache<Name, Name> second = caches.createForNames("second", Function.identity());
+        assertEquals(2, caches.getCaches().size());
+        assertSame(first, caches.getCaches().get(0));
+        assertSame(second, caches.getCaches().get(1));
+    }
+}